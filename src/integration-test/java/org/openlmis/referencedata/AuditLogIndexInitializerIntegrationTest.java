@@ -0,0 +1,70 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+// not transactional, as an index is built concurrently only after open transactions end
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(Application.class)
+@ActiveProfiles("test")
+public class AuditLogIndexInitializerIntegrationTest {
+
+  private static final String COUNT_VALID_INDEXES = "SELECT COUNT(*) FROM pg_index i"
+      + " JOIN pg_class c ON c.oid = i.indexrelid"
+      + " WHERE c.relname = ? AND i.indisvalid";
+
+  @Autowired
+  private ApplicationContext applicationContext;
+
+  @Autowired
+  private JdbcTemplate jdbcTemplate;
+
+  @Value("${spring.jpa.properties.hibernate.default_schema}")
+  private String javersSchema;
+
+  private AuditLogIndexInitializer auditLogIndexInitializer;
+
+  @Before
+  public void setUp() {
+    // the initializer is not started in the test profile, so it is created here
+    auditLogIndexInitializer = new AuditLogIndexInitializer();
+    applicationContext.getAutowireCapableBeanFactory().autowireBean(auditLogIndexInitializer);
+  }
+
+  @Test
+  public void shouldCreateCommitDateIndexOnce() {
+    jdbcTemplate.execute("DROP INDEX IF EXISTS " + javersSchema + '.'
+        + AuditLogIndexInitializer.COMMIT_DATE_INDEX);
+
+    auditLogIndexInitializer.createIndexes();
+    auditLogIndexInitializer.createIndexes();
+
+    assertEquals(Integer.valueOf(1), jdbcTemplate.queryForObject(COUNT_VALID_INDEXES,
+        Integer.class, AuditLogIndexInitializer.COMMIT_DATE_INDEX));
+  }
+}
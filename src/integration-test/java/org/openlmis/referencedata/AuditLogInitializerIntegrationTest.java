@@ -0,0 +1,151 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.domain.FacilityType;
+import org.openlmis.referencedata.domain.GeographicLevel;
+import org.openlmis.referencedata.domain.GeographicZone;
+import org.openlmis.referencedata.dto.AuditLogSnapshotDto;
+import org.openlmis.referencedata.repository.AuditLogRepository;
+import org.openlmis.referencedata.repository.FacilityRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.SpringApplicationConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+@RunWith(SpringJUnit4ClassRunner.class)
+@SpringApplicationConfiguration(Application.class)
+@ActiveProfiles("test")
+@Transactional
+public class AuditLogInitializerIntegrationTest {
+
+  @Autowired
+  private ApplicationContext applicationContext;
+
+  @Autowired
+  private FacilityRepository facilityRepository;
+
+  @Autowired
+  private AuditLogRepository auditLogRepository;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  private AuditLogInitializer auditLogInitializer;
+
+  private FacilityType facilityType = new FacilityType();
+  private GeographicZone geographicZone = new GeographicZone();
+  private GeographicLevel geographicLevel = new GeographicLevel();
+
+  private int instanceNumber;
+
+  @Before
+  public void setUp() {
+    // the initializer is not started in the test profile, so it is created here
+    auditLogInitializer = new AuditLogInitializer();
+    applicationContext.getAutowireCapableBeanFactory().autowireBean(auditLogInitializer);
+    ReflectionTestUtils.setField(auditLogInitializer, "batchSize", 1);
+
+    facilityType.setCode("AuditLogInitializerIntegrationTest");
+    entityManager.persist(facilityType);
+
+    geographicLevel.setCode("AuditLogInitializerIntegrationTest");
+    geographicLevel.setLevelNumber(1);
+    entityManager.persist(geographicLevel);
+
+    geographicZone.setCode("AuditLogInitializerIntegrationTest");
+    geographicZone.setLevel(geographicLevel);
+    entityManager.persist(geographicZone);
+  }
+
+  @Test
+  public void shouldCommitSnapshotsOfObjectsWithoutSnapshotsOnly() {
+    Facility audited = facilityRepository.save(generateFacility());
+    // persisted past the repository, so no snapshot is committed
+    Facility notAudited = generateFacility();
+    entityManager.persist(notAudited);
+    Facility otherNotAudited = generateFacility();
+    entityManager.persist(otherNotAudited);
+    entityManager.flush();
+
+    assertEquals(0, findSnapshots(notAudited).size());
+
+    auditLogInitializer.createMissingSnapshots();
+
+    List<AuditLogSnapshotDto> snapshots = findSnapshots(audited);
+    assertEquals(1, snapshots.size());
+    assertNotEquals(AuditLogInitializer.AUTHOR, snapshots.get(0).getAuthor());
+
+    snapshots = findSnapshots(notAudited);
+    assertEquals(1, snapshots.size());
+    assertEquals(AuditLogInitializer.AUTHOR, snapshots.get(0).getAuthor());
+
+    snapshots = findSnapshots(otherNotAudited);
+    assertEquals(1, snapshots.size());
+    assertEquals(AuditLogInitializer.AUTHOR, snapshots.get(0).getAuthor());
+  }
+
+  @Test
+  public void shouldNotCommitAnythingOnSecondRun() {
+    Facility notAudited = generateFacility();
+    entityManager.persist(notAudited);
+    entityManager.flush();
+
+    auditLogInitializer.createMissingSnapshots();
+    int committed = findSnapshotsOfInitializer().size();
+
+    auditLogInitializer.createMissingSnapshots();
+
+    assertEquals(committed, findSnapshotsOfInitializer().size());
+    assertEquals(1, findSnapshots(notAudited).size());
+  }
+
+  private Facility generateFacility() {
+    instanceNumber++;
+    Facility facility = new Facility("ALI" + instanceNumber);
+    facility.setType(facilityType);
+    facility.setGeographicZone(geographicZone);
+    facility.setName("Facility #" + instanceNumber);
+    facility.setActive(true);
+    facility.setEnabled(true);
+    return facility;
+  }
+
+  private List<AuditLogSnapshotDto> findSnapshots(Facility facility) {
+    return auditLogRepository.searchSnapshots(Facility.class, facility.getId(), null, null,
+        null, null, null, 10);
+  }
+
+  private List<AuditLogSnapshotDto> findSnapshotsOfInitializer() {
+    return auditLogRepository.searchSnapshots(Facility.class, null, AuditLogInitializer.AUTHOR,
+        null, null, null, null, Integer.MAX_VALUE);
+  }
+}
@@ -16,16 +16,29 @@
 package org.openlmis.referencedata.repository;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import org.javers.core.Javers;
+import org.javers.core.diff.Change;
+import org.javers.core.diff.changetype.ValueChange;
+import org.javers.repository.jql.QueryBuilder;
 import org.junit.Before;
 import org.junit.Test;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityType;
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.domain.GeographicZone;
+import org.openlmis.referencedata.dto.AuditLogSnapshotDto;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 public class FacilityRepositoryIntegrationTest extends BaseCrudRepositoryIntegrationTest<Facility> {
 
@@ -41,6 +54,15 @@ public class FacilityRepositoryIntegrationTest extends BaseCrudRepositoryIntegra
   @Autowired
   private GeographicZoneRepository geographicZoneRepository;
 
+  @Autowired
+  private AuditLogRepository auditLogRepository;
+
+  @Autowired
+  private Javers javers;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
   FacilityRepository getRepository() {
     return this.repository;
   }
@@ -181,4 +203,163 @@ public class FacilityRepositoryIntegrationTest extends BaseCrudRepositoryIntegra
 
     assertEquals(facility.getName(), foundFacilties.get(0).getName());
   }
+
+  @Test
+  public void shouldPageFacilitySnapshotsFromTheNewest() {
+    Facility facility = generateInstance();
+    repository.save(facility);
+    facility.setName("Renamed facility");
+    repository.save(facility);
+
+    List<AuditLogSnapshotDto> firstPage = auditLogRepository.searchSnapshots(Facility.class,
+        facility.getId(), null, null, null, null, null, 1);
+    assertEquals(1, firstPage.size());
+    assertEquals("UPDATE", firstPage.get(0).getType());
+    assertTrue(firstPage.get(0).getChangedProperties().contains("\"name\""));
+
+    List<AuditLogSnapshotDto> secondPage = auditLogRepository.searchSnapshots(Facility.class,
+        facility.getId(), null, null, null, null, firstPage.get(0).getSnapshotId(), 1);
+    assertEquals(1, secondPage.size());
+    assertEquals("INITIAL", secondPage.get(0).getType());
+
+    assertEquals(1, auditLogRepository.searchSnapshots(Facility.class, facility.getId(), null,
+        "name", null, null, null, 10).size());
+    assertTrue(auditLogRepository.searchSnapshots(Facility.class, facility.getId(), null, null,
+        LocalDateTime.now().plusDays(1), null, null, 10).isEmpty());
+  }
+
+  @Test
+  public void shouldMatchChangedPropertyNameLiterally() {
+    Facility facility = generateInstance();
+    repository.save(facility);
+    facility.setName("Renamed facility");
+    repository.save(facility);
+
+    assertTrue(auditLogRepository.searchSnapshots(Facility.class, facility.getId(), null,
+        "na_e", null, null, null, 10).isEmpty());
+    assertTrue(auditLogRepository.searchSnapshots(Facility.class, facility.getId(), null,
+        "%", null, null, null, 10).isEmpty());
+  }
+
+  @Test
+  public void shouldReturnNoSnapshotsOfUnknownFacility() {
+    List<AuditLogSnapshotDto> snapshots = auditLogRepository.searchSnapshots(Facility.class,
+        UUID.randomUUID(), null, null, null, null, null, 10);
+
+    assertTrue(snapshots.isEmpty());
+  }
+
+  @Test
+  public void shouldStreamFeedOfSnapshotsFromTheOldest() {
+    LocalDateTime from = LocalDateTime.now().minusMinutes(1);
+    Facility facility = generateInstance();
+    repository.save(facility);
+    facility.setName("Renamed facility");
+    repository.save(facility);
+
+    List<AuditLogSnapshotDto> feed = new ArrayList<>();
+    int count = auditLogRepository.streamSnapshots(from, null, null, null, null, feed::add);
+
+    assertEquals(feed.size(), count);
+    AuditLogSnapshotDto initial = feed.get(feed.size() - 2);
+    assertEquals("INITIAL", initial.getType());
+    assertEquals("UPDATE", feed.get(feed.size() - 1).getType());
+
+    List<AuditLogSnapshotDto> rest = new ArrayList<>();
+    auditLogRepository.streamSnapshots(from, null, null, initial.getSnapshotId(), 1, rest::add);
+    assertEquals(1, rest.size());
+    assertEquals("UPDATE", rest.get(0).getType());
+  }
+
+  @Test
+  public void shouldStreamFeedOfWindowInTheMiddleOfHistory() throws InterruptedException {
+    repository.save(generateInstance());
+    Thread.sleep(10);
+    LocalDateTime from = LocalDateTime.now();
+    Thread.sleep(10);
+    Facility inside = repository.save(generateInstance());
+    Thread.sleep(10);
+    LocalDateTime to = LocalDateTime.now();
+    Thread.sleep(10);
+    repository.save(generateInstance());
+
+    List<AuditLogSnapshotDto> feed = new ArrayList<>();
+    auditLogRepository.streamSnapshots(from, to, null, null, null, feed::add);
+
+    assertEquals(1, feed.size());
+    assertEquals('"' + inside.getId().toString() + '"', feed.get(0).getCdoId());
+  }
+
+  @Test
+  public void shouldDeleteAllButInitialAndLatestSnapshotOfDay() {
+    Facility facility = generateInstance();
+    repository.save(facility);
+    facility.setName("Renamed facility");
+    repository.save(facility);
+    facility.setDescription("Described facility");
+    repository.save(facility);
+
+    List<AuditLogSnapshotDto> snapshots = auditLogRepository.searchSnapshots(Facility.class,
+        facility.getId(), null, null, null, null, null, 10);
+    List<Long> compactable = auditLogRepository.findCompactableSnapshots(
+        LocalDateTime.now().plusDays(1), "day", 0, 100);
+
+    assertFalse(compactable.contains(snapshots.get(0).getSnapshotId()));
+    assertTrue(compactable.contains(snapshots.get(1).getSnapshotId()));
+    assertFalse(compactable.contains(snapshots.get(2).getSnapshotId()));
+
+    assertEquals(compactable.size(), auditLogRepository.deleteSnapshots(compactable));
+    List<AuditLogSnapshotDto> left = auditLogRepository.searchSnapshots(Facility.class,
+        facility.getId(), null, null, null, null, null, 10);
+    assertEquals(2, left.size());
+    assertEquals("UPDATE", left.get(0).getType());
+    assertEquals(3, left.get(0).getVersion());
+    assertEquals(snapshots.get(0).getChangedProperties(), left.get(0).getChangedProperties());
+    assertEquals("INITIAL", left.get(1).getType());
+    assertEquals(1, left.get(1).getVersion());
+
+    Number commits = (Number) entityManager
+        .createNativeQuery("SELECT COUNT(*) FROM referencedata.jv_commit WHERE commit_id = :id")
+        .setParameter("id", snapshots.get(1).getCommitId())
+        .getSingleResult();
+    assertEquals(0, commits.intValue());
+  }
+
+  @Test
+  public void shouldNotListChangesOfCompactedSnapshots() {
+    Facility facility = generateInstance();
+    repository.save(facility);
+    facility.setName("Renamed facility");
+    repository.save(facility);
+    facility.setDescription("Described facility");
+    repository.save(facility);
+
+    auditLogRepository.deleteSnapshots(auditLogRepository.findCompactableSnapshots(
+        LocalDateTime.now().plusDays(1), "day", 0, 100));
+
+    // the same query as the audit log endpoint of facilities runs
+    List<Change> changes = javers.findChanges(QueryBuilder
+        .byInstanceId(facility.getId(), Facility.class)
+        .withNewObjectChanges(true)
+        .build());
+
+    assertFalse(changes.isEmpty());
+    assertTrue(changes.stream()
+        .filter(change -> change instanceof ValueChange)
+        .noneMatch(change -> "Renamed facility".equals(((ValueChange) change).getRight())));
+  }
+
+  @Test
+  public void shouldNotCompactSnapshotsNewerThanCutoff() {
+    Facility facility = generateInstance();
+    repository.save(facility);
+    facility.setName("Renamed facility");
+    repository.save(facility);
+
+    AuditLogSnapshotDto initial = auditLogRepository.searchSnapshots(Facility.class,
+        facility.getId(), null, null, null, null, null, 10).get(1);
+
+    assertFalse(auditLogRepository.findCompactableSnapshots(LocalDateTime.now().minusDays(1),
+        "day", 0, 100).contains(initial.getSnapshotId()));
+  }
 }
@@ -31,6 +31,7 @@ import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityType;
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
+import org.openlmis.referencedata.domain.FlatApprovedProduct;
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.domain.CommodityType;
@@ -42,6 +43,9 @@ import org.openlmis.referencedata.domain.ProgramOrderable;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import java.util.Collection;
+import java.util.List;
+
+import javax.persistence.EntityManager;
 
 public class FacilityTypeApprovedProductRepositoryTest extends
     BaseCrudRepositoryIntegrationTest<FacilityTypeApprovedProduct> {
@@ -70,6 +74,12 @@ public class FacilityTypeApprovedProductRepositoryTest extends
   @Autowired
   private GeographicZoneRepository geographicZoneRepository;
 
+  @Autowired
+  private FlatApprovedProductRepository flatApprovedProductRepository;
+
+  @Autowired
+  private EntityManager entityManager;
+
   FacilityTypeApprovedProductRepository getRepository() {
     return this.ftapRepository;
   }
@@ -224,6 +234,39 @@ public class FacilityTypeApprovedProductRepositoryTest extends
     assertFacilityTypeApprovedProduct(ftap);
   }
 
+  @Test
+  public void shouldKeepFlatApprovedProductsInSync() {
+    FacilityTypeApprovedProduct ftap = ftapRepository.save(generateInstance());
+    entityManager.flush();
+
+    List<FlatApprovedProduct> list = flatApprovedProductRepository
+        .searchProducts(facilityType.getId(), program.getId(), true);
+
+    assertThat(list, hasSize(1));
+    FlatApprovedProduct flat = list.get(0);
+    assertThat(flat.getId(), is(equalTo(ftap.getId())));
+    assertThat(flat.getProgramOrderableId(), is(equalTo(programOrderableFullSupply.getId())));
+    assertThat(flat.getOrderableCode(), is(equalTo("ibuprofen")));
+    assertThat(flat.getCategoryDisplayName(), is(equalTo("orderableDisplayCategoryName")));
+    assertEquals(12.00, flat.getMaxPeriodsOfStock(), maxPeriodsOfStockDelta);
+
+    ftap.setFacilityType(facilityType2);
+    ftapRepository.save(ftap);
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(flatApprovedProductRepository
+        .searchProducts(facilityType.getId(), true), hasSize(0));
+    assertThat(flatApprovedProductRepository
+        .searchProducts(facilityType2.getId(), true), hasSize(1));
+
+    ftapRepository.delete(ftap.getId());
+    entityManager.flush();
+    entityManager.clear();
+
+    assertThat(flatApprovedProductRepository.exists(ftap.getId()), is(false));
+  }
+
   private void assertFacilityTypeApprovedProduct(FacilityTypeApprovedProduct ftap) {
     assertThat(ftap.getFacilityType().getId(), is(equalTo(facilityType.getId())));
     assertThat(ftap.getFacilityType().getId(), is(equalTo(facility.getType().getId())));
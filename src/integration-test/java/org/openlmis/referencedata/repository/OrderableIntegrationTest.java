@@ -12,13 +12,28 @@
  * the GNU Affero General Public License along with this program. If not, see
  * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
  */
-
 package org.openlmis.referencedata.repository;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+
+import org.joda.money.CurrencyUnit;
+import org.junit.Test;
+import org.openlmis.referencedata.CurrencyConfig;
+import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.Orderable;
-
+import org.openlmis.referencedata.domain.OrderableDisplayCategory;
+import org.openlmis.referencedata.domain.OrderedDisplayValue;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.ProgramOrderable;
+import org.openlmis.referencedata.domain.TradeItem;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.UUID;
@@ -29,6 +44,12 @@ public class OrderableIntegrationTest
   @Autowired
   private OrderableRepository repository;
 
+  @Autowired
+  private ProgramRepository programRepository;
+
+  @Autowired
+  private OrderableDisplayCategoryRepository orderableDisplayCategoryRepository;
+
   @Override
   CrudRepository<Orderable, UUID> getRepository() {
     return repository;
@@ -38,4 +59,66 @@ public class OrderableIntegrationTest
   Orderable generateInstance() {
     return CommodityType.newCommodityType("abcd", "each", "Abcd", "test", 10, 5, false);
   }
+
+  @Test
+  public void shouldSearchByCodePrefixAndName() {
+    Orderable ibuprofen = repository.save(
+        CommodityType.newCommodityType("IBU01", "each", "Ibuprofen", "test", 10, 5, false));
+    repository.save(
+        CommodityType.newCommodityType("PAR01", "each", "Paracetamol", "test", 10, 5, false));
+    repository.save(
+        CommodityType.newCommodityType("XIBU1", "each", "Xibuprofen", "test", 10, 5, false));
+
+    Page<Orderable> page = repository.search("ibu", null, null, null, new PageRequest(0, 10));
+    assertThat(page.getContent(), contains(ibuprofen));
+
+    page = repository.search(null, "PROF", null, null, new PageRequest(0, 10));
+    assertThat(page.getContent(), hasSize(2));
+
+    page = repository.search(null, "%", null, null, new PageRequest(0, 10));
+    assertThat(page.getContent(), hasSize(0));
+  }
+
+  @Test
+  public void shouldSearchByProgramAndType() {
+    Program program = programRepository.save(new Program("programCode"));
+    OrderableDisplayCategory category = orderableDisplayCategoryRepository.save(
+        OrderableDisplayCategory.createNew(Code.code("categoryCode"),
+            new OrderedDisplayValue("categoryName", 1)));
+
+    Orderable inProgram = CommodityType.newCommodityType(
+        "IBU01", "each", "Ibuprofen", "test", 10, 5, false);
+    inProgram.addToProgram(ProgramOrderable.createNew(program, category, inProgram,
+        CurrencyUnit.of(CurrencyConfig.CURRENCY_CODE)));
+    inProgram = repository.save(inProgram);
+    repository.save(
+        CommodityType.newCommodityType("PAR01", "each", "Paracetamol", "test", 10, 5, false));
+    Orderable tradeItem = repository.save(
+        TradeItem.newTradeItem("TRD01", "each", "Gloves", 6, 3, false));
+
+    Page<Orderable> page = repository.search(null, null, program.getId(), null,
+        new PageRequest(0, 10));
+    assertThat(page.getContent(), contains(inProgram));
+
+    page = repository.search(null, null, null, TradeItem.class, new PageRequest(0, 10));
+    assertThat(page.getContent(), contains(tradeItem));
+  }
+
+  @Test
+  public void shouldPaginateAndSortSearchResults() {
+    for (int i = 1; i <= 5; i++) {
+      repository.save(CommodityType.newCommodityType(
+          "C0" + i, "each", "Orderable " + (6 - i), "test", 10, 5, false));
+    }
+
+    Page<Orderable> page = repository.search("c0", null, null, null, new PageRequest(1, 2));
+    assertEquals(5, page.getTotalElements());
+    assertEquals(3, page.getTotalPages());
+    assertThat(page.getContent(), hasSize(2));
+    assertEquals("C03", page.getContent().get(0).getProductCode().toString());
+
+    page = repository.search("c0", null, null, null,
+        new PageRequest(0, 2, new Sort(Sort.Direction.ASC, "name")));
+    assertEquals("C05", page.getContent().get(0).getProductCode().toString());
+  }
 }
@@ -24,6 +24,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -175,4 +176,60 @@ public class ProcessingPeriodRepositoryIntegrationTest
 
     assertEquals(periods.size(), receivedPeriods.size());
   }
-}
\ No newline at end of file
+
+  @Test
+  public void shouldSearchPeriodsOfManySchedules() {
+    List<ProcessingPeriod> periods = new ArrayList<>();
+    for (int periodsCount = 0; periodsCount < 5; periodsCount++) {
+      periods.add(generatePeriodInstance(
+              PERIOD_NAME + periodsCount,
+              testSchedule,
+              PERIOD_DESCRIPTION + periodsCount,
+              LocalDate.now().minusDays(periodsCount),
+              LocalDate.now().plusDays(periodsCount)));
+      periodRepository.save(periods.get(periodsCount));
+    }
+    List<ProcessingPeriod> receivedPeriods = periodRepository.searchPeriodsBySchedules(
+            Collections.singleton(testSchedule.getId()), periods.get(1).getStartDate());
+
+    assertEquals(4, receivedPeriods.size());
+    assertEquals(periods.get(4), receivedPeriods.get(0));
+    assertTrue(periodRepository.searchPeriodsBySchedules(
+            Collections.singleton(UUID.randomUUID()), null).isEmpty());
+  }
+
+  @Test
+  public void shouldFindPeriodsOverlappingDateRange() {
+    ProcessingPeriod january = periodRepository.save(generatePeriodInstance(PERIOD_NAME + 1,
+        testSchedule, PERIOD_DESCRIPTION, LocalDate.of(2016, 1, 1), LocalDate.of(2016, 1, 31)));
+    ProcessingPeriod february = periodRepository.save(generatePeriodInstance(PERIOD_NAME + 2,
+        testSchedule, PERIOD_DESCRIPTION, LocalDate.of(2016, 2, 1), LocalDate.of(2016, 2, 29)));
+    periodRepository.save(generatePeriodInstance(PERIOD_NAME + 3, testSchedule,
+        PERIOD_DESCRIPTION, LocalDate.of(2016, 3, 1), LocalDate.of(2016, 3, 31)));
+
+    List<ProcessingPeriod> containing = periodRepository.findOverlappingPeriods(
+        testSchedule, LocalDate.of(2016, 1, 31), LocalDate.of(2016, 1, 31));
+    List<ProcessingPeriod> overlapping = periodRepository.findOverlappingPeriods(
+        testSchedule, LocalDate.of(2016, 1, 15), LocalDate.of(2016, 2, 15));
+
+    assertEquals(1, containing.size());
+    assertEquals(january.getId(), containing.get(0).getId());
+    assertEquals(2, overlapping.size());
+    assertEquals(february.getId(), overlapping.get(1).getId());
+  }
+
+  @Test
+  public void shouldFindLastPeriodOfSchedule() {
+    ProcessingSchedule otherSchedule = generateScheduleInstance(PERIOD_NAME, "other", "Other");
+    scheduleRepository.save(otherSchedule);
+    periodRepository.save(generatePeriodInstance(PERIOD_NAME + 1, testSchedule,
+        PERIOD_DESCRIPTION, LocalDate.of(2016, 1, 1), LocalDate.of(2016, 1, 31)));
+    ProcessingPeriod last = periodRepository.save(generatePeriodInstance(PERIOD_NAME + 2,
+        testSchedule, PERIOD_DESCRIPTION, LocalDate.of(2016, 2, 1), LocalDate.of(2016, 2, 29)));
+    periodRepository.save(generatePeriodInstance(PERIOD_NAME + 3, otherSchedule,
+        PERIOD_DESCRIPTION, LocalDate.of(2016, 3, 1), LocalDate.of(2016, 3, 31)));
+
+    assertEquals(last.getId(),
+        periodRepository.findFirstByProcessingScheduleOrderByStartDateDesc(testSchedule).getId());
+  }
+}
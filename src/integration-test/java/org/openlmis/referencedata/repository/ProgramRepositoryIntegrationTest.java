@@ -22,14 +22,26 @@ import static org.junit.Assert.assertTrue;
 import org.junit.Test;
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.dto.ChangeLogEntryDto;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 public class ProgramRepositoryIntegrationTest extends BaseCrudRepositoryIntegrationTest<Program> {
 
   @Autowired
   ProgramRepository repository;
+
+  @Autowired
+  ChangeLogRepository changeLogRepository;
+
+  @PersistenceContext
+  EntityManager entityManager;
   
   String programCode;
   String programName;
@@ -115,4 +127,40 @@ public class ProgramRepositoryIntegrationTest extends BaseCrudRepositoryIntegrat
 
     assertEquals(0, foundPrograms.size());
   }
+
+  @Test
+  public void shouldLogChangesInSequence() {
+    Program program = this.generateInstance();
+    repository.save(program);
+    entityManager.flush();
+    program.setName("Renamed program");
+    repository.save(program);
+    entityManager.flush();
+    repository.delete(program);
+    entityManager.flush();
+
+    assertEquals(0, changeLogRepository
+        .findChanges(0, Collections.singleton("programs"), Integer.MAX_VALUE)
+        .stream()
+        .filter(change -> program.getId().equals(change.getId()))
+        .count());
+    changeLogRepository.sequenceChanges(Integer.MAX_VALUE);
+
+    List<ChangeLogEntryDto> changes = changeLogRepository
+        .findChanges(0, Collections.singleton("programs"), Integer.MAX_VALUE)
+        .stream()
+        .filter(change -> program.getId().equals(change.getId()))
+        .collect(Collectors.toList());
+
+    assertEquals(3, changes.size());
+    assertTrue(changes.get(0).getSeq() < changes.get(1).getSeq());
+    assertTrue(changes.get(1).getSeq() < changes.get(2).getSeq());
+    assertFalse(changes.get(1).isDeleted());
+    assertTrue(changes.get(2).isDeleted());
+
+    List<ChangeLogEntryDto> next = changeLogRepository
+        .findChanges(changes.get(1).getSeq(), Collections.singleton("programs"), 1);
+    assertEquals(1, next.size());
+    assertEquals(changes.get(2).getSeq(), next.get(0).getSeq());
+  }
 }
@@ -15,9 +15,7 @@
 
 package org.openlmis.referencedata.repository;
 
-import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertEquals;
-import static org.junit.Assert.assertThat;
 
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
@@ -34,6 +32,9 @@ import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.springframework.beans.factory.annotation.Autowired;
 
+import java.util.Collections;
+import java.util.List;
+
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceException;
 
@@ -138,15 +139,7 @@ public class RequisitionGroupProgramScheduleRepositoryIntegrationTest
   }
 
   @Test
-  public void shouldReturnNullIfRequisitionGroupProgramScheduleIsNotFound() {
-    RequisitionGroupProgramSchedule requisitionGroupProgramSchedule =
-          repository.searchRequisitionGroupProgramSchedule(program, facility);
-
-    assertEquals(requisitionGroupProgramSchedule, null);
-  }
-
-  @Test
-  public void shouldReturnCorrectInstance() {
+  public void shouldFindResolutionsOfRequisitionGroups() {
     RequisitionGroupProgramSchedule entity = generateInstance();
     repository.save(entity);
 
@@ -154,9 +147,17 @@ public class RequisitionGroupProgramScheduleRepositoryIntegrationTest
     requisitionGroup.setMemberFacilities(Sets.newHashSet(facility));
     requisitionGroupRepository.save(requisitionGroup);
 
-    RequisitionGroupProgramSchedule found = repository
-        .searchRequisitionGroupProgramSchedule(program, facility);
-
-    assertThat(found, is(entity));
+    List<Object[]> resolutions = repository
+        .findResolutions(Collections.singleton(requisitionGroup.getId()));
+
+    assertEquals(1, resolutions.size());
+    assertEquals(entity.getId(), resolutions.get(0)[0]);
+    assertEquals(program.getId(), resolutions.get(0)[1]);
+    assertEquals(facility.getId(), resolutions.get(0)[2]);
+    assertEquals(schedule.getId(), resolutions.get(0)[3]);
+    assertEquals(requisitionGroup.getId(), resolutions.get(0)[4]);
+    assertEquals(requisitionGroup.getSupervisoryNode().getId(), resolutions.get(0)[5]);
+    assertEquals(facility.getId(), resolutions.get(0)[6]);
+    assertEquals(1, repository.findAllResolutions().size());
   }
 }
@@ -31,10 +31,15 @@ import org.openlmis.referencedata.domain.RequisitionGroup;
 import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 
 import java.util.ArrayList;
 import java.util.List;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 /**
  * Allow testing requisitionGroupRepository.
  */
@@ -67,6 +72,11 @@ public class RequisitionGroupRepositoryIntegrationTest
 
   private SupervisoryNode supervisoryNode;
 
+  private Facility facility;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
   RequisitionGroupRepository getRepository() {
     return repository;
   }
@@ -98,7 +108,7 @@ public class RequisitionGroupRepositoryIntegrationTest
     facilityType.setCode(code);
     facilityTypeRepository.save(facilityType);
 
-    Facility facility = new Facility(code);
+    facility = new Facility(code);
     facility.setType(facilityType);
     facility.setGeographicZone(geographicZone);
     facility.setActive(true);
@@ -111,6 +121,25 @@ public class RequisitionGroupRepositoryIntegrationTest
     supervisoryNodeRepository.save(supervisoryNode);
   }
 
+  @Test
+  public void shouldAddAndRemoveMemberFacilities() {
+    RequisitionGroup requisitionGroup = repository.save(generateInstance());
+    entityManager.flush();
+
+    assertEquals(1, repository.addMemberFacility(requisitionGroup, facility));
+    assertEquals(0, repository.addMemberFacility(requisitionGroup, facility));
+
+    Page<Facility> members = facilityRepository
+        .findMemberFacilities(requisitionGroup.getId(), new PageRequest(0, 10));
+    assertEquals(1, members.getTotalElements());
+    assertEquals(facility.getId(), members.getContent().get(0).getId());
+
+    assertEquals(1, repository.removeMemberFacility(requisitionGroup, facility));
+    assertEquals(0, facilityRepository
+        .findMemberFacilities(requisitionGroup.getId(), new PageRequest(0, 10))
+        .getTotalElements());
+  }
+
   @Test
   public void shouldAddScheduleToExistingRequisitionGroup() {
     RequisitionGroup actual = prepareAndSaveRequisitionGroupAndSchedule();
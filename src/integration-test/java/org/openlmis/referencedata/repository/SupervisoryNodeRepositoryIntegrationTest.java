@@ -15,17 +15,27 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
 import org.junit.Before;
+import org.junit.Test;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityType;
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.domain.GeographicZone;
+import org.openlmis.referencedata.domain.RequisitionGroup;
 import org.openlmis.referencedata.domain.SupervisoryNode;
+import org.openlmis.referencedata.dto.SupervisoryNodeTreeItemDto;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.repository.CrudRepository;
 
+import java.util.List;
 import java.util.UUID;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
 public class SupervisoryNodeRepositoryIntegrationTest extends
     BaseCrudRepositoryIntegrationTest<SupervisoryNode> {
   @Autowired
@@ -43,8 +53,14 @@ public class SupervisoryNodeRepositoryIntegrationTest extends
   @Autowired
   private GeographicLevelRepository geographicLevelRepository;
 
+  @Autowired
+  private RequisitionGroupRepository requisitionGroupRepository;
+
   private Facility facility;
 
+  @PersistenceContext
+  private EntityManager entityManager;
+
   @Override
   CrudRepository<SupervisoryNode, UUID> getRepository() {
     return supervisoryNodeRepository;
@@ -81,4 +97,58 @@ public class SupervisoryNodeRepositoryIntegrationTest extends
     int instanceNumber = this.getNextInstanceNumber();
     return SupervisoryNode.newSupervisoryNode("Code #" + instanceNumber, facility);
   }
+
+  @Test
+  public void shouldFindTreeStartingFromRoot() {
+    SupervisoryNode root = supervisoryNodeRepository.save(generateInstance());
+    SupervisoryNode child = generateInstance();
+    child.assignParentNode(root);
+    supervisoryNodeRepository.save(child);
+    SupervisoryNode grandChild = generateInstance();
+    grandChild.assignParentNode(child);
+    supervisoryNodeRepository.save(grandChild);
+    entityManager.flush();
+
+    List<SupervisoryNodeTreeItemDto> tree = supervisoryNodeRepository.findTree(root.getId(), null);
+
+    assertEquals(3, tree.size());
+    assertEquals(root.getId(), tree.get(0).getId());
+    assertNull(tree.get(0).getParentId());
+    assertEquals(0, tree.get(0).getDepth());
+    assertEquals(child.getId(), tree.get(1).getId());
+    assertEquals(root.getId(), tree.get(1).getParentId());
+    assertEquals(grandChild.getId(), tree.get(2).getId());
+    assertEquals(child.getId(), tree.get(2).getParentId());
+    assertEquals(2, tree.get(2).getDepth());
+    assertEquals(facility.getId(), tree.get(2).getFacilityId());
+  }
+
+  @Test
+  public void shouldFindTreeUpToMaxDepth() {
+    SupervisoryNode root = supervisoryNodeRepository.save(generateInstance());
+    SupervisoryNode child = generateInstance();
+    child.assignParentNode(root);
+    supervisoryNodeRepository.save(child);
+    SupervisoryNode grandChild = generateInstance();
+    grandChild.assignParentNode(child);
+    supervisoryNodeRepository.save(grandChild);
+    entityManager.flush();
+
+    assertEquals(1, supervisoryNodeRepository.findTree(root.getId(), 0).size());
+    assertEquals(2, supervisoryNodeRepository.findTree(root.getId(), 1).size());
+  }
+
+  @Test
+  public void shouldListNodeOnceIfItHasManyRequisitionGroups() {
+    SupervisoryNode root = supervisoryNodeRepository.save(generateInstance());
+    RequisitionGroup first = requisitionGroupRepository.save(
+        new RequisitionGroup("RG1", "First group", root));
+    requisitionGroupRepository.save(new RequisitionGroup("RG2", "Second group", root));
+    entityManager.flush();
+
+    List<SupervisoryNodeTreeItemDto> tree = supervisoryNodeRepository.findTree(root.getId(), null);
+
+    assertEquals(1, tree.size());
+    assertEquals(first.getId(), tree.get(0).getRequisitionGroupId());
+  }
 }
@@ -0,0 +1,194 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import com.jayway.restassured.path.json.JsonPath;
+
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.openlmis.referencedata.AuditLogRetentionJob;
+import org.openlmis.referencedata.domain.RightName;
+import org.openlmis.referencedata.dto.AuditLogRetentionStatisticsDto;
+import org.openlmis.referencedata.dto.AuditLogSnapshotDto;
+import org.openlmis.referencedata.repository.AuditLogRepository;
+import org.openlmis.referencedata.util.messagekeys.AuditLogMessageKeys;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.function.Consumer;
+
+public class AuditLogControllerIntegrationTest extends BaseWebIntegrationTest {
+
+  private static final String FEED_URL = "/api/auditLog/feed";
+  private static final String RETENTION_STATISTICS_URL = "/api/auditLog/retentionStatistics";
+  private static final String FROM = "2017-01-01T00:00:00";
+
+  @MockBean
+  private AuditLogRepository auditLogRepository;
+
+  @MockBean
+  private AuditLogRetentionJob auditLogRetentionJob;
+
+  @Test
+  public void shouldStreamAuditLogFeedAsNewlineDelimitedJson() {
+    mockUserHasRight(RightName.AUDIT_LOG_VIEW);
+
+    given(auditLogRepository.streamSnapshots(eq(LocalDateTime.of(2017, 1, 1, 0, 0)),
+        any(LocalDateTime.class), eq("admin"), eq(10L), eq(2), any()))
+        .willAnswer(invocation -> {
+          Consumer<AuditLogSnapshotDto> consumer = invocation.getArgumentAt(5, Consumer.class);
+          consumer.accept(snapshot(11L, "Facility"));
+          consumer.accept(snapshot(12L, "Program"));
+          return 2;
+        });
+
+    String response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("from", FROM)
+        .queryParam("author", "admin")
+        .queryParam("cursor", 10)
+        .queryParam("size", 2)
+        .when()
+        .get(FEED_URL)
+        .then()
+        .statusCode(200)
+        .contentType(AuditLogController.NDJSON_MEDIA_TYPE)
+        .extract().asString();
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+    String[] lines = response.split("\n");
+    assertEquals(2, lines.length);
+    assertEquals(11, JsonPath.from(lines[0]).getInt("cursor"));
+    assertEquals("Facility", JsonPath.from(lines[0]).getString("state.name"));
+    assertEquals(12, JsonPath.from(lines[1]).getInt("cursor"));
+  }
+
+  @Test
+  public void shouldHoldBackRecentlyCommittedSnapshots() {
+    mockUserHasRight(RightName.AUDIT_LOG_VIEW);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("from", FROM)
+        .queryParam("to", "2100-01-01T00:00:00")
+        .when()
+        .get(FEED_URL)
+        .then()
+        .statusCode(200);
+
+    ArgumentCaptor<LocalDateTime> to = ArgumentCaptor.forClass(LocalDateTime.class);
+    verify(auditLogRepository).streamSnapshots(any(), to.capture(), any(), any(), any(), any());
+    assertTrue(to.getValue().isBefore(LocalDateTime.now().minusSeconds(30)));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldReturnAuditLogRetentionStatistics() {
+    mockUserHasRight(RightName.AUDIT_LOG_VIEW);
+    given(auditLogRetentionJob.getStatistics()).willReturn(new AuditLogRetentionStatisticsDto(
+        true, LocalDateTime.of(2017, 4, 1, 2, 0), LocalDateTime.of(2017, 1, 1, 2, 0), true,
+        1500L, 2, 350L));
+
+    Map<String, Object> response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(RETENTION_STATISTICS_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(Map.class);
+
+    assertEquals(1500, response.get("deletedSnapshots"));
+    assertEquals(2, response.get("batches"));
+    assertEquals(350, response.get("durationMillis"));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectAuditLogRetentionStatisticsIfUserHasNoRight() {
+    mockUserHasNoRight(RightName.AUDIT_LOG_VIEW);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(RETENTION_STATISTICS_URL)
+        .then()
+        .statusCode(403);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectAuditLogFeedWithInvalidSize() {
+    mockUserHasRight(RightName.AUDIT_LOG_VIEW);
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("from", FROM)
+        .queryParam("size", 0)
+        .when()
+        .get(FEED_URL)
+        .then()
+        .statusCode(400)
+        .extract().path(MESSAGE_KEY);
+
+    assertEquals(AuditLogMessageKeys.ERROR_FEED_SIZE_INVALID, messageKey);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectAuditLogFeedIfUserHasNoRight() {
+    mockUserHasNoRight(RightName.AUDIT_LOG_VIEW);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("from", FROM)
+        .when()
+        .get(FEED_URL)
+        .then()
+        .statusCode(403);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+    verify(auditLogRepository, never()).streamSnapshots(any(), any(), anyString(), anyLong(),
+        anyInt(), any());
+  }
+
+  private AuditLogSnapshotDto snapshot(long id, String name) {
+    return new AuditLogSnapshotDto(id, new BigDecimal("1.00"), LocalDateTime.of(2017, 1, 2, 0, 0),
+        "admin", "INITIAL", "\"" + id + "\"", 1L, "[]", "{\"name\": \"" + name + "\"}");
+  }
+}
@@ -0,0 +1,60 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.web;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+
+import org.junit.Test;
+import org.openlmis.referencedata.dto.CacheRegionStatisticsDto;
+import org.openlmis.referencedata.dto.CacheStatisticsDto;
+import org.openlmis.referencedata.service.CacheStatisticsService;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class CacheStatisticsControllerIntegrationTest extends BaseWebIntegrationTest {
+
+  private static final String REGION = "org.openlmis.referencedata.domain.Program";
+
+  @MockBean
+  private CacheStatisticsService cacheStatisticsService;
+
+  @Test
+  public void shouldReturnCacheStatistics() {
+    given(cacheStatisticsService.getStatistics()).willReturn(new CacheStatisticsDto(true,
+        3, 1, 0.75, 0, 2, 0,
+        Collections.singletonList(new CacheRegionStatisticsDto(REGION, 3, 1, 1, 1, 0.75))));
+
+    Map<String, Object> response = restAssured.given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get("api/cacheStatistics")
+        .then()
+        .statusCode(200)
+        .extract().as(Map.class);
+
+    assertEquals(0.75, response.get("secondLevelCacheHitRatio"));
+    List<Map<String, Object>> regions = (List<Map<String, Object>>) response.get("regions");
+    assertEquals(REGION, regions.get(0).get("name"));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.web;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Test;
+import org.openlmis.referencedata.domain.RightName;
+import org.openlmis.referencedata.dto.ChangeLogEntryDto;
+import org.openlmis.referencedata.repository.ChangeLogRepository;
+import org.openlmis.referencedata.util.messagekeys.ChangeLogMessageKeys;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public class ChangeLogControllerIntegrationTest extends BaseWebIntegrationTest {
+
+  private static final String RESOURCE_URL = "/api/changes";
+
+  @MockBean
+  private ChangeLogRepository changeLogRepository;
+
+  @Test
+  public void shouldReturnPageOfChanges() {
+    mockUserHasRight(RightName.CHANGE_LOG_VIEW);
+    given(changeLogRepository.findChanges(eq(5L), anyCollectionOf(String.class), eq(2)))
+        .willReturn(Arrays.asList(change(6, false), change(7, true)));
+
+    Map<String, Object> response = restAssured.given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("since", 5)
+        .queryParam("types", "facilities")
+        .queryParam("size", 2)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(Map.class);
+
+    List<Map<String, Object>> changes = (List<Map<String, Object>>) response.get("changes");
+    assertThat(changes, hasSize(2));
+    assertEquals("facilities", changes.get(0).get("type"));
+    assertEquals(7, response.get("nextSince"));
+    assertTrue((Boolean) response.get("hasMore"));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldKeepSinceIfThereAreNoNewChanges() {
+    mockUserHasRight(RightName.CHANGE_LOG_VIEW);
+
+    Map<String, Object> response = restAssured.given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("since", 5)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(Map.class);
+
+    assertThat((List<?>) response.get("changes"), hasSize(0));
+    assertEquals(5, response.get("nextSince"));
+    assertFalse((Boolean) response.get("hasMore"));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldCapPageSize() {
+    mockUserHasRight(RightName.CHANGE_LOG_VIEW);
+
+    restAssured.given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("size", ChangeLogController.MAX_PAGE_SIZE + 1)
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(200);
+
+    verify(changeLogRepository).findChanges(eq(0L), anyCollectionOf(String.class),
+        eq(ChangeLogController.MAX_PAGE_SIZE));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectTypeWhoseChangesAreNotLogged() {
+    mockUserHasRight(RightName.CHANGE_LOG_VIEW);
+
+    String messageKey = restAssured.given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("types", "facilities")
+        .queryParam("types", "facility")
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(400)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertEquals(ChangeLogMessageKeys.ERROR_TYPE_INVALID, messageKey);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectRequestIfUserHasNoRight() {
+    mockUserHasNoRight(RightName.CHANGE_LOG_VIEW);
+
+    String messageKey = restAssured.given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(RESOURCE_URL)
+        .then()
+        .statusCode(403)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertEquals(MESSAGEKEY_ERROR_UNAUTHORIZED, messageKey);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  private ChangeLogEntryDto change(long seq, boolean deleted) {
+    return new ChangeLogEntryDto(seq, "facilities", UUID.randomUUID(), deleted,
+        ZonedDateTime.now(ZoneOffset.UTC));
+  }
+}
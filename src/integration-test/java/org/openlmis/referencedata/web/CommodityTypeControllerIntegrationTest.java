@@ -0,0 +1,267 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.web;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyCollectionOf;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openlmis.referencedata.domain.CommodityType;
+import org.openlmis.referencedata.domain.RightName;
+import org.openlmis.referencedata.domain.TradeItem;
+import org.openlmis.referencedata.repository.CommodityTypeRepository;
+import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.util.messagekeys.CommodityTypeMessageKeys;
+import org.openlmis.referencedata.util.messagekeys.TradeItemMessageKeys;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+public class CommodityTypeControllerIntegrationTest extends BaseWebIntegrationTest {
+
+  private static final String RESOURCE_URL = "/api/commodityTypes";
+  private static final String TRADE_ITEMS_URL = RESOURCE_URL + "/{id}/tradeItems";
+  private static final String BULK_TRADE_ITEMS_URL = RESOURCE_URL + "/tradeItems";
+  private static final String MESSAGE_KEY = "messageKey";
+
+  @MockBean
+  private CommodityTypeRepository commodityTypeRepository;
+
+  @MockBean
+  private TradeItemRepository tradeItemRepository;
+
+  private CommodityType commodityType;
+  private CommodityType otherCommodityType;
+  private TradeItem tradeItem;
+  private TradeItem otherTradeItem;
+
+  @Before
+  public void setUp() {
+    commodityType = CommodityType.newCommodityType(
+        "ibuprofen", "each", "Ibuprofen", "testDesc", 10, 5, false);
+    commodityType.setId(UUID.randomUUID());
+    otherCommodityType = CommodityType.newCommodityType(
+        "paracetamol", "each", "Paracetamol", "testDesc", 10, 5, false);
+    otherCommodityType.setId(UUID.randomUUID());
+
+    tradeItem = TradeItem.newTradeItem("advil", "each", "Advil", 10, 5, false);
+    tradeItem.setId(UUID.randomUUID());
+    otherTradeItem = TradeItem.newTradeItem("panadol", "each", "Panadol", 10, 5, false);
+    otherTradeItem.setId(UUID.randomUUID());
+  }
+
+  @Test
+  public void shouldGetTradeItemIds() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    given(commodityTypeRepository.exists(commodityType.getId())).willReturn(true);
+    given(tradeItemRepository.findIdsForCommodityType(commodityType.getId()))
+        .willReturn(Arrays.asList(tradeItem.getId(), otherTradeItem.getId()));
+
+    UUID[] response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .pathParam("id", commodityType.getId())
+        .when()
+        .get(TRADE_ITEMS_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(UUID[].class);
+
+    assertEquals(2, response.length);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotFoundTradeItemIdsOfMissingCommodityType() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .pathParam("id", UUID.randomUUID())
+        .when()
+        .get(TRADE_ITEMS_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldUpdateTradeItems() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    given(commodityTypeRepository.findOne(commodityType.getId())).willReturn(commodityType);
+    given(tradeItemRepository.findAll(anyCollectionOf(UUID.class)))
+        .willReturn(Arrays.asList(tradeItem, otherTradeItem));
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", commodityType.getId())
+        .body(Arrays.asList(tradeItem.getId(), otherTradeItem.getId()))
+        .when()
+        .put(TRADE_ITEMS_URL)
+        .then()
+        .statusCode(200);
+
+    assertTrue(commodityType.canFulfill(tradeItem));
+    assertTrue(commodityType.canFulfill(otherTradeItem));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotFoundWhenUpdatingWithMissingTradeItems() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    given(commodityTypeRepository.findOne(commodityType.getId())).willReturn(commodityType);
+    given(tradeItemRepository.findAll(anyCollectionOf(UUID.class)))
+        .willReturn(Collections.singletonList(tradeItem));
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .pathParam("id", commodityType.getId())
+        .body(Arrays.asList(tradeItem.getId(), otherTradeItem.getId()))
+        .when()
+        .put(TRADE_ITEMS_URL)
+        .then()
+        .statusCode(404)
+        .extract().path(MESSAGE_KEY);
+
+    assertThat(messageKey, is(TradeItemMessageKeys.ERROR_NOT_FOUND_WITH_ID));
+    assertFalse(commodityType.canFulfill(tradeItem));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldUpdateTradeItemsOfManyCommodityTypes() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    commodityType.addTradeItem(otherTradeItem);
+    given(commodityTypeRepository.findAllWithTradeItems(anyCollectionOf(UUID.class)))
+        .willReturn(Arrays.asList(commodityType, otherCommodityType));
+    given(tradeItemRepository.findAll(anyCollectionOf(UUID.class)))
+        .willReturn(Arrays.asList(tradeItem, otherTradeItem));
+
+    Map<UUID, Set<UUID>> body = ImmutableMap.of(
+        commodityType.getId(), Collections.singleton(tradeItem.getId()),
+        otherCommodityType.getId(), Collections.singleton(otherTradeItem.getId()));
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(body)
+        .when()
+        .put(BULK_TRADE_ITEMS_URL)
+        .then()
+        .statusCode(200);
+
+    assertTrue(commodityType.canFulfill(tradeItem));
+    assertFalse(commodityType.canFulfill(otherTradeItem));
+    assertTrue(otherCommodityType.canFulfill(otherTradeItem));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldBadRequestWhenTradeItemIsGivenForManyCommodityTypes() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    Map<UUID, Set<UUID>> body = ImmutableMap.of(
+        commodityType.getId(), Sets.newHashSet(tradeItem.getId()),
+        otherCommodityType.getId(), Sets.newHashSet(tradeItem.getId()));
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(body)
+        .when()
+        .put(BULK_TRADE_ITEMS_URL)
+        .then()
+        .statusCode(400)
+        .extract().path(MESSAGE_KEY);
+
+    assertThat(messageKey, is(CommodityTypeMessageKeys.ERROR_TRADE_ITEMS_DUPLICATED));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotFoundWhenUpdatingTradeItemsOfMissingCommodityTypes() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    given(commodityTypeRepository.findAllWithTradeItems(anyCollectionOf(UUID.class)))
+        .willReturn(Collections.singletonList(commodityType));
+
+    Map<UUID, Set<UUID>> body = ImmutableMap.of(
+        commodityType.getId(), Collections.singleton(tradeItem.getId()),
+        otherCommodityType.getId(), Collections.singleton(otherTradeItem.getId()));
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(body)
+        .when()
+        .put(BULK_TRADE_ITEMS_URL)
+        .then()
+        .statusCode(404)
+        .extract().path(MESSAGE_KEY);
+
+    assertThat(messageKey, is(CommodityTypeMessageKeys.ERROR_NOT_FOUND_WITH_ID));
+    assertFalse(commodityType.canFulfill(tradeItem));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectBulkUpdateIfUserHasNoRight() {
+    mockUserHasNoRight(RightName.ORDERABLES_MANAGE);
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Collections.emptyMap())
+        .when()
+        .put(BULK_TRADE_ITEMS_URL)
+        .then()
+        .statusCode(403)
+        .extract().path(MESSAGE_KEY);
+
+    assertThat(messageKey, is(MESSAGEKEY_ERROR_UNAUTHORIZED));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+}
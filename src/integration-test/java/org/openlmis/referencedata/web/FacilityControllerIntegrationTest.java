@@ -22,9 +22,11 @@ import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.google.common.collect.Sets;
@@ -36,33 +38,33 @@ import org.junit.Before;
 import org.junit.Test;
 import org.openlmis.referencedata.CurrencyConfig;
 import org.openlmis.referencedata.domain.Code;
-import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.FacilityType;
-import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
+import org.openlmis.referencedata.domain.FlatApprovedProduct;
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.domain.GeographicZone;
-import org.openlmis.referencedata.domain.Orderable;
-import org.openlmis.referencedata.domain.OrderableDisplayCategory;
 import org.openlmis.referencedata.domain.Program;
-import org.openlmis.referencedata.domain.ProgramOrderable;
 import org.openlmis.referencedata.domain.RightName;
-import org.openlmis.referencedata.domain.SupervisoryNode;
-import org.openlmis.referencedata.domain.SupplyLine;
 import org.openlmis.referencedata.domain.SupportedProgram;
+import org.openlmis.referencedata.dto.AuditLogSnapshotDto;
 import org.openlmis.referencedata.dto.FacilityDto;
 import org.openlmis.referencedata.exception.UnauthorizedException;
+import org.openlmis.referencedata.repository.AuditLogRepository;
 import org.openlmis.referencedata.repository.FacilityRepository;
-import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
+import org.openlmis.referencedata.repository.FlatApprovedProductRepository;
 import org.openlmis.referencedata.repository.GeographicZoneRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.service.SupplyLineService;
 import org.openlmis.referencedata.util.Message;
+import org.springframework.beans.BeanUtils;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -82,8 +84,11 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
   private static final String RESOURCE_URL = "/api/facilities";
   private static final String ID_URL = RESOURCE_URL + "/{id}";
   private static final String AUDIT_URL = ID_URL + "/auditLog";
+  private static final String AUDIT_SNAPSHOTS_URL = AUDIT_URL + "/snapshots";
   private static final String SUPPLYING_URL = RESOURCE_URL + "/supplying";
   private static final String SEARCH_FACILITIES = RESOURCE_URL + "/search";
+  private static final String APPROVED_PRODUCTS_SEARCH_URL =
+      RESOURCE_URL + "/approvedProducts/search";
 
   @MockBean
   private FacilityRepository facilityRepository;
@@ -98,11 +103,14 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
   private GeographicZoneRepository geographicZoneRepository;
 
   @MockBean
-  private FacilityTypeApprovedProductRepository facilityTypeApprovedProductRepository;
+  private FlatApprovedProductRepository flatApprovedProductRepository;
 
   @MockBean
   private SupervisoryNodeRepository supervisoryNodeRepository;
 
+  @MockBean
+  private AuditLogRepository auditLogRepository;
+
   private Integer currentInstanceNumber;
   private UUID programId;
   private UUID supervisoryNodeId;
@@ -114,6 +122,7 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
     currentInstanceNumber = 0;
     program = generateProgram();
     programId = UUID.randomUUID();
+    supervisoryNodeId = UUID.randomUUID();
     facility = generateFacility();
   }
 
@@ -123,21 +132,20 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
 
     int searchedFacilitiesAmt = 3;
 
-    SupervisoryNode searchedSupervisoryNode = generateSupervisoryNode();
-
-    List<SupplyLine> searchedSupplyLines = new ArrayList<>();
+    List<Facility> expectedFacilities = new ArrayList<>();
     for (int i = 0; i < searchedFacilitiesAmt; i++) {
-      SupplyLine supplyLine = generateSupplyLine();
-      supplyLine.setProgram(program);
-      supplyLine.setSupervisoryNode(searchedSupervisoryNode);
-
-      searchedSupplyLines.add(supplyLine);
+      Facility supplyingFacility = generateFacility();
+      supplyingFacility.setId(UUID.randomUUID());
+      expectedFacilities.add(supplyingFacility);
     }
+    Set<UUID> facilityIds = expectedFacilities.stream()
+        .map(Facility::getId).collect(Collectors.toSet());
 
-    given(programRepository.findOne(programId)).willReturn(program);
-    given(supervisoryNodeRepository.findOne(supervisoryNodeId)).willReturn(searchedSupervisoryNode);
-    given(supplyLineService.searchSupplyLines(program, searchedSupervisoryNode))
-        .willReturn(searchedSupplyLines);
+    given(programRepository.exists(programId)).willReturn(true);
+    given(supervisoryNodeRepository.exists(supervisoryNodeId)).willReturn(true);
+    given(supplyLineService.findSupplyingFacilityIds(programId, supervisoryNodeId))
+        .willReturn(facilityIds);
+    given(facilityRepository.findAll(facilityIds)).willReturn(expectedFacilities);
 
     FacilityDto[] response = restAssured.given()
         .queryParam(PROGRAM_ID, programId)
@@ -151,9 +159,6 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
 
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
 
-    List<Facility> expectedFacilities = searchedSupplyLines.stream()
-        .map(SupplyLine::getSupplyingFacility).distinct().collect(Collectors.toList());
-
     assertEquals(expectedFacilities.size(), response.length);
 
     for (FacilityDto facilityDto : response) {
@@ -163,26 +168,31 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
   }
 
   @Test
-  public void shouldRejectGetSupplingRequestIfUserHasNoRight() {
-    mockUserHasNoRight(RightName.FACILITIES_MANAGE_RIGHT);
-
-    int searchedFacilitiesAmt = 3;
+  public void shouldReturnNoSupplyingDepotsIfThereAreNoSupplyLines() {
+    mockUserHasRight(RightName.FACILITIES_MANAGE_RIGHT);
 
-    SupervisoryNode searchedSupervisoryNode = generateSupervisoryNode();
+    given(programRepository.exists(programId)).willReturn(true);
+    given(supervisoryNodeRepository.exists(supervisoryNodeId)).willReturn(true);
+    given(supplyLineService.findSupplyingFacilityIds(programId, supervisoryNodeId))
+        .willReturn(Collections.emptySet());
 
-    List<SupplyLine> searchedSupplyLines = new ArrayList<>();
-    for (int i = 0; i < searchedFacilitiesAmt; i++) {
-      SupplyLine supplyLine = generateSupplyLine();
-      supplyLine.setProgram(program);
-      supplyLine.setSupervisoryNode(searchedSupervisoryNode);
+    FacilityDto[] response = restAssured.given()
+        .queryParam(PROGRAM_ID, programId)
+        .queryParam(SUPERVISORY_NODE_ID, supervisoryNodeId)
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(SUPPLYING_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(FacilityDto[].class);
 
-      searchedSupplyLines.add(supplyLine);
-    }
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+    assertEquals(0, response.length);
+  }
 
-    given(programRepository.findOne(programId)).willReturn(program);
-    given(supervisoryNodeRepository.findOne(supervisoryNodeId)).willReturn(searchedSupervisoryNode);
-    given(supplyLineService.searchSupplyLines(program, searchedSupervisoryNode))
-        .willReturn(searchedSupplyLines);
+  @Test
+  public void shouldRejectGetSupplingRequestIfUserHasNoRight() {
+    mockUserHasNoRight(RightName.FACILITIES_MANAGE_RIGHT);
 
     String messageKey = restAssured.given()
         .queryParam(PROGRAM_ID, programId)
@@ -205,9 +215,8 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
 
     supervisoryNodeId = UUID.randomUUID();
 
-    given(programRepository.findOne(programId)).willReturn(program);
-    given(supervisoryNodeRepository.findOne(supervisoryNodeId)).willReturn(null);
-
+    given(programRepository.exists(programId)).willReturn(true);
+    given(supervisoryNodeRepository.exists(supervisoryNodeId)).willReturn(false);
 
     restAssured.given()
         .queryParam(PROGRAM_ID, programId)
@@ -225,10 +234,8 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
   public void shouldReturnBadRequestWhenSearchingForSupplyingDepotsWithNotExistingProgram() {
     mockUserHasRight(RightName.FACILITIES_MANAGE_RIGHT);
 
-    SupervisoryNode searchedSupervisoryNode = generateSupervisoryNode();
-
-    given(programRepository.findOne(programId)).willReturn(null);
-    given(supervisoryNodeRepository.findOne(supervisoryNodeId)).willReturn(searchedSupervisoryNode);
+    given(programRepository.exists(programId)).willReturn(false);
+    given(supervisoryNodeRepository.exists(supervisoryNodeId)).willReturn(true);
 
     restAssured.given()
         .queryParam(PROGRAM_ID, programId)
@@ -379,8 +386,8 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
     mockUserHasRight(RightName.FACILITIES_MANAGE_RIGHT);
 
     when(facilityRepository.findOne(any(UUID.class))).thenReturn(facility);
-    when(facilityTypeApprovedProductRepository.searchProducts(any(UUID.class), any(UUID.class),
-        eq(false))).thenReturn(generateFacilityTypeApprovedProducts());
+    when(flatApprovedProductRepository.searchProducts(any(UUID.class), any(UUID.class),
+        eq(false))).thenReturn(generateApprovedProducts());
 
     List<Map<String, ?>> productDtos = restAssured.given()
         .queryParam(PROGRAM_ID, UUID.randomUUID())
@@ -433,6 +440,87 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldFindApprovedProductsForManyFacilities() {
+    mockUserHasRight(RightName.FACILITY_APPROVED_ORDERABLES_MANAGE);
+
+    facility.setId(UUID.randomUUID());
+    facility.getType().setId(UUID.randomUUID());
+    Facility otherFacility = generateFacility();
+    otherFacility.setId(UUID.randomUUID());
+    otherFacility.setType(facility.getType());
+
+    List<FlatApprovedProduct> products = generateApprovedProducts();
+    given(facilityRepository.findAll(anySetOf(UUID.class)))
+        .willReturn(Arrays.asList(facility, otherFacility));
+    given(flatApprovedProductRepository.searchProducts(
+        facility.getType().getId(), programId, false)).willReturn(products);
+
+    Map<String, Map<String, ?>> response = restAssured.given()
+        .queryParam(PROGRAM_ID, programId)
+        .queryParam("fullSupply", false)
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Sets.newHashSet(facility.getId(), otherFacility.getId()))
+        .when()
+        .post(APPROVED_PRODUCTS_SEARCH_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(Map.class);
+
+    assertEquals(1, response.get("approvedProducts").size());
+    assertEquals(2, response.get("facilities").size());
+    assertEquals(Collections.singletonList(products.get(0).getId().toString()),
+        response.get("facilities").get(facility.getId().toString()));
+    verify(flatApprovedProductRepository).searchProducts(
+        facility.getType().getId(), programId, false);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldBadRequestWhenLookingForProductsInManyFacilitiesIfAnyIsMissing() {
+    mockUserHasRight(RightName.FACILITY_APPROVED_ORDERABLES_MANAGE);
+
+    facility.setId(UUID.randomUUID());
+    facility.getType().setId(UUID.randomUUID());
+    given(facilityRepository.findAll(anySetOf(UUID.class)))
+        .willReturn(Collections.singletonList(facility));
+
+    restAssured.given()
+        .queryParam(PROGRAM_ID, programId)
+        .queryParam("fullSupply", false)
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Sets.newHashSet(facility.getId(), UUID.randomUUID()))
+        .when()
+        .post(APPROVED_PRODUCTS_SEARCH_URL)
+        .then()
+        .statusCode(400);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectSearchApprovedProductsRequestIfUserHasNoRight() {
+    mockUserHasNoRight(RightName.FACILITY_APPROVED_ORDERABLES_MANAGE);
+
+    String messageKey = restAssured.given()
+        .queryParam(PROGRAM_ID, programId)
+        .queryParam("fullSupply", false)
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Collections.singleton(UUID.randomUUID()))
+        .when()
+        .post(APPROVED_PRODUCTS_SEARCH_URL)
+        .then()
+        .statusCode(403)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(messageKey, Matchers.is(equalTo(MESSAGEKEY_ERROR_UNAUTHORIZED)));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void getAllShouldGetAllFacilities() {
 
@@ -597,6 +685,58 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
   }
 
 
+  @Test
+  public void shouldGetPageOfFacilityAuditLogSnapshots() {
+    mockUserHasRight(RightName.FACILITIES_MANAGE_RIGHT);
+
+    UUID facilityId = UUID.randomUUID();
+    LocalDateTime from = LocalDateTime.of(2017, 1, 1, 0, 0);
+    given(facilityRepository.exists(facilityId)).willReturn(true);
+    given(auditLogRepository.searchSnapshots(Facility.class, facilityId, null, null, from, null,
+        10L, 1))
+        .willReturn(Collections.singletonList(new AuditLogSnapshotDto(7L, new BigDecimal("3.00"),
+            LocalDateTime.of(2017, 2, 1, 10, 0), "admin", "UPDATE",
+            '"' + facilityId.toString() + '"', 2L, "[\"name\"]",
+            "{\"name\": \"Facility\"}")));
+
+    Map<String, Object> response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("from", "2017-01-01T00:00:00")
+        .queryParam("cursor", 10)
+        .queryParam("size", 1)
+        .pathParam("id", facilityId)
+        .when()
+        .get(AUDIT_SNAPSHOTS_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(Map.class);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+    assertEquals(7, response.get("nextCursor"));
+    List<Map<String, Object>> snapshots = (List<Map<String, Object>>) response.get("snapshots");
+    assertEquals(1, snapshots.size());
+    assertEquals(facilityId.toString(), snapshots.get(0).get("cdoId"));
+    assertEquals("Facility", ((Map<String, Object>) snapshots.get(0).get("state")).get("name"));
+  }
+
+  @Test
+  public void getFacilityAuditLogSnapshotsShouldReturnNotFoundIfFacilityDoesNotExist() {
+    mockUserHasRight(RightName.FACILITIES_MANAGE_RIGHT);
+    given(facilityRepository.exists(any(UUID.class))).willReturn(false);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .pathParam("id", UUID.randomUUID())
+        .when()
+        .get(AUDIT_SNAPSHOTS_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void deleteShouldReturnNotFoundForNonExistingFacility() {
 
@@ -764,23 +904,6 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
-  private SupplyLine generateSupplyLine() {
-    SupplyLine supplyLine = new SupplyLine();
-    supplyLine.setProgram(program);
-    supplyLine.setSupervisoryNode(generateSupervisoryNode());
-    supplyLine.setSupplyingFacility(facility);
-    return supplyLine;
-  }
-
-  private SupervisoryNode generateSupervisoryNode() {
-    SupervisoryNode supervisoryNode = new SupervisoryNode();
-    supervisoryNodeId = UUID.randomUUID();
-    supervisoryNode.setId(supervisoryNodeId);
-    supervisoryNode.setCode("SupervisoryNode " + generateInstanceNumber());
-    supervisoryNode.setFacility(facility);
-    return supervisoryNode;
-  }
-
   private Program generateProgram() {
     Program program = new Program("Program " + generateInstanceNumber());
     programId = UUID.randomUUID();
@@ -831,26 +954,27 @@ public class FacilityControllerIntegrationTest extends BaseWebIntegrationTest {
     return facilityType;
   }
 
-  private List<FacilityTypeApprovedProduct> generateFacilityTypeApprovedProducts() {
-    OrderableDisplayCategory category = OrderableDisplayCategory.createNew(Code.code("gloves"));
-    category.setId(UUID.randomUUID());
-    Orderable orderable = CommodityType.newCommodityType(
-        "gloves", "pair", "Gloves", "testDesc", 6, 3, false);
-    orderable.setId(UUID.randomUUID());
-    CurrencyUnit currencyUnit = CurrencyUnit.of(CurrencyConfig.CURRENCY_CODE);
-    ProgramOrderable programOrderable = ProgramOrderable.createNew(program, category,
-        orderable, 0, true, false, 0, Money.of(currencyUnit, 0),
-        currencyUnit);
-    programOrderable.setId(UUID.randomUUID());
-    FacilityTypeApprovedProduct ftap = new FacilityTypeApprovedProduct();
-    ftap.setProgramOrderable(programOrderable);
-    ftap.setId(UUID.randomUUID());
-    ftap.setMinPeriodsOfStock(1d);
-    ftap.setMaxPeriodsOfStock(3d);
-    ftap.setFacilityType(generateFacilityType());
-    ftap.setEmergencyOrderPoint(1d);
-    List<FacilityTypeApprovedProduct> products = new ArrayList<>();
-    products.add(ftap);
+  private List<FlatApprovedProduct> generateApprovedProducts() {
+    FlatApprovedProduct product = BeanUtils.instantiateClass(FlatApprovedProduct.class);
+    product.setId(UUID.randomUUID());
+    ReflectionTestUtils.setField(product, "facilityTypeId", UUID.randomUUID());
+    ReflectionTestUtils.setField(product, "programId", program.getId());
+    ReflectionTestUtils.setField(product, "programOrderableId", UUID.randomUUID());
+    ReflectionTestUtils.setField(product, "orderableId", UUID.randomUUID());
+    ReflectionTestUtils.setField(product, "orderableCode", "gloves");
+    ReflectionTestUtils.setField(product, "orderableName", "Gloves");
+    ReflectionTestUtils.setField(product, "orderablePackSize", 6L);
+    ReflectionTestUtils.setField(product, "orderableDisplayCategoryId", UUID.randomUUID());
+    ReflectionTestUtils.setField(product, "categoryDisplayName", "gloves");
+    ReflectionTestUtils.setField(product, "active", true);
+    ReflectionTestUtils.setField(product, "dosesPerPatient", 0);
+    ReflectionTestUtils.setField(product, "pricePerPack",
+        Money.of(CurrencyUnit.of(CurrencyConfig.CURRENCY_CODE), 0));
+    ReflectionTestUtils.setField(product, "minPeriodsOfStock", 1d);
+    ReflectionTestUtils.setField(product, "maxPeriodsOfStock", 3d);
+    ReflectionTestUtils.setField(product, "emergencyOrderPoint", 1d);
+    List<FlatApprovedProduct> products = new ArrayList<>();
+    products.add(product);
     return products;
   }
 
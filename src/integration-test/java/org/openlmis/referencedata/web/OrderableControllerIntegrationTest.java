@@ -0,0 +1,254 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.web;
+
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verifyZeroInteractions;
+
+import org.junit.Test;
+import org.openlmis.referencedata.domain.CommodityType;
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.domain.RightName;
+import org.openlmis.referencedata.domain.TradeItem;
+import org.openlmis.referencedata.dto.OrderableImportResultDto;
+import org.openlmis.referencedata.dto.PacksToOrderDto;
+import org.openlmis.referencedata.exception.NotFoundException;
+import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.service.OrderableImportService;
+import org.openlmis.referencedata.service.PackCalculationService;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.OrderableMessageKeys;
+import org.openlmis.util.PageImplRepresentation;
+import org.openlmis.util.Pagination;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
+
+import guru.nidi.ramltester.junit.RamlMatchers;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+public class OrderableControllerIntegrationTest extends BaseWebIntegrationTest {
+
+  private static final String RESOURCE_URL = "/api/orderables";
+  private static final String SEARCH_URL = RESOURCE_URL + "/search";
+  private static final String IMPORT_URL = RESOURCE_URL + "/import";
+  private static final String PACKS_TO_ORDER_URL = RESOURCE_URL + "/packsToOrder";
+  private static final String MESSAGE_KEY = "messageKey";
+
+  @MockBean
+  private OrderableRepository orderableRepository;
+
+  @MockBean
+  private OrderableImportService orderableImportService;
+
+  @MockBean
+  private PackCalculationService packCalculationService;
+
+  @Test
+  public void shouldSearchOrderables() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    UUID programId = UUID.randomUUID();
+    Orderable orderable = CommodityType.newCommodityType(
+        "ibuprofen", "each", "Ibuprofen", "testDesc", 10, 5, false);
+    orderable.setId(UUID.randomUUID());
+    List<Orderable> orderables = Collections.singletonList(orderable);
+
+    given(orderableRepository.search(eq("ibu"), eq("pro"), eq(programId),
+        eq(CommodityType.class), any(Pageable.class)))
+        .willReturn(Pagination.getPage(orderables, null));
+
+    PageImplRepresentation response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("code", "ibu")
+        .queryParam("name", "pro")
+        .queryParam("program", programId)
+        .queryParam("type", "commodityType")
+        .queryParam("page", 0)
+        .queryParam("size", 10)
+        .when()
+        .get(SEARCH_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(PageImplRepresentation.class);
+
+    assertEquals(1, response.getContent().size());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldSearchTradeItems() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    given(orderableRepository.search(eq(null), eq(null), eq(null),
+        eq(TradeItem.class), any(Pageable.class)))
+        .willReturn(Pagination.getPage(Collections.emptyList(), null));
+
+    PageImplRepresentation response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("type", "tradeItem")
+        .when()
+        .get(SEARCH_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(PageImplRepresentation.class);
+
+    assertEquals(0, response.getContent().size());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldBadRequestWhenSearchingForUnknownType() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("type", "kit")
+        .when()
+        .get(SEARCH_URL)
+        .then()
+        .statusCode(400);
+
+    verifyZeroInteractions(orderableRepository);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectSearchIfUserHasNoRight() {
+    mockUserHasNoRight(RightName.ORDERABLES_MANAGE);
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(SEARCH_URL)
+        .then()
+        .statusCode(403)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(messageKey, is(equalTo(MESSAGEKEY_ERROR_UNAUTHORIZED)));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldImportOrderables() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    OrderableImportResultDto result = new OrderableImportResultDto();
+    result.setTotal(1);
+    result.setCreated(1);
+    given(orderableImportService.importOrderables(any(InputStream.class))).willReturn(result);
+
+    OrderableImportResultDto response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body("[{\"type\": \"commodityType\", \"productCode\": \"C1\"}]")
+        .when()
+        .post(IMPORT_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(OrderableImportResultDto.class);
+
+    assertEquals(1, response.getCreated());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectImportIfUserHasNoRight() {
+    mockUserHasNoRight(RightName.ORDERABLES_MANAGE);
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body("[]")
+        .when()
+        .post(IMPORT_URL)
+        .then()
+        .statusCode(403)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(messageKey, is(equalTo(MESSAGEKEY_ERROR_UNAUTHORIZED)));
+    verifyZeroInteractions(orderableImportService);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldCalculatePacksToOrder() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    UUID orderableId = UUID.randomUUID();
+    given(packCalculationService.packsToOrder(anyListOf(PacksToOrderDto.class)))
+        .willReturn(Collections.singletonList(new PacksToOrderDto(orderableId, 15, 2)));
+
+    PacksToOrderDto[] response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Collections.singletonList(new PacksToOrderDto(orderableId, 15, 0)))
+        .when()
+        .post(PACKS_TO_ORDER_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(PacksToOrderDto[].class);
+
+    assertEquals(1, response.length);
+    assertEquals(2, response[0].getPacksToOrder());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotFoundPacksToOrderOfMissingOrderables() {
+    mockUserHasRight(RightName.ORDERABLES_MANAGE);
+
+    UUID orderableId = UUID.randomUUID();
+    given(packCalculationService.packsToOrder(anyListOf(PacksToOrderDto.class)))
+        .willThrow(new NotFoundException(new Message(
+            OrderableMessageKeys.ERROR_NOT_FOUND_WITH_ID, Collections.singleton(orderableId))));
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Collections.singletonList(new PacksToOrderDto(orderableId, 15, 0)))
+        .when()
+        .post(PACKS_TO_ORDER_URL)
+        .then()
+        .statusCode(404)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(messageKey, is(equalTo(OrderableMessageKeys.ERROR_NOT_FOUND_WITH_ID)));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+}
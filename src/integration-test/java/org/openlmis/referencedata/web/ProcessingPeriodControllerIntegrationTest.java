@@ -20,6 +20,7 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyObject;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doAnswer;
 
 import com.google.common.collect.Sets;
@@ -35,21 +36,28 @@ import org.openlmis.referencedata.domain.ProcessingSchedule;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
 import org.openlmis.referencedata.domain.RightName;
+import org.openlmis.referencedata.dto.FacilityProcessingPeriodsDto;
 import org.openlmis.referencedata.dto.ProcessingPeriodDto;
+import org.openlmis.referencedata.dto.ProcessingPeriodGenerationDto;
 import org.openlmis.referencedata.dto.ResultDto;
 import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.ProcessingPeriodRepository;
 import org.openlmis.referencedata.repository.ProcessingScheduleRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.service.ProcessingPeriodService;
+import org.openlmis.referencedata.service.RequisitionGroupProgramScheduleService;
 import org.openlmis.referencedata.validate.ProcessingPeriodValidator;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.validation.Errors;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -63,6 +71,12 @@ public class ProcessingPeriodControllerIntegrationTest extends BaseWebIntegratio
   private static final String SEARCH_URL = RESOURCE_URL + "/search";
   private static final String SEARCH_BY_UUID_AND_DATE_URL =
       RESOURCE_URL + "/searchByScheduleAndDate";
+  private static final String GENERATE_URL = RESOURCE_URL + "/generate";
+  private static final String SEARCH_BY_CONTAINED_DATE_URL =
+      RESOURCE_URL + "/searchByScheduleAndContainedDate";
+  private static final String SEARCH_BY_CONTAINED_DATES_URL =
+      RESOURCE_URL + "/searchByScheduleAndContainedDates";
+  private static final String SEARCH_BY_FACILITIES_URL = RESOURCE_URL + "/searchByFacilities";
   private static final String ID_URL = RESOURCE_URL + "/{id}";
   private static final String DIFFERENCE_URL = RESOURCE_URL + "/{id}/duration";
   private static final String PROGRAM = "programId";
@@ -85,6 +99,9 @@ public class ProcessingPeriodControllerIntegrationTest extends BaseWebIntegratio
   @MockBean
   private ProcessingPeriodService periodService;
 
+  @MockBean
+  private RequisitionGroupProgramScheduleService requisitionGroupProgramScheduleService;
+
   @MockBean(name = "beforeSavePeriodValidator")
   private ProcessingPeriodValidator validator;
 
@@ -243,6 +260,147 @@ public class ProcessingPeriodControllerIntegrationTest extends BaseWebIntegratio
     }
   }
 
+  @Test
+  public void shouldFindPeriodsByFacilities() {
+    mockUserHasRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+    schedule.setId(scheduleId);
+    UUID otherFacilityId = UUID.randomUUID();
+    Map<UUID, UUID> scheduleIds = new HashMap<>();
+    scheduleIds.put(facilityId, scheduleId);
+    scheduleIds.put(otherFacilityId, scheduleId);
+    given(requisitionGroupProgramScheduleService.findProcessingScheduleIds(
+        programId, Sets.newHashSet(facilityId, otherFacilityId)))
+        .willReturn(scheduleIds);
+    given(periodService.searchPeriodsBySchedules(Collections.singleton(scheduleId), null))
+        .willReturn(Arrays.asList(firstPeriod, secondPeriod));
+
+    FacilityProcessingPeriodsDto response = restAssured.given()
+        .queryParam(PROGRAM, programId)
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Arrays.asList(facilityId, otherFacilityId))
+        .when()
+        .post(SEARCH_BY_FACILITIES_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(FacilityProcessingPeriodsDto.class);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+    assertEquals(scheduleIds, response.getProcessingScheduleIds());
+    assertEquals(1, response.getProcessingPeriods().size());
+    assertEquals(2, response.getProcessingPeriods().get(scheduleId).size());
+  }
+
+  @Test
+  public void shouldFindPeriodByScheduleAndContainedDate() {
+    mockUserHasRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+    LocalDate date = firstPeriod.getStartDate().plusDays(3);
+    given(scheduleRepository.findOne(scheduleId)).willReturn(schedule);
+    given(periodService.findPeriodsContaining(schedule, Collections.singleton(date)))
+        .willReturn(Collections.singletonMap(date, firstPeriod));
+
+    ProcessingPeriodDto response = restAssured.given()
+        .queryParam(PROCESSING_SCHEDULE, scheduleId)
+        .queryParam("date", date.toString())
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(SEARCH_BY_CONTAINED_DATE_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(ProcessingPeriodDto.class);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+    assertEquals(firstPeriod.getName(), response.getName());
+  }
+
+  @Test
+  public void shouldReturnNotFoundIfNoPeriodContainsDate() {
+    mockUserHasRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+    given(scheduleRepository.findOne(scheduleId)).willReturn(schedule);
+    given(periodService.findPeriodsContaining(eq(schedule), any()))
+        .willReturn(Collections.emptyMap());
+
+    restAssured.given()
+        .queryParam(PROCESSING_SCHEDULE, scheduleId)
+        .queryParam("date", "2010-01-01")
+        .queryParam(ACCESS_TOKEN, getToken())
+        .when()
+        .get(SEARCH_BY_CONTAINED_DATE_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldFindPeriodsByScheduleAndContainedDates() {
+    mockUserHasRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+    LocalDate firstDate = firstPeriod.getStartDate();
+    LocalDate secondDate = secondPeriod.getEndDate();
+    Map<LocalDate, ProcessingPeriod> periods = new HashMap<>();
+    periods.put(firstDate, firstPeriod);
+    periods.put(secondDate, secondPeriod);
+    given(scheduleRepository.findOne(scheduleId)).willReturn(schedule);
+    given(periodService.findPeriodsContaining(schedule, Sets.newHashSet(firstDate, secondDate)))
+        .willReturn(periods);
+
+    Map response = restAssured.given()
+        .queryParam(PROCESSING_SCHEDULE, scheduleId)
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Arrays.asList(firstDate.toString(), secondDate.toString()))
+        .when()
+        .post(SEARCH_BY_CONTAINED_DATES_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(Map.class);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+    assertEquals(2, response.size());
+    assertEquals(secondPeriod.getName(),
+        ((Map) response.get(secondDate.toString())).get("name"));
+  }
+
+  @Test
+  public void shouldGeneratePeriods() {
+    mockUserHasRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+    given(scheduleRepository.findOne(scheduleId)).willReturn(schedule);
+    given(periodService.generatePeriods(eq(schedule), any(ProcessingPeriodGenerationDto.class)))
+        .willReturn(Arrays.asList(firstPeriod, secondPeriod));
+
+    ProcessingPeriodDto[] response = restAssured.given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(new ProcessingPeriodGenerationDto(scheduleId, null, 2, 1, ChronoUnit.MONTHS,
+            "MMM yyyy"))
+        .when()
+        .post(GENERATE_URL)
+        .then()
+        .statusCode(201)
+        .extract().as(ProcessingPeriodDto[].class);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+    assertEquals(2, response.length);
+  }
+
+  @Test
+  public void shouldReturnNotFoundWhenGeneratingPeriodsOfMissingSchedule() {
+    mockUserHasRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+    given(scheduleRepository.findOne(scheduleId)).willReturn(null);
+
+    restAssured.given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(new ProcessingPeriodGenerationDto(scheduleId, null, 2, 1, ChronoUnit.MONTHS,
+            null))
+        .when()
+        .post(GENERATE_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   @Test
   public void shouldDeletePeriod() {
     mockUserHasRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
@@ -19,6 +19,9 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.openlmis.referencedata.domain.RightName.REQUISITION_GROUPS_MANAGE;
 
 import org.hamcrest.Matchers;
@@ -35,15 +38,20 @@ import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.dto.RequisitionGroupBaseDto;
 import org.openlmis.referencedata.dto.RequisitionGroupDto;
+import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.RequisitionGroupRepository;
 import org.openlmis.referencedata.validate.RequisitionGroupValidator;
+import org.openlmis.util.PageImplRepresentation;
+import org.openlmis.util.Pagination;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.MediaType;
 
 import guru.nidi.ramltester.junit.RamlMatchers;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
 
@@ -52,6 +60,8 @@ public class RequisitionGroupControllerIntegrationTest extends BaseWebIntegratio
 
   private static final String RESOURCE_URL = "/api/requisitionGroups";
   private static final String ID_URL = RESOURCE_URL + "/{id}";
+  private static final String MEMBERS_URL = ID_URL + "/memberFacilities";
+  private static final String MEMBER_URL = MEMBERS_URL + "/{facilityId}";
   private static final String DESCRIPTION = "OpenLMIS";
 
   @MockBean
@@ -60,6 +70,9 @@ public class RequisitionGroupControllerIntegrationTest extends BaseWebIntegratio
   @MockBean
   private RequisitionGroupValidator requisitionGroupValidator;
 
+  @MockBean
+  private FacilityRepository facilityRepository;
+
   private RequisitionGroup requisitionGroup;
   private RequisitionGroupBaseDto requisitionGroupDto;
   private UUID requisitionGroupId;
@@ -68,6 +81,7 @@ public class RequisitionGroupControllerIntegrationTest extends BaseWebIntegratio
   private RequisitionGroupProgramSchedule requisitionGroupProgramSchedule;
   private Program program;
   private ProcessingSchedule processingSchedule;
+  private Facility facility;
 
   /**
    * Constructor for tests.
@@ -82,7 +96,8 @@ public class RequisitionGroupControllerIntegrationTest extends BaseWebIntegratio
 
     GeographicZone geoZone = new GeographicZone("GZ1", geoLevel);
 
-    Facility facility = new Facility("F1");
+    facility = new Facility("F1");
+    facility.setId(UUID.randomUUID());
     facility.setActive(true);
     facility.setGeographicZone(geoZone);
     facility.setType(facilityType);
@@ -397,4 +412,128 @@ public class RequisitionGroupControllerIntegrationTest extends BaseWebIntegratio
     assertEquals(DESCRIPTION, response.getDescription());
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
+
+  @Test
+  public void shouldGetMemberFacilities() {
+    mockUserHasRight(REQUISITION_GROUPS_MANAGE);
+
+    given(requisitionGroupRepository.exists(requisitionGroupId)).willReturn(true);
+    given(facilityRepository.findMemberFacilities(eq(requisitionGroupId), any(Pageable.class)))
+        .willReturn(Pagination.getPage(Collections.singletonList(facility), null));
+
+    PageImplRepresentation response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .pathParam("id", requisitionGroupId)
+        .queryParam("page", 0)
+        .queryParam("size", 10)
+        .when()
+        .get(MEMBERS_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(PageImplRepresentation.class);
+
+    assertEquals(1, response.getContent().size());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotFoundMemberFacilitiesOfMissingRequisitionGroup() {
+    mockUserHasRight(REQUISITION_GROUPS_MANAGE);
+
+    given(requisitionGroupRepository.exists(requisitionGroupId)).willReturn(false);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .pathParam("id", requisitionGroupId)
+        .when()
+        .get(MEMBERS_URL)
+        .then()
+        .statusCode(404);
+
+    verifyZeroInteractions(facilityRepository);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldAddMemberFacility() {
+    mockUserHasRight(REQUISITION_GROUPS_MANAGE);
+
+    given(requisitionGroupRepository.findOne(requisitionGroupId)).willReturn(requisitionGroup);
+    given(facilityRepository.findOne(facility.getId())).willReturn(facility);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .pathParam("id", requisitionGroupId)
+        .pathParam("facilityId", facility.getId())
+        .when()
+        .put(MEMBER_URL)
+        .then()
+        .statusCode(204);
+
+    verify(requisitionGroupRepository).addMemberFacility(requisitionGroup, facility);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotFoundWhenAddingMissingMemberFacility() {
+    mockUserHasRight(REQUISITION_GROUPS_MANAGE);
+
+    given(requisitionGroupRepository.findOne(requisitionGroupId)).willReturn(requisitionGroup);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .pathParam("id", requisitionGroupId)
+        .pathParam("facilityId", UUID.randomUUID())
+        .when()
+        .put(MEMBER_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRemoveMemberFacility() {
+    mockUserHasRight(REQUISITION_GROUPS_MANAGE);
+
+    given(requisitionGroupRepository.findOne(requisitionGroupId)).willReturn(requisitionGroup);
+    given(facilityRepository.findOne(facility.getId())).willReturn(facility);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .pathParam("id", requisitionGroupId)
+        .pathParam("facilityId", facility.getId())
+        .when()
+        .delete(MEMBER_URL)
+        .then()
+        .statusCode(204);
+
+    verify(requisitionGroupRepository).removeMemberFacility(requisitionGroup, facility);
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectRemoveMemberFacilityIfUserHasNoRight() {
+    mockUserHasNoRight(REQUISITION_GROUPS_MANAGE);
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .pathParam("id", requisitionGroupId)
+        .pathParam("facilityId", facility.getId())
+        .when()
+        .delete(MEMBER_URL)
+        .then()
+        .statusCode(403)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(messageKey, Matchers.is(Matchers.equalTo(MESSAGEKEY_ERROR_UNAUTHORIZED)));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
 }
@@ -50,6 +50,7 @@ import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.domain.UserBuilder;
 import org.openlmis.referencedata.dto.SupervisoryNodeDto;
+import org.openlmis.referencedata.dto.SupervisoryNodeTreeItemDto;
 import org.openlmis.referencedata.dto.UserDto;
 import org.openlmis.referencedata.exception.UnauthorizedException;
 import org.openlmis.referencedata.repository.FacilityRepository;
@@ -69,6 +70,7 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
   private static final String ID_URL = RESOURCE_URL + "/{id}";
   private static final String SUPERVISING_USERS_URL = ID_URL + "/supervisingUsers";
   private static final String SEARCH_URL = RESOURCE_URL + "/search";
+  private static final String TREE_URL = RESOURCE_URL + "/tree";
   private static final String RIGHT_ID_PARAM = "rightId";
   private static final String PROGRAM_ID_PARAM = "programId";
 
@@ -555,4 +557,66 @@ public class SupervisoryNodeControllerIntegrationTest extends BaseWebIntegration
       .then()
       .statusCode(expectedCode);
   }
+
+  @Test
+  public void shouldGetSupervisoryNodeTree() {
+    mockUserHasRight(RightName.SUPERVISORY_NODES_MANAGE);
+
+    UUID childId = UUID.randomUUID();
+    given(repository.exists(supervisoryNodeId)).willReturn(true);
+    given(repository.findTree(supervisoryNodeId, 1)).willReturn(Arrays.asList(
+        new SupervisoryNodeTreeItemDto(supervisoryNodeId, "SN1", "Node 1", null,
+            UUID.randomUUID(), UUID.randomUUID(), 0),
+        new SupervisoryNodeTreeItemDto(childId, "SN2", null, supervisoryNodeId,
+            UUID.randomUUID(), null, 1)));
+
+    SupervisoryNodeTreeItemDto[] response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("rootId", supervisoryNodeId)
+        .queryParam("maxDepth", 1)
+        .when()
+        .get(TREE_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(SupervisoryNodeTreeItemDto[].class);
+
+    assertEquals(2, response.length);
+    assertEquals(supervisoryNodeId, response[1].getParentId());
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldNotFoundSupervisoryNodeTreeOfMissingRoot() {
+    mockUserHasRight(RightName.SUPERVISORY_NODES_MANAGE);
+
+    given(repository.exists(supervisoryNodeId)).willReturn(false);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("rootId", supervisoryNodeId)
+        .when()
+        .get(TREE_URL)
+        .then()
+        .statusCode(404);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldBadRequestSupervisoryNodeTreeWithNegativeMaxDepth() {
+    mockUserHasRight(RightName.SUPERVISORY_NODES_MANAGE);
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .queryParam("maxDepth", -1)
+        .when()
+        .get(TREE_URL)
+        .then()
+        .statusCode(400);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
 }
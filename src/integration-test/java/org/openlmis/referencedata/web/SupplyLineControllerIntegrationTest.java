@@ -19,6 +19,7 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.Matchers.anyListOf;
 import static org.openlmis.referencedata.domain.RightName.SUPPLY_LINES_MANAGE;
 
 import org.hamcrest.Matchers;
@@ -31,15 +32,23 @@ import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.domain.SupplyLine;
+import org.openlmis.referencedata.dto.ProgramSupervisoryNodeDto;
 import org.openlmis.referencedata.dto.SupplyLineDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.SupplyLineRepository;
+import org.openlmis.referencedata.service.SupplyLineService;
+import org.openlmis.referencedata.service.SupplyLineService.SupplyLineRoute;
+import org.openlmis.referencedata.util.messagekeys.SupplyLineMessageKeys;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 
 import guru.nidi.ramltester.junit.RamlMatchers;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @SuppressWarnings("PMD.TooManyMethods")
@@ -47,12 +56,16 @@ public class SupplyLineControllerIntegrationTest extends BaseWebIntegrationTest
 
   private static final String RESOURCE_URL = "/api/supplyLines";
   private static final String SEARCH_URL = RESOURCE_URL + "/search";
+  private static final String SEARCH_BY_UUIDS_URL = RESOURCE_URL + "/searchByUUIDs";
   private static final String ID_URL = RESOURCE_URL + "/{id}";
   private static final String DESCRIPTION = "OpenLMIS";
 
   @MockBean
   private SupplyLineRepository supplyLineRepository;
 
+  @MockBean
+  private SupplyLineService supplyLineService;
+
   private SupplyLine supplyLine;
   private SupplyLineDto supplyLineDto;
   private UUID supplyLineId;
@@ -387,6 +400,85 @@ public class SupplyLineControllerIntegrationTest extends BaseWebIntegrationTest
     assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
   }
 
+  @Test
+  public void shouldFindSupplyLinesOfManyPairs() {
+    mockUserHasRight(SUPPLY_LINES_MANAGE);
+
+    UUID programId = UUID.randomUUID();
+    UUID supervisoryNodeId = UUID.randomUUID();
+    UUID otherSupervisoryNodeId = UUID.randomUUID();
+    SupplyLineRoute route = new SupplyLineRoute(supplyLineId, programId, supervisoryNodeId,
+        UUID.randomUUID(), DESCRIPTION);
+    List<ProgramSupervisoryNodeDto> pairs = Arrays.asList(
+        new ProgramSupervisoryNodeDto(programId, supervisoryNodeId),
+        new ProgramSupervisoryNodeDto(programId, otherSupervisoryNodeId));
+
+    Map<UUID, List<SupplyLineRoute>> byNode = new HashMap<>();
+    byNode.put(supervisoryNodeId, Collections.singletonList(route));
+    byNode.put(otherSupervisoryNodeId, Collections.emptyList());
+    given(supplyLineService.searchSupplyLineRoutes(pairs))
+        .willReturn(Collections.singletonMap(programId, byNode));
+
+    Map<String, Map<String, List<Map<String, String>>>> response = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(pairs)
+        .when()
+        .post(SEARCH_BY_UUIDS_URL)
+        .then()
+        .statusCode(200)
+        .extract().as(Map.class);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+    Map<String, List<Map<String, String>>> supplyLines = response.get(programId.toString());
+    assertEquals(2, supplyLines.size());
+    assertEquals(0, supplyLines.get(otherSupervisoryNodeId.toString()).size());
+    assertEquals(supplyLineId.toString(),
+        supplyLines.get(supervisoryNodeId.toString()).get(0).get("id"));
+  }
+
+  @Test
+  public void shouldReturnBadRequestWhenSearchingPairWithoutProgram() {
+    mockUserHasRight(SUPPLY_LINES_MANAGE);
+
+    given(supplyLineService.searchSupplyLineRoutes(anyListOf(ProgramSupervisoryNodeDto.class)))
+        .willThrow(new ValidationMessageException(
+            SupplyLineMessageKeys.ERROR_SEARCH_PROGRAM_ID_NULL));
+
+    restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Collections.singletonList(new ProgramSupervisoryNodeDto(null, UUID.randomUUID())))
+        .when()
+        .post(SEARCH_BY_UUIDS_URL)
+        .then()
+        .statusCode(400);
+
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
+  @Test
+  public void shouldRejectSearchByUuidsRequestIfUserHasNoRight() {
+    mockUserHasNoRight(SUPPLY_LINES_MANAGE);
+
+    String messageKey = restAssured
+        .given()
+        .queryParam(ACCESS_TOKEN, getToken())
+        .contentType(MediaType.APPLICATION_JSON_VALUE)
+        .body(Collections.emptyList())
+        .when()
+        .post(SEARCH_BY_UUIDS_URL)
+        .then()
+        .statusCode(403)
+        .extract()
+        .path(MESSAGE_KEY);
+
+    assertThat(messageKey, Matchers.is(equalTo(MESSAGEKEY_ERROR_UNAUTHORIZED)));
+    assertThat(RAML_ASSERT_MESSAGE, restAssured.getLastReport(), RamlMatchers.hasNoViolations());
+  }
+
   private SupplyLine generateSupplyLine() {
     SupplyLine supplyLine = new SupplyLine();
     supplyLine.setProgram(generateProgram());
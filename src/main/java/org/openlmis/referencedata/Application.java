@@ -53,6 +53,7 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ImportResource;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.LocaleResolver;
 import org.springframework.web.servlet.i18n.CookieLocaleResolver;
 
@@ -60,6 +61,7 @@ import java.util.Locale;
 import java.util.Objects;
 
 @SpringBootApplication(scanBasePackages = "org.openlmis")
+@EnableScheduling
 @ImportResource("applicationContext.xml")
 @EntityScan(basePackageClasses = BaseEntity.class, basePackages = "org.openlmis.util.converter")
 @SuppressWarnings({"PMD.TooManyMethods"})
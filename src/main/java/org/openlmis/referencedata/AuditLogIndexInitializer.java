@@ -0,0 +1,115 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import javax.sql.DataSource;
+
+/**
+ * AuditLogIndexInitializer runs after its associated Spring application has loaded. It creates
+ * the indexes on the JaVers audit log tables that the audit log feed relies on. JaVers creates its
+ * tables itself when it starts, so these indexes cannot be created by a migration.
+ *
+ * <p>Indexes are built concurrently, on a background thread, so that neither the start of the
+ * application nor audit log commits wait for the build. A concurrent build cannot run in a
+ * transaction, so it uses its own connection in auto-commit mode. An index left invalid by an
+ * interrupted build is dropped and built again.
+ */
+@Component
+@Profile("!test")
+public class AuditLogIndexInitializer implements CommandLineRunner {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuditLogIndexInitializer.class);
+
+  static final String COMMIT_DATE_INDEX = "jv_commit_commit_date_idx";
+
+  private static final String SELECT_INDEX_VALID = "SELECT i.indisvalid FROM pg_index i"
+      + " JOIN pg_class c ON c.oid = i.indexrelid"
+      + " JOIN pg_namespace n ON n.oid = c.relnamespace"
+      + " WHERE n.nspname = ? AND c.relname = ?";
+
+  @Autowired
+  private DataSource dataSource;
+
+  @Value("${spring.jpa.properties.hibernate.default_schema}")
+  private String javersSchema;
+
+  /**
+   * This method is part of CommandLineRunner and is called automatically by Spring. It only
+   * starts the background thread that creates the indexes.
+   * @param args Main method arguments.
+   */
+  public void run(String... args) {
+    Thread thread = new Thread(this::createIndexes, "audit-log-index-initializer");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  void createIndexes() {
+    try (Connection connection = dataSource.getConnection()) {
+      connection.setAutoCommit(true);
+      createIndex(connection, COMMIT_DATE_INDEX, "jv_commit (commit_date)");
+    } catch (SQLException | RuntimeException ex) {
+      LOGGER.error("Could not create the audit log indexes", ex);
+    }
+  }
+
+  private void createIndex(Connection connection, String name, String definition)
+      throws SQLException {
+    Boolean valid = isValid(connection, name);
+    if (Boolean.TRUE.equals(valid)) {
+      return;
+    }
+
+    try (Statement statement = connection.createStatement()) {
+      if (null != valid) {
+        LOGGER.warn("Audit log index {} is invalid, building it again", name);
+        statement.execute("DROP INDEX CONCURRENTLY " + javersSchema + '.' + name);
+      }
+
+      LOGGER.info("Building audit log index {}", name);
+      long startTime = System.currentTimeMillis();
+      statement.execute("CREATE INDEX CONCURRENTLY " + name + " ON " + javersSchema + '.'
+          + definition);
+      LOGGER.info("Built audit log index {} in {} ms", name,
+          System.currentTimeMillis() - startTime);
+    }
+  }
+
+  private Boolean isValid(Connection connection, String name) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(SELECT_INDEX_VALID)) {
+      statement.setString(1, javersSchema);
+      statement.setString(2, name);
+
+      try (ResultSet result = statement.executeQuery()) {
+        return result.next() ? result.getBoolean(1) : null;
+      }
+    }
+  }
+}
@@ -15,71 +15,175 @@
 
 package org.openlmis.referencedata;
 
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
 import org.javers.core.Javers;
-import org.javers.core.metamodel.object.CdoSnapshot;
-import org.javers.repository.jql.QueryBuilder;
-import org.javers.spring.annotation.JaversSpringDataAuditable;
 import org.openlmis.referencedata.domain.BaseEntity;
+import org.openlmis.referencedata.repository.AuditLogRepository;
+import org.openlmis.referencedata.repository.Audited;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.AnnotationUtils;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.support.Repositories;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
-import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 /**
  * AuditLogInitializer runs after its associated Spring application has loaded.
- * It examines each domain object in the database and registers them with JaVers
- * if they haven't already been so. This is, in part, a fix for
+ * It finds domain objects in the database that have no snapshot in the JaVers audit log yet and
+ * commits a snapshot of each of them. This is, in part, a fix for
  * <a href="https://github.com/javers/javers/issues/214">this issue</a>.
+ *
+ * <p>The work runs on a background thread, so the application serves requests while it is in
+ * progress. Objects without snapshots are found with a single anti-join against the JaVers tables
+ * and are committed in batches, one transaction per batch. Since only objects without snapshots
+ * are picked up, an interrupted run continues where it stopped on the next start.
  */
 @Component
 @Profile("!test")
 public class AuditLogInitializer implements CommandLineRunner {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuditLogInitializer.class);
+
+  static final String AUTHOR = "System: AuditLogInitializer";
+
+  private static final UUID FIRST_ID = new UUID(0, 0);
+
+  private static final String MISSING_SNAPSHOT_CONDITION = " NOT EXISTS ("
+      + "SELECT 1 FROM %2$s.jv_snapshot s"
+      + " JOIN %2$s.jv_global_id g ON g.global_id_pk = s.global_id_fk"
+      + " WHERE g.type_name = :typeName AND g.local_id = '\"' || e.id || '\"')";
+
+  private static final String COUNT_MISSING = "SELECT COUNT(*) FROM %1$s e WHERE"
+      + MISSING_SNAPSHOT_CONDITION;
+
+  private static final String SELECT_MISSING = "SELECT CAST(e.id AS varchar) FROM %1$s e"
+      + " WHERE e.id > CAST(:lastId AS uuid) AND" + MISSING_SNAPSHOT_CONDITION
+      + " ORDER BY e.id LIMIT :batchSize";
+
   @Autowired
   private ApplicationContext applicationContext;
 
   @Autowired
   private Javers javers;
 
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${spring.jpa.properties.hibernate.default_schema}")
+  private String javersSchema;
+
+  @Value("${auditLogInitializer.batchSize:500}")
+  private int batchSize;
+
   /**
-   * This method is part of CommandLineRunner and is called automatically by Spring.
+   * This method is part of CommandLineRunner and is called automatically by Spring. It only
+   * starts the background thread that creates missing snapshots.
    * @param args Main method arguments.
    */
   public void run(String... args) {
-    //Get all JaVers repositories.
-    Map<String,Object> repositoryMap =
-            applicationContext.getBeansWithAnnotation(JaversSpringDataAuditable.class);
+    Thread thread = new Thread(this::createMissingSnapshots, "audit-log-initializer");
+    thread.setDaemon(true);
+    thread.start();
+  }
 
-    //For each one...
-    for (Object object : repositoryMap.values()) {
+  @SuppressWarnings("unchecked")
+  void createMissingSnapshots() {
+    Repositories repositories = new Repositories(applicationContext);
+
+    for (Class<?> domainType : repositories) {
+      Class<?> repositoryInterface = repositories
+          .getRepositoryInformationFor(domainType)
+          .getRepositoryInterface();
+
+      if (null != AnnotationUtils.findAnnotation(repositoryInterface,
+          Audited.class)) {
+        try {
+          createMissingSnapshots(domainType,
+              (CrudRepository<?, UUID>) repositories.getRepositoryFor(domainType));
+        } catch (RuntimeException ex) {
+          LOGGER.error("Audit log baseline of {} stopped, it will be resumed on next start",
+              domainType.getSimpleName(), ex);
+        }
+      }
+    }
+  }
 
-      //... retrieve all of its domain objects and...
-      Iterable<?> domainObjects = ((CrudRepository)(object)).findAll();
+  private void createMissingSnapshots(Class<?> domainType,
+                                      CrudRepository<?, UUID> repository) {
+    String tableName = ((AbstractEntityPersister) entityManager
+        .getEntityManagerFactory()
+        .unwrap(SessionFactoryImplementor.class)
+        .getEntityPersister(domainType.getName()))
+        .getTableName();
+    String typeName = AuditLogRepository.getTypeName(domainType);
+
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    long total = transaction.execute(status -> ((Number) entityManager
+        .createNativeQuery(String.format(COUNT_MISSING, tableName, javersSchema))
+        .setParameter("typeName", typeName)
+        .getSingleResult())
+        .longValue());
+
+    if (0 == total) {
+      LOGGER.debug("Audit log baseline of {} is complete", typeName);
+      return;
+    }
 
-      //... for each one...
-      for (Object o : domainObjects) {
+    LOGGER.info("Audit log baseline of {}: {} objects without snapshots", typeName, total);
+    UUID lastId = FIRST_ID;
+    long done = 0;
 
-        //...check whether there exists a snapshot for it in the audit log.
-        // Note that we don't care about checking for logged changes, per se,
-        // and thus use findSnapshots() rather than findChanges()
-        BaseEntity baseEntity = (BaseEntity)o;
+    while (true) {
+      UUID fromId = lastId;
+      List<UUID> ids = transaction.execute(status -> commitSnapshots(
+          tableName, typeName, fromId, repository));
 
-        QueryBuilder jqlQuery = QueryBuilder.byInstanceId(baseEntity.getId(), o.getClass());
-        List<CdoSnapshot> snapshots = javers.findSnapshots(jqlQuery.build());
+      if (ids.isEmpty()) {
+        break;
+      }
 
-        //If there are no snapshots of the domain object, then take one
-        if (snapshots.size() == 0) {
-          javers.commit("System: AuditLogInitializer" , baseEntity);
-        }
+      lastId = ids.get(ids.size() - 1);
+      done += ids.size();
+      LOGGER.info("Audit log baseline of {}: {} of {} objects done", typeName, done, total);
+    }
+  }
 
+  private List<UUID> commitSnapshots(String tableName, String typeName, UUID lastId,
+                                     CrudRepository<?, UUID> repository) {
+    List<?> rows = entityManager
+        .createNativeQuery(String.format(SELECT_MISSING, tableName, javersSchema))
+        .setParameter("typeName", typeName)
+        .setParameter("lastId", lastId.toString())
+        .setParameter("batchSize", batchSize)
+        .getResultList();
+    List<UUID> ids = rows.stream()
+        .map(row -> UUID.fromString(row.toString()))
+        .collect(Collectors.toList());
+
+    if (!ids.isEmpty()) {
+      for (Object domainObject : repository.findAll(ids)) {
+        javers.commit(AUTHOR, (BaseEntity) domainObject);
       }
     }
 
+    return ids;
   }
-
-}
\ No newline at end of file
+}
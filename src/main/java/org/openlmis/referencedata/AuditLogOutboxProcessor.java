@@ -0,0 +1,57 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import org.openlmis.referencedata.service.AuditLogService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Commits audit log snapshots of changes waiting in the outbox, in the background. Only active
+ * with {@code audit.async=true}.
+ */
+@Component
+@ConditionalOnProperty(name = "audit.async", havingValue = "true")
+public class AuditLogOutboxProcessor {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuditLogOutboxProcessor.class);
+
+  @Autowired
+  private AuditLogService auditLogService;
+
+  @Value("${audit.async.batchSize:500}")
+  private int batchSize;
+
+  /**
+   * Processes the outbox in batches until it is drained.
+   */
+  @Scheduled(fixedDelayString = "${audit.async.delay:1000}")
+  public void processOutbox() {
+    try {
+      int processed;
+      do {
+        processed = auditLogService.processOutbox(batchSize);
+      } while (processed == batchSize);
+    } catch (RuntimeException ex) {
+      LOGGER.error("Could not commit audit log snapshots, they will be retried", ex);
+    }
+  }
+}
@@ -0,0 +1,151 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import org.openlmis.referencedata.dto.AuditLogRetentionStatisticsDto;
+import org.openlmis.referencedata.repository.AuditLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Compacts old snapshots of the JaVers audit log. All snapshots committed in the last
+ * {@code audit.retention.days} days are kept. Of older snapshots only the latest one of every
+ * object per day or week, see {@code audit.retention.compactTo}, is kept, as well as the initial
+ * snapshot of every object. Commits left without snapshots are deleted too. Snapshots are deleted
+ * in batches, one short transaction per batch, so the audit log tables are never locked for long.
+ * Only active with {@code audit.retention.enabled=true}. The outcome of the last run is available
+ * from {@link #getStatistics()}.
+ *
+ * <p>Kept snapshots are not changed, so their version and changed properties still refer to the
+ * deleted predecessor. Changes across a compacted period show up merged: comparing two kept
+ * snapshots, for example in the snapshot endpoints, shows all changes between them at once, while
+ * the change based audit log endpoints, which JaVers computes between consecutive versions, show
+ * no changes for a kept snapshot whose predecessor was deleted.
+ */
+@Component
+@ConditionalOnProperty(name = "audit.retention.enabled", havingValue = "true")
+public class AuditLogRetentionJob {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuditLogRetentionJob.class);
+
+  public enum CompactionPeriod {
+    DAY, WEEK
+  }
+
+  @Autowired
+  private AuditLogRepository auditLogRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Value("${audit.retention.days:90}")
+  private int retentionDays;
+
+  @Value("${audit.retention.compactTo:DAY}")
+  private CompactionPeriod compactTo;
+
+  @Value("${audit.retention.batchSize:1000}")
+  private int batchSize;
+
+  private volatile AuditLogRetentionStatisticsDto statistics =
+      AuditLogRetentionStatisticsDto.notRun(true);
+
+  /**
+   * Runs the compaction on the configured schedule. Errors are logged, and the next run picks up
+   * where this one stopped.
+   */
+  @Scheduled(cron = "${audit.retention.cron:0 0 2 * * *}")
+  public void run() {
+    try {
+      compact(LocalDateTime.now().minusDays(retentionDays));
+    } catch (RuntimeException ex) {
+      LOGGER.error("Audit log compaction failed", ex);
+    }
+  }
+
+  /**
+   * Returns the outcome of the last run, which is kept in memory until the next one.
+   *
+   * @return statistics of the last run.
+   */
+  public AuditLogRetentionStatisticsDto getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * Deletes snapshots committed before the cutoff that are not the latest snapshot of their
+   * object in their period. The number of deleted snapshots and batches and the time taken are
+   * kept as statistics of the run, also when it fails.
+   *
+   * @param cutoff snapshots committed at or after this date are kept.
+   * @return number of deleted snapshots.
+   */
+  long compact(LocalDateTime cutoff) {
+    String period = compactTo.name().toLowerCase();
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+    LocalDateTime startDate = LocalDateTime.now();
+    long startTime = System.currentTimeMillis();
+    long deleted = 0;
+    int batches = 0;
+    long lastKey = 0;
+    boolean succeeded = false;
+
+    try {
+      while (true) {
+        long afterKey = lastKey;
+        List<Long> keys = transaction.execute(status -> {
+          List<Long> found = auditLogRepository.findCompactableSnapshots(cutoff, period,
+              afterKey, batchSize);
+          auditLogRepository.deleteSnapshots(found);
+          return found;
+        });
+
+        if (keys.isEmpty()) {
+          break;
+        }
+
+        deleted += keys.size();
+        batches++;
+        lastKey = keys.get(keys.size() - 1);
+        LOGGER.debug("Audit log compaction: {} snapshots deleted so far", deleted);
+
+        if (keys.size() < batchSize) {
+          break;
+        }
+      }
+      succeeded = true;
+    } finally {
+      long duration = System.currentTimeMillis() - startTime;
+      statistics = new AuditLogRetentionStatisticsDto(true, startDate, cutoff, succeeded,
+          deleted, batches, duration);
+      LOGGER.info("Audit log compaction: deleted {} snapshots committed before {} in {} batches,"
+          + " took {} ms", deleted, cutoff, batches, duration);
+    }
+
+    return deleted;
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.openlmis.referencedata.repository.Audited;
+import org.openlmis.referencedata.service.AuditLogService;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.data.repository.core.support.AbstractRepositoryMetadata;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * Passes domain objects saved and deleted through {@link Audited} repositories on to the
+ * {@link AuditLogService}, after the repository method returns.
+ */
+@Aspect
+@Component
+public class AuditedRepositoryAspect {
+
+  @Autowired
+  private AuditLogService auditLogService;
+
+  /**
+   * Records domain objects returned by save methods of audited repositories.
+   *
+   * @param joinPoint the save call
+   * @param saved     saved domain object or objects
+   */
+  @AfterReturning(pointcut = "execution(public * save(..))"
+      + " && this(org.springframework.data.repository.CrudRepository)", returning = "saved")
+  public void onSave(JoinPoint joinPoint, Object saved) {
+    if (null != getAuditedInterface(joinPoint) && null != saved) {
+      auditLogService.onSaved(asIterable(saved));
+    }
+  }
+
+  /**
+   * Records domain objects, or ids of domain objects, passed to delete methods of audited
+   * repositories.
+   *
+   * @param joinPoint the delete call
+   */
+  @AfterReturning("execution(public * delete(..))"
+      + " && this(org.springframework.data.repository.CrudRepository)")
+  public void onDelete(JoinPoint joinPoint) {
+    Class<?> repositoryInterface = getAuditedInterface(joinPoint);
+    if (null != repositoryInterface) {
+      Class<?> domainType = AbstractRepositoryMetadata
+          .getMetadata(repositoryInterface)
+          .getDomainType();
+
+      for (Object arg : joinPoint.getArgs()) {
+        auditLogService.onDeleted(domainType, asIterable(arg));
+      }
+    }
+  }
+
+  private Class<?> getAuditedInterface(JoinPoint joinPoint) {
+    for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis())) {
+      if (null != AnnotationUtils.findAnnotation(type, Audited.class)) {
+        return type;
+      }
+    }
+
+    return null;
+  }
+
+  private static Iterable<?> asIterable(Object object) {
+    return object instanceof Iterable
+        ? (Iterable<?>) object
+        : Collections.singletonList(object);
+  }
+}
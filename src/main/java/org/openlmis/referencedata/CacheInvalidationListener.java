@@ -0,0 +1,141 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import org.openlmis.referencedata.service.CacheInvalidationService;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Listens for changes of cached data made by any instance of the service, see
+ * {@link CacheInvalidationService}. The listener holds its own database connection, outside of
+ * the connection pool, and polls it for notifications. Whenever the connection is (re)opened all
+ * caches are dropped, since notifications sent while it was closed are lost.
+ */
+@Component
+@Profile("!test")
+@ConditionalOnProperty(name = "cache.invalidation.enabled", havingValue = "true",
+    matchIfMissing = true)
+public class CacheInvalidationListener implements CommandLineRunner, DisposableBean {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+  @Autowired
+  private CacheInvalidationService cacheInvalidationService;
+
+  @Autowired
+  private DataSourceProperties dataSourceProperties;
+
+  @Value("${cache.invalidation.pollInterval:100}")
+  private long pollInterval;
+
+  @Value("${cache.invalidation.retryDelay:5000}")
+  private long retryDelay;
+
+  private volatile boolean running;
+
+  private Thread thread;
+
+  /**
+   * This method is part of CommandLineRunner and is called automatically by Spring. It starts
+   * the background thread that listens for notifications.
+   * @param args Main method arguments.
+   */
+  public void run(String... args) {
+    running = true;
+    thread = new Thread(this::listen, "cache-invalidation-listener");
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  @Override
+  public void destroy() {
+    running = false;
+    if (null != thread) {
+      thread.interrupt();
+    }
+  }
+
+  void listen() {
+    while (running) {
+      try (Connection connection = DriverManager.getConnection(dataSourceProperties.getUrl(),
+          dataSourceProperties.getUsername(), dataSourceProperties.getPassword())) {
+        execute(connection, "LISTEN " + CacheInvalidationService.CHANNEL);
+        cacheInvalidationService.invalidateAll();
+        LOGGER.info("Listening for cache invalidations");
+
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        while (running) {
+          // notifications are only read from the connection together with query results
+          execute(connection, "SELECT 1");
+          PGNotification[] notifications = pgConnection.getNotifications();
+          if (null != notifications) {
+            for (PGNotification notification : notifications) {
+              invalidate(notification.getParameter());
+            }
+          }
+
+          Thread.sleep(pollInterval);
+        }
+      } catch (SQLException ex) {
+        LOGGER.warn("Cache invalidation connection failed, reconnecting in {} ms", retryDelay,
+            ex);
+        sleep(retryDelay);
+      } catch (InterruptedException ex) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  private void invalidate(String payload) {
+    try {
+      cacheInvalidationService.invalidate(payload);
+    } catch (RuntimeException ex) {
+      LOGGER.error("Could not invalidate cached data of {}", payload, ex);
+    }
+  }
+
+  private void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      running = false;
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+}
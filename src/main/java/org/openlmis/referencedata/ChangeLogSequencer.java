@@ -0,0 +1,77 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import org.openlmis.referencedata.repository.ChangeLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Assigns sequence numbers to committed changes in the change log, in the background, so that
+ * reading the log does not have to. Every batch is numbered and committed in its own transaction.
+ * Not active in tests, which number the changes they make themselves.
+ */
+@Component
+@Profile("!test")
+public class ChangeLogSequencer {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ChangeLogSequencer.class);
+
+  @Autowired
+  private ChangeLogRepository changeLogRepository;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Value("${changeLog.sequencer.batchSize:1000}")
+  private int batchSize;
+
+  /**
+   * Numbers pending changes in batches until there are none left.
+   */
+  @Scheduled(fixedDelayString = "${changeLog.sequencer.delay:1000}")
+  public void run() {
+    try {
+      sequence();
+    } catch (RuntimeException ex) {
+      LOGGER.error("Could not number changes in the change log, they will be retried", ex);
+    }
+  }
+
+  /**
+   * Numbers pending changes in batches until there are none left or another instance is
+   * numbering them.
+   *
+   * @return number of numbered changes.
+   */
+  public long sequence() {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+    long total = 0;
+    int sequenced;
+    do {
+      sequenced = transaction.execute(status -> changeLogRepository.sequenceChanges(batchSize));
+      total += sequenced;
+    } while (sequenced == batchSize);
+    return total;
+  }
+}
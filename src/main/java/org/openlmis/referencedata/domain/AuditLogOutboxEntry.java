@@ -0,0 +1,77 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.domain;
+
+import org.hibernate.annotations.Type;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * Change of an audited domain object that is waiting to be committed to the JaVers audit log.
+ * Entries are written in the transaction of the change and removed once their snapshots are
+ * committed. Entries whose snapshots cannot be committed are kept, marked as failed.
+ */
+@Entity
+@Table(name = "audit_log_outbox", schema = "referencedata")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+public class AuditLogOutboxEntry extends BaseEntity {
+
+  @Column(nullable = false, columnDefinition = "text")
+  private String entityType;
+
+  @Column(nullable = false)
+  @Type(type = "pg-uuid")
+  private UUID entityId;
+
+  @Column(columnDefinition = "text")
+  private String author;
+
+  @Column(nullable = false)
+  private boolean deleted;
+
+  @Column(nullable = false, columnDefinition = "timestamp with time zone")
+  private ZonedDateTime createdDate;
+
+  @Column(nullable = false)
+  private boolean failed;
+
+  /**
+   * Creates new entry for a change of the given domain object, made now.
+   *
+   * @param entityType class of the changed domain object
+   * @param entityId   UUID of the changed domain object
+   * @param author     author of the change
+   * @param deleted    whether the domain object was deleted
+   */
+  public AuditLogOutboxEntry(Class<?> entityType, UUID entityId, String author,
+                             boolean deleted) {
+    this.entityType = entityType.getName();
+    this.entityId = entityId;
+    this.author = author;
+    this.deleted = deleted;
+    this.createdDate = ZonedDateTime.now();
+  }
+}
@@ -0,0 +1,128 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.domain;
+
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Type;
+import org.joda.money.Money;
+import org.openlmis.referencedata.CurrencyConfig;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+
+/**
+ * Read-only, denormalized view of a {@link FacilityTypeApprovedProduct} together with its
+ * {@link ProgramOrderable}, {@link Orderable} and {@link OrderableDisplayCategory}. Rows are kept
+ * in sync with the source tables by database triggers, so approved product searches can be
+ * answered from a single table without any joins. The id is the id of the source facility type
+ * approved product.
+ */
+@Entity
+@Immutable
+@Table(name = "flat_approved_products", schema = "referencedata")
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Getter
+public class FlatApprovedProduct extends BaseEntity {
+
+  @Type(type = "pg-uuid")
+  private UUID facilityTypeId;
+
+  @Type(type = "pg-uuid")
+  private UUID programId;
+
+  @Type(type = "pg-uuid")
+  private UUID programOrderableId;
+
+  @Type(type = "pg-uuid")
+  private UUID orderableId;
+
+  private String orderableCode;
+
+  private String orderableName;
+
+  private long orderablePackSize;
+
+  @Type(type = "pg-uuid")
+  private UUID orderableDisplayCategoryId;
+
+  private String categoryDisplayName;
+
+  private int categoryDisplayOrder;
+
+  private boolean active;
+
+  private boolean fullSupply;
+
+  private int displayOrder;
+
+  private Integer dosesPerPatient;
+
+  @Type(type = "org.jadira.usertype.moneyandcurrency.joda.PersistentMoneyAmount",
+      parameters = {@Parameter(name = "currencyCode", value = CurrencyConfig.CURRENCY_CODE)})
+  private Money pricePerPack;
+
+  private Double maxPeriodsOfStock;
+
+  private Double minPeriodsOfStock;
+
+  private Double emergencyOrderPoint;
+
+  /**
+   * Export this object to the specified exporters (DTOs).
+   *
+   * @param exporter                 exporter for the approved product fields
+   * @param programOrderableExporter exporter for the program orderable fields
+   */
+  public void export(Exporter exporter, ProgramOrderable.Exporter programOrderableExporter) {
+    exporter.setId(id);
+    exporter.setMaxPeriodsOfStock(maxPeriodsOfStock);
+    exporter.setMinPeriodsOfStock(minPeriodsOfStock);
+    exporter.setEmergencyOrderPoint(emergencyOrderPoint);
+
+    programOrderableExporter.setId(programOrderableId);
+    programOrderableExporter.setOrderableId(orderableId);
+    programOrderableExporter.setOrderableName(orderableName);
+    programOrderableExporter.setOrderableCode(Code.code(orderableCode));
+    programOrderableExporter.setOrderablePackSize(orderablePackSize);
+    programOrderableExporter.setOrderableDisplayCategoryId(orderableDisplayCategoryId);
+    programOrderableExporter.setOrderableCategoryDisplayName(categoryDisplayName);
+    programOrderableExporter.setOrderableCategoryDisplayOrder(categoryDisplayOrder);
+    programOrderableExporter.setActive(active);
+    programOrderableExporter.setFullSupply(fullSupply);
+    programOrderableExporter.setDisplayOrder(displayOrder);
+    programOrderableExporter.setDosesPerPatient(dosesPerPatient);
+    if (pricePerPack != null) {
+      programOrderableExporter.setPricePerPack(pricePerPack);
+    }
+  }
+
+  public interface Exporter {
+    void setId(UUID id);
+
+    void setMaxPeriodsOfStock(Double maxPeriodsOfStock);
+
+    void setMinPeriodsOfStock(Double minPeriodsOfStock);
+
+    void setEmergencyOrderPoint(Double emergencyOrderPoint);
+  }
+}
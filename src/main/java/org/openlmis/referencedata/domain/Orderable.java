@@ -21,8 +21,10 @@ import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
+import java.util.Map;
 import java.util.Set;
 
 import javax.persistence.CascadeType;
@@ -34,6 +36,7 @@ import javax.persistence.Inheritance;
 import javax.persistence.InheritanceType;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
+import javax.persistence.Transient;
 
 /**
  * Products that are Orderable by Program.  An Orderable represent any medical commodities
@@ -67,6 +70,16 @@ public abstract class Orderable extends BaseEntity {
       fetch = FetchType.EAGER)
   private Set<ProgramOrderable> programOrderables;
 
+  /**
+   * Program associations by program, built from {@link #programOrderables} on first lookup. It is
+   * built again if Hibernate replaces the association collection.
+   */
+  @Transient
+  private Map<Program, ProgramOrderable> programIndex;
+
+  @Transient
+  private Set<ProgramOrderable> indexedProgramOrderables;
+
   protected Orderable(Code productCode, Dispensable dispensable, String name, long packSize,
                       long packRoundingThreshold, boolean roundToZero) {
     this.productCode = productCode;
@@ -111,13 +124,29 @@ public abstract class Orderable extends BaseEntity {
    * @return true if successful, false otherwise.
    */
   public final boolean addToProgram(ProgramOrderable programOrderable) {
-    if (programOrderables.contains(programOrderable)) {
-      programOrderables.remove(programOrderable);
+    Map<Program, ProgramOrderable> index = getProgramIndex();
+    ProgramOrderable existing = index.put(programOrderable.getProgram(), programOrderable);
+    if (null != existing) {
+      programOrderables.remove(existing);
     }
 
     return programOrderables.add(programOrderable);
   }
 
+  /**
+   * Adds the program associations of a previously stored version of this orderable, for the
+   * programs this orderable is not yet associated with.
+   * @param stored the stored orderable with the same product code.
+   */
+  public final void keepProgramsOf(Orderable stored) {
+    Map<Program, ProgramOrderable> index = getProgramIndex();
+    for (ProgramOrderable programOrderable : stored.programOrderables) {
+      if (null == index.putIfAbsent(programOrderable.getProgram(), programOrderable)) {
+        programOrderables.add(programOrderable);
+      }
+    }
+  }
+
   @JsonProperty
   protected final void setPrograms(Set<ProgramOrderableBuilder> ppBuilders) {
     Set<ProgramOrderable> workProgProducts = new HashSet<>();
@@ -129,6 +158,7 @@ public abstract class Orderable extends BaseEntity {
       addToProgram(programOrderable);
     }
     this.programOrderables.retainAll(workProgProducts); // remove old associations
+    this.programIndex = null;
   }
 
   @JsonProperty
@@ -143,13 +173,19 @@ public abstract class Orderable extends BaseEntity {
    *        given program.
    */
   public ProgramOrderable getProgramOrderable(Program program) {
-    for (ProgramOrderable programOrderable : programOrderables) {
-      if (programOrderable.isForProgram(program)) {
-        return programOrderable;
+    return getProgramIndex().get(program);
+  }
+
+  private Map<Program, ProgramOrderable> getProgramIndex() {
+    if (null == programIndex || indexedProgramOrderables != programOrderables) {
+      programIndex = new HashMap<>();
+      for (ProgramOrderable programOrderable : programOrderables) {
+        programIndex.put(programOrderable.getProgram(), programOrderable);
       }
+      indexedProgramOrderables = programOrderables;
     }
 
-    return null;
+    return programIndex;
   }
 
   @JsonProperty
@@ -162,6 +198,21 @@ public abstract class Orderable extends BaseEntity {
    * @return the number of packs that should be ordered.
    */
   public long packsToOrder(long dispensingUnits) {
+    return packsToOrder(dispensingUnits, packSize, packRoundingThreshold, roundToZero);
+  }
+
+  /**
+   * Returns the number of packs to order for the given pack parameters. This is the rule used by
+   * {@link #packsToOrder(long)}, exposed for callers that keep pack parameters without loading
+   * whole orderables.
+   * @param dispensingUnits # of dispensing units we'd like to order for
+   * @param packSize # of dispensing units in a pack
+   * @param packRoundingThreshold remainder above which one more pack is ordered
+   * @param roundToZero whether an order smaller than one pack may be rounded to zero packs
+   * @return the number of packs that should be ordered.
+   */
+  public static long packsToOrder(long dispensingUnits, long packSize, long packRoundingThreshold,
+                                  boolean roundToZero) {
     if (dispensingUnits <= 0 || packSize == 0) {
       return 0;
     }
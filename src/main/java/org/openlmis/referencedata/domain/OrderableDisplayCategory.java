@@ -17,10 +17,14 @@ package org.openlmis.referencedata.domain;
 
 import com.fasterxml.jackson.annotation.JsonUnwrapped;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.Getter;
 
 import java.util.Objects;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Embedded;
 import javax.persistence.Entity;
 import javax.persistence.Table;
@@ -30,6 +34,8 @@ import javax.persistence.Table;
  */
 @Entity
 @Table(name = "orderable_display_categories", schema = "referencedata")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class OrderableDisplayCategory extends BaseEntity {
 
   @Embedded
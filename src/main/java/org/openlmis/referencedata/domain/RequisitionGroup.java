@@ -29,7 +29,6 @@ import java.util.UUID;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.FetchType;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
@@ -72,7 +71,7 @@ public class RequisitionGroup extends BaseEntity {
   @Setter
   private List<RequisitionGroupProgramSchedule> requisitionGroupProgramSchedules;
 
-  @ManyToMany(fetch = FetchType.EAGER)
+  @ManyToMany
   @JoinTable(name = "requisition_group_members",
       joinColumns = @JoinColumn(name = "requisitiongroupid", nullable = false),
       inverseJoinColumns = @JoinColumn(name = "facilityid", nullable = false))
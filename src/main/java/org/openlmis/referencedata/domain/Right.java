@@ -15,6 +15,9 @@
 
 package org.openlmis.referencedata.domain;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -24,6 +27,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.UUID;
 
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -36,6 +40,8 @@ import javax.persistence.Table;
 
 @Entity
 @Table(name = "rights", schema = "referencedata")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 @NoArgsConstructor
 @SuppressWarnings({"PMD.UnusedPrivateField"})
 public class Right extends BaseEntity {
@@ -57,6 +63,7 @@ public class Right extends BaseEntity {
   private String description;
 
   @ManyToMany(fetch = FetchType.EAGER)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
   @JoinTable(name = "right_attachments",
       joinColumns = @JoinColumn(name = "rightid", nullable = false),
       inverseJoinColumns = @JoinColumn(name = "attachmentid", nullable = false))
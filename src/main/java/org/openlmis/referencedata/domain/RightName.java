@@ -30,4 +30,6 @@ public class RightName {
   public static final String STOCK_ADJUSTMENT_REASONS_MANAGE = "STOCK_ADJUSTMENT_REASONS_MANAGE";
   public static final String FACILITY_APPROVED_ORDERABLES_MANAGE =
       "FACILITY_APPROVED_ORDERABLES_MANAGE";
+  public static final String AUDIT_LOG_VIEW = "AUDIT_LOG_VIEW";
+  public static final String CHANGE_LOG_VIEW = "CHANGE_LOG_VIEW";
 }
@@ -92,6 +92,15 @@ public final class TradeItem extends Orderable {
         packRoundingThreshold, roundToZero);
   }
 
+  /**
+   * Keeps the commodity type assigned to a previously stored version of this trade item. Used when
+   * a trade item is replaced by a new instance with the same product code.
+   * @param stored the stored trade item.
+   */
+  public void keepCommodityTypeOf(TradeItem stored) {
+    assignCommodityType(stored.commodityType);
+  }
+
   /**
    * Assign a commodity type.
    * @param commodityType the given commodity type, or null to un-assign.
@@ -16,15 +16,18 @@
 package org.openlmis.referencedata.dto;
 
 import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
+import org.openlmis.referencedata.domain.FlatApprovedProduct;
 import org.openlmis.referencedata.domain.ProgramOrderable;
 
 import lombok.Getter;
+import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Getter
 @Setter
+@NoArgsConstructor
 public class ApprovedProductDto extends BaseDto implements FacilityTypeApprovedProduct.Exporter,
-    FacilityTypeApprovedProduct.Importer {
+    FacilityTypeApprovedProduct.Importer, FlatApprovedProduct.Exporter {
 
   private ProgramOrderableDto programOrderable;
 
@@ -34,6 +37,10 @@ public class ApprovedProductDto extends BaseDto implements FacilityTypeApprovedP
 
   private Double emergencyOrderPoint;
 
+  public ApprovedProductDto(ProgramOrderableDto programOrderable) {
+    this.programOrderable = programOrderable;
+  }
+
   @Override
   public void setProgramOrderable(ProgramOrderable programOrderable) {
     this.programOrderable = new ProgramOrderableDto();
@@ -0,0 +1,53 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of the last run of the audit log compaction. Run fields are null until the first run.
+ */
+@Getter
+@AllArgsConstructor
+public class AuditLogRetentionStatisticsDto {
+
+  private boolean enabled;
+
+  private LocalDateTime lastRunDate;
+
+  private LocalDateTime lastRunCutoff;
+
+  private Boolean lastRunSucceeded;
+
+  private Long deletedSnapshots;
+
+  private Integer batches;
+
+  private Long durationMillis;
+
+  /**
+   * Creates statistics of a compaction that has not run yet.
+   *
+   * @param enabled whether the compaction is enabled
+   * @return statistics without a last run
+   */
+  public static AuditLogRetentionStatisticsDto notRun(boolean enabled) {
+    return new AuditLogRetentionStatisticsDto(enabled, null, null, null, null, null, null);
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonRawValue;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Single JaVers snapshot of an audited object. The object id, the changed properties and the
+ * state are written out as the JSON JaVers stored them, without being parsed.
+ */
+@Getter
+@AllArgsConstructor
+public class AuditLogSnapshotDto {
+
+  @JsonIgnore
+  private long snapshotId;
+
+  private BigDecimal commitId;
+
+  private LocalDateTime commitDate;
+
+  private String author;
+
+  private String type;
+
+  @JsonRawValue
+  private String cdoId;
+
+  private long version;
+
+  @JsonRawValue
+  private String changedProperties;
+
+  @JsonRawValue
+  private String state;
+
+}
@@ -0,0 +1,49 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A single line of an orderable import. Programs are referenced by code, so the import file does
+ * not need to know any persistence ids.
+ */
+@Getter
+@Setter
+public class OrderableImportDto {
+
+  private String type;
+
+  private String productCode;
+
+  private String dispensingUnit;
+
+  private String name;
+
+  private String description;
+
+  private long packSize;
+
+  private long packRoundingThreshold;
+
+  private boolean roundToZero;
+
+  private List<ProgramOrderableImportDto> programs;
+
+}
@@ -46,6 +46,18 @@ public class SupplyLineSimpleDto extends BaseDto implements SupplyLine.Exporter,
   @JsonProperty
   private UUID supplyingFacility;
 
+  /**
+   * Creates new instance with the given ids and description.
+   */
+  public SupplyLineSimpleDto(UUID id, UUID supervisoryNode, String description, UUID program,
+                             UUID supplyingFacility) {
+    this.id = id;
+    this.supervisoryNode = supervisoryNode;
+    this.description = description;
+    this.program = program;
+    this.supplyingFacility = supplyingFacility;
+  }
+
   @JsonIgnore
   @Override
   public SupervisoryNode.Importer getSupervisoryNode() {
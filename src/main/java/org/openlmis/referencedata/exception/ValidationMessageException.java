@@ -39,4 +39,13 @@ public class ValidationMessageException extends BaseMessageException {
   public ValidationMessageException(Message message) {
     super(message);
   }
+
+  /**
+   * Create a new validation exception with the given message and cause.
+   * @param message the message.
+   * @param cause the cause of this exception.
+   */
+  public ValidationMessageException(Message message, Throwable cause) {
+    super(message, cause);
+  }
 }
@@ -0,0 +1,55 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.repository;
+
+import org.openlmis.referencedata.domain.AuditLogOutboxEntry;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface AuditLogOutboxEntryRepository extends CrudRepository<AuditLogOutboxEntry, UUID> {
+
+  /**
+   * Takes the lock for draining the outbox until the current transaction ends. Only the instance
+   * holding it processes entries, so snapshots of an object are never committed concurrently.
+   *
+   * @return whether the lock was taken, false if another transaction holds it
+   */
+  @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('referencedata.audit_log_outbox'))",
+      nativeQuery = true)
+  boolean tryLockOutbox();
+
+  /**
+   * Locks the oldest entries that have not failed for the current transaction.
+   */
+  @Query(value = "SELECT * FROM referencedata.audit_log_outbox WHERE NOT failed"
+      + " ORDER BY createddate LIMIT :batchSize FOR UPDATE SKIP LOCKED", nativeQuery = true)
+  List<AuditLogOutboxEntry> lockOldestEntries(@Param("batchSize") int batchSize);
+
+  /**
+   * Marks the given entries as failed, so that they are no longer processed.
+   *
+   * @return number of marked entries
+   */
+  @Modifying
+  @Query("UPDATE AuditLogOutboxEntry e SET e.failed = true WHERE e.id IN :ids")
+  int markFailed(@Param("ids") Collection<UUID> ids);
+}
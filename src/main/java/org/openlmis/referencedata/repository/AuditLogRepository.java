@@ -0,0 +1,329 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.repository;
+
+import org.hibernate.SQLQuery;
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.javers.core.metamodel.annotation.TypeName;
+import org.openlmis.referencedata.dto.AuditLogSnapshotDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+/**
+ * Reads JaVers snapshots straight from the audit log tables. Snapshots are ordered newest first
+ * and paged with a keyset cursor, which is the primary key of the last snapshot of the previous
+ * page. Snapshot keys grow with every commit, so pages follow commit order and a deep page costs
+ * the same as the first one. The feed of all audited types is read the other way, oldest first,
+ * so that consumers can follow it from the last snapshot they have seen.
+ */
+@Repository
+public class AuditLogRepository {
+
+  private static final String SELECT_SNAPSHOTS = "SELECT s.snapshot_pk, c.commit_id,"
+      + " c.commit_date, c.author, s.type, g.local_id, s.version, s.changed_properties, s.state"
+      + " FROM %1$s.jv_snapshot s"
+      + " JOIN %1$s.jv_commit c ON c.commit_pk = s.commit_fk"
+      + " JOIN %1$s.jv_global_id g ON g.global_id_pk = s.global_id_fk";
+
+  private static final String SELECT_COMPACTABLE = "SELECT s.snapshot_pk"
+      + " FROM %1$s.jv_snapshot s"
+      + " JOIN %1$s.jv_commit c ON c.commit_pk = s.commit_fk"
+      + " WHERE c.commit_date < :cutoff AND s.snapshot_pk > :afterKey AND s.type <> 'INITIAL'"
+      + " AND EXISTS (SELECT 1 FROM %1$s.jv_snapshot n"
+      + " JOIN %1$s.jv_commit nc ON nc.commit_pk = n.commit_fk"
+      + " WHERE n.global_id_fk = s.global_id_fk AND n.snapshot_pk > s.snapshot_pk"
+      + " AND date_trunc(:period, nc.commit_date) = date_trunc(:period, c.commit_date))"
+      + " ORDER BY s.snapshot_pk LIMIT :batchSize";
+
+  // the first commit is found by the commit date index that AuditLogIndexInitializer creates,
+  // then its first snapshot by the commit key index
+  private static final String SELECT_FIRST_SNAPSHOT_SINCE = "SELECT s.snapshot_pk"
+      + " FROM %1$s.jv_snapshot s"
+      + " WHERE s.commit_fk >= (SELECT c.commit_pk FROM %1$s.jv_commit c"
+      + " WHERE c.commit_date >= :from ORDER BY c.commit_date LIMIT 1)"
+      + " ORDER BY s.commit_fk, s.snapshot_pk LIMIT 1";
+
+  // the last commit before the window ends is found by the commit date index as well
+  private static final String SELECT_LAST_SNAPSHOT_BEFORE = "SELECT s.snapshot_pk"
+      + " FROM %1$s.jv_snapshot s"
+      + " WHERE s.commit_fk <= (SELECT c.commit_pk FROM %1$s.jv_commit c"
+      + " WHERE c.commit_date < :to ORDER BY c.commit_date DESC LIMIT 1)"
+      + " ORDER BY s.commit_fk DESC, s.snapshot_pk DESC LIMIT 1";
+
+  private static final String SELECT_COMMIT_KEYS = "SELECT DISTINCT commit_fk"
+      + " FROM %1$s.jv_snapshot WHERE snapshot_pk IN (:keys)";
+
+  private static final String DELETE_SNAPSHOTS = "DELETE FROM %1$s.jv_snapshot"
+      + " WHERE snapshot_pk IN (:keys)";
+
+  private static final String DELETE_ORPHANED_COMMIT_PROPERTIES = "DELETE"
+      + " FROM %1$s.jv_commit_property p WHERE p.commit_fk IN (:keys)"
+      + " AND NOT EXISTS (SELECT 1 FROM %1$s.jv_snapshot s WHERE s.commit_fk = p.commit_fk)";
+
+  private static final String DELETE_ORPHANED_COMMITS = "DELETE"
+      + " FROM %1$s.jv_commit c WHERE c.commit_pk IN (:keys)"
+      + " AND NOT EXISTS (SELECT 1 FROM %1$s.jv_snapshot s WHERE s.commit_fk = c.commit_pk)";
+
+  private static final int FEED_FETCH_SIZE = 500;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  @Value("${spring.jpa.properties.hibernate.default_schema}")
+  private String javersSchema;
+
+  /**
+   * Finds snapshots of the given type, newest first, matching all of provided parameters.
+   *
+   * @param type                audited type of searched snapshots.
+   * @param id                  UUID of the audited object, if null snapshots of all objects
+   *                            of the type are returned.
+   * @param author              author of the commits, ignored if null.
+   * @param changedPropertyName name of a property changed by the snapshots, ignored if null.
+   * @param from                earliest commit date, inclusive, ignored if null.
+   * @param to                  latest commit date, exclusive, ignored if null.
+   * @param cursor              snapshots with this or a greater key are skipped, ignored if null.
+   * @param size                maximum number of returned snapshots.
+   * @return matching snapshots ordered from the newest.
+   */
+  public List<AuditLogSnapshotDto> searchSnapshots(Class<?> type, UUID id, String author,
+                                                   String changedPropertyName,
+                                                   LocalDateTime from, LocalDateTime to,
+                                                   Long cursor, int size) {
+    StringBuilder sql = new StringBuilder(String.format(SELECT_SNAPSHOTS, javersSchema))
+        .append(" WHERE g.type_name = :typeName");
+    Map<String, Object> params = new HashMap<>();
+    params.put("typeName", getTypeName(type));
+
+    if (null != id) {
+      sql.append(" AND g.local_id = :localId");
+      params.put("localId", '"' + id.toString() + '"');
+    }
+    if (null != author) {
+      sql.append(" AND c.author = :author");
+      params.put("author", author);
+    }
+    if (null != changedPropertyName) {
+      sql.append(" AND s.changed_properties LIKE :changedProperty ESCAPE '\\'");
+      params.put("changedProperty", "%\"" + escape(changedPropertyName) + "\"%");
+    }
+    if (null != from) {
+      sql.append(" AND c.commit_date >= :from");
+      params.put("from", Timestamp.valueOf(from));
+    }
+    if (null != to) {
+      sql.append(" AND c.commit_date < :to");
+      params.put("to", Timestamp.valueOf(to));
+    }
+    if (null != cursor) {
+      sql.append(" AND s.snapshot_pk < :cursor");
+      params.put("cursor", cursor);
+    }
+    sql.append(" ORDER BY s.snapshot_pk DESC LIMIT :size");
+    params.put("size", size);
+
+    Query query = entityManager.createNativeQuery(sql.toString());
+    params.forEach(query::setParameter);
+
+    List<Object[]> rows = query.getResultList();
+    return rows.stream()
+        .map(AuditLogRepository::toSnapshot)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Passes snapshots of all audited types committed in the given time window to the consumer,
+   * oldest first. The keys of the first and the last snapshot of the window are looked up by
+   * commit date first, so the scan covers only the window and not the older or newer history.
+   * Rows are fetched from the database in chunks while the consumer runs, so the whole window is
+   * never held in memory. Must be called in a transaction.
+   *
+   * @param from     earliest commit date, inclusive.
+   * @param to       latest commit date, exclusive, ignored if null.
+   * @param author   author of the commits, ignored if null.
+   * @param cursor   snapshots with this or a lower key are skipped, ignored if null.
+   * @param size     maximum number of snapshots, if null all matching snapshots are passed.
+   * @param consumer receives matching snapshots ordered from the oldest.
+   * @return number of snapshots passed to the consumer.
+   */
+  public int streamSnapshots(LocalDateTime from, LocalDateTime to, String author, Long cursor,
+                             Integer size, Consumer<AuditLogSnapshotDto> consumer) {
+    List<Number> firstKey = entityManager
+        .createNativeQuery(String.format(SELECT_FIRST_SNAPSHOT_SINCE, javersSchema))
+        .setParameter("from", Timestamp.valueOf(from))
+        .getResultList();
+    if (firstKey.isEmpty()) {
+      return 0;
+    }
+
+    StringBuilder sql = new StringBuilder(String.format(SELECT_SNAPSHOTS, javersSchema))
+        .append(" WHERE s.snapshot_pk >= :firstKey AND c.commit_date >= :from");
+    Map<String, Object> params = new HashMap<>();
+    params.put("firstKey", firstKey.get(0).longValue());
+    params.put("from", Timestamp.valueOf(from));
+
+    if (null != to) {
+      List<Number> lastKey = entityManager
+          .createNativeQuery(String.format(SELECT_LAST_SNAPSHOT_BEFORE, javersSchema))
+          .setParameter("to", Timestamp.valueOf(to))
+          .getResultList();
+      if (lastKey.isEmpty()) {
+        return 0;
+      }
+
+      sql.append(" AND s.snapshot_pk <= :lastKey AND c.commit_date < :to");
+      params.put("lastKey", lastKey.get(0).longValue());
+      params.put("to", Timestamp.valueOf(to));
+    }
+    if (null != author) {
+      sql.append(" AND c.author = :author");
+      params.put("author", author);
+    }
+    if (null != cursor) {
+      sql.append(" AND s.snapshot_pk > :cursor");
+      params.put("cursor", cursor);
+    }
+    sql.append(" ORDER BY s.snapshot_pk");
+    if (null != size) {
+      sql.append(" LIMIT :size");
+      params.put("size", size);
+    }
+
+    Query query = entityManager.createNativeQuery(sql.toString());
+    params.forEach(query::setParameter);
+
+    int count = 0;
+    ScrollableResults rows = query
+        .unwrap(org.hibernate.Query.class)
+        .setFetchSize(FEED_FETCH_SIZE)
+        .setReadOnly(true)
+        .scroll(ScrollMode.FORWARD_ONLY);
+    try {
+      while (rows.next()) {
+        consumer.accept(toSnapshot(rows.get()));
+        count++;
+      }
+    } finally {
+      rows.close();
+    }
+
+    return count;
+  }
+
+  /**
+   * Finds keys of snapshots committed before the cutoff that are followed by a newer snapshot of
+   * the same object within the same period. Deleting them leaves only the latest snapshot of
+   * every object per period, plus the initial snapshot of every object, which is never
+   * returned.
+   *
+   * @param cutoff    only snapshots committed before this date are returned.
+   * @param period    period to compact to, as accepted by the Postgres date_trunc function,
+   *                  for example day or week.
+   * @param afterKey  only snapshots with a greater key are returned.
+   * @param batchSize maximum number of returned keys.
+   * @return keys of compactable snapshots, in ascending order.
+   */
+  public List<Long> findCompactableSnapshots(LocalDateTime cutoff, String period, long afterKey,
+                                             int batchSize) {
+    List<Number> keys = entityManager
+        .createNativeQuery(String.format(SELECT_COMPACTABLE, javersSchema))
+        .setParameter("cutoff", Timestamp.valueOf(cutoff))
+        .setParameter("period", period)
+        .setParameter("afterKey", afterKey)
+        .setParameter("batchSize", batchSize)
+        .getResultList();
+
+    return keys.stream()
+        .map(Number::longValue)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Deletes snapshots with the given keys, together with their commits that are left without
+   * snapshots. Other snapshots are not changed.
+   *
+   * @param keys keys of snapshots to delete.
+   * @return number of deleted snapshots.
+   */
+  public int deleteSnapshots(List<Long> keys) {
+    if (keys.isEmpty()) {
+      return 0;
+    }
+
+    List<Number> rows = entityManager
+        .createNativeQuery(String.format(SELECT_COMMIT_KEYS, javersSchema))
+        .setParameter("keys", keys)
+        .getResultList();
+    List<Long> commitKeys = rows.stream()
+        .map(Number::longValue)
+        .collect(Collectors.toList());
+
+    int deleted = executeUpdate(DELETE_SNAPSHOTS, "jv_snapshot", keys);
+    executeUpdate(DELETE_ORPHANED_COMMIT_PROPERTIES, "jv_commit_property", commitKeys);
+    executeUpdate(DELETE_ORPHANED_COMMITS, "jv_commit", commitKeys);
+
+    return deleted;
+  }
+
+  private int executeUpdate(String sql, String querySpace, List<Long> keys) {
+    // without a declared query space Hibernate would evict the whole second-level cache
+    return entityManager
+        .createNativeQuery(String.format(sql, javersSchema))
+        .setParameter("keys", keys)
+        .unwrap(SQLQuery.class)
+        .addSynchronizedQuerySpace(querySpace)
+        .executeUpdate();
+  }
+
+  private static String escape(String value) {
+    return value
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
+  }
+
+  private static AuditLogSnapshotDto toSnapshot(Object[] row) {
+    return new AuditLogSnapshotDto(((Number) row[0]).longValue(), (BigDecimal) row[1],
+        ((Timestamp) row[2]).toLocalDateTime(), (String) row[3], (String) row[4],
+        (String) row[5], ((Number) row[6]).longValue(), (String) row[7], (String) row[8]);
+  }
+
+  /**
+   * Returns the name JaVers stores snapshots of the given type under.
+   *
+   * @param type audited type.
+   * @return value of the {@link TypeName} annotation or the class name if there is none.
+   */
+  public static String getTypeName(Class<?> type) {
+    TypeName typeName = type.getAnnotation(TypeName.class);
+    return null == typeName ? type.getName() : typeName.value();
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.repository;
+
+import org.openlmis.referencedata.dto.ChangeLogEntryDto;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+/**
+ * Reads the change log that database triggers fill on every insert, update and delete of
+ * reference data. Every change gets a sequence number, assigned by
+ * {@link org.openlmis.referencedata.ChangeLogSequencer} after it is committed, that is greater
+ * than the number of any change numbered before it, so a client can follow the log by asking for
+ * changes after the last number it has seen.
+ */
+@Repository
+public class ChangeLogRepository {
+
+  /**
+   * Types of objects whose changes are logged, the tables the change log triggers are set on.
+   */
+  public static final Set<String> LOGGED_TYPES = Collections.unmodifiableSet(new HashSet<>(
+      Arrays.asList("facilities", "facility_operators", "facility_type_approved_products",
+          "facility_types", "geographic_levels", "geographic_zones",
+          "orderable_display_categories", "orderables", "processing_periods",
+          "processing_schedules", "program_orderables", "programs", "requisition_groups",
+          "rights", "roles", "stock_adjustment_reasons", "supervisory_nodes", "supply_lines",
+          "users")));
+
+  private static final String SEQUENCE_CHANGES =
+      "SELECT referencedata.sequence_change_log(:batchSize)";
+
+  private static final String SELECT_CHANGES = "SELECT seq, type, CAST(entityid AS varchar),"
+      + " deleted, changeddate"
+      + " FROM referencedata.change_log"
+      + " WHERE seq > :since";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Numbers the oldest committed changes that have no sequence number yet. The numbering lock is
+   * held until the transaction ends, so each batch should be committed on its own.
+   *
+   * @param batchSize maximum number of changes to number.
+   * @return number of numbered changes, 0 if there were none or another caller holds the lock.
+   */
+  public int sequenceChanges(int batchSize) {
+    Object sequenced = entityManager.createNativeQuery(SEQUENCE_CHANGES)
+        .setParameter("batchSize", batchSize)
+        .getSingleResult();
+    return ((Number) sequenced).intValue();
+  }
+
+  /**
+   * Finds numbered changes that follow the given sequence number, oldest first. Changes that
+   * have not been numbered yet are not returned.
+   *
+   * @param since sequence number of the last change already seen.
+   * @param types names of the tables whose changes are returned, all tables if null or empty.
+   * @param size  maximum number of returned changes.
+   * @return matching changes ordered by their sequence number.
+   */
+  public List<ChangeLogEntryDto> findChanges(long since, Collection<String> types, int size) {
+    StringBuilder sql = new StringBuilder(SELECT_CHANGES);
+    boolean filterTypes = null != types && !types.isEmpty();
+    if (filterTypes) {
+      sql.append(" AND type IN (:types)");
+    }
+    sql.append(" ORDER BY seq LIMIT :size");
+
+    Query query = entityManager.createNativeQuery(sql.toString())
+        .setParameter("since", since)
+        .setParameter("size", size);
+    if (filterTypes) {
+      query.setParameter("types", types);
+    }
+
+    List<Object[]> rows = query.getResultList();
+    return rows.stream()
+        .map(ChangeLogRepository::toChange)
+        .collect(Collectors.toList());
+  }
+
+  private static ChangeLogEntryDto toChange(Object[] row) {
+    return new ChangeLogEntryDto(((Number) row[0]).longValue(), (String) row[1],
+        UUID.fromString((String) row[2]), (Boolean) row[3],
+        ZonedDateTime.ofInstant(((Timestamp) row[4]).toInstant(), ZoneOffset.UTC));
+  }
+}
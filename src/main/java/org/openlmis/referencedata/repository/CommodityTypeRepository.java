@@ -16,9 +16,16 @@
 package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.CommodityType;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface CommodityTypeRepository extends CrudRepository<CommodityType, UUID> {
+
+  @Query("SELECT DISTINCT c FROM CommodityType c LEFT JOIN FETCH c.tradeItems WHERE c.id IN :ids")
+  List<CommodityType> findAllWithTradeItems(@Param("ids") Collection<UUID> ids);
 }
@@ -15,12 +15,21 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import org.openlmis.referencedata.domain.FacilityOperator;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface FacilityOperatorRepository
     extends PagingAndSortingRepository<FacilityOperator, UUID> {
     //Add custom FacilityOperator related members here. See UserRepository.java for examples.
+
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<FacilityOperator> findAll();
 }
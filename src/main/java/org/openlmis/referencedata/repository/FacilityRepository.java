@@ -17,12 +17,17 @@ package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.repository.custom.FacilityRepositoryCustom;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
-import org.javers.spring.annotation.JaversSpringDataAuditable;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.Set;
 import java.util.UUID;
 
-@JaversSpringDataAuditable
+@Audited
 public interface FacilityRepository
     extends PagingAndSortingRepository<Facility, UUID>, FacilityRepositoryCustom {
 
@@ -33,4 +38,15 @@ public interface FacilityRepository
   <S extends Facility> Iterable<S> save(Iterable<S> entities);
   
   Facility findFirstByCode(String code);
+
+  @Query("SELECT f.id FROM Facility f WHERE f.id IN :ids")
+  Set<UUID> findExistingIds(@Param("ids") Collection<UUID> ids);
+
+  @Query(value = "SELECT f FROM Facility f WHERE f IN ("
+      + " SELECT m FROM RequisitionGroup rg JOIN rg.memberFacilities m"
+      + " WHERE rg.id = :requisitionGroupId)",
+      countQuery = "SELECT COUNT(m) FROM RequisitionGroup rg JOIN rg.memberFacilities m"
+      + " WHERE rg.id = :requisitionGroupId")
+  Page<Facility> findMemberFacilities(@Param("requisitionGroupId") UUID requisitionGroupId,
+                                      Pageable pageable);
 }
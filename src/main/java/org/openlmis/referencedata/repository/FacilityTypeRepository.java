@@ -15,11 +15,16 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import org.openlmis.referencedata.domain.FacilityType;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface FacilityTypeRepository extends PagingAndSortingRepository<FacilityType, UUID> {
 
   @Override
@@ -27,4 +32,8 @@ public interface FacilityTypeRepository extends PagingAndSortingRepository<Facil
 
   @Override
   <S extends FacilityType> Iterable<S> save(Iterable<S> entities);
+
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<FacilityType> findAll();
 }
@@ -0,0 +1,46 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.repository;
+
+import org.openlmis.referencedata.domain.FlatApprovedProduct;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+
+public interface FlatApprovedProductRepository
+    extends PagingAndSortingRepository<FlatApprovedProduct, UUID> {
+
+  @Query("SELECT p FROM FlatApprovedProduct p"
+      + " WHERE p.facilityTypeId = :facilityTypeId"
+      + " AND p.fullSupply = :fullSupply"
+      + " AND p.active = true"
+      + " ORDER BY p.categoryDisplayOrder, p.categoryDisplayName, p.orderableCode")
+  List<FlatApprovedProduct> searchProducts(@Param("facilityTypeId") UUID facilityTypeId,
+                                           @Param("fullSupply") boolean fullSupply);
+
+  @Query("SELECT p FROM FlatApprovedProduct p"
+      + " WHERE p.facilityTypeId = :facilityTypeId"
+      + " AND p.programId = :programId"
+      + " AND p.fullSupply = :fullSupply"
+      + " AND p.active = true"
+      + " ORDER BY p.categoryDisplayOrder, p.categoryDisplayName, p.orderableCode")
+  List<FlatApprovedProduct> searchProducts(@Param("facilityTypeId") UUID facilityTypeId,
+                                           @Param("programId") UUID programId,
+                                           @Param("fullSupply") boolean fullSupply);
+}
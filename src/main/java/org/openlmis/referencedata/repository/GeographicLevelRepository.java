@@ -15,11 +15,16 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import org.openlmis.referencedata.domain.GeographicLevel;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface GeographicLevelRepository extends
     PagingAndSortingRepository<GeographicLevel, UUID> {
 
@@ -28,4 +33,8 @@ public interface GeographicLevelRepository extends
 
   @Override
   <S extends GeographicLevel> Iterable<S> save(Iterable<S> entities);
+
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<GeographicLevel> findAll();
 }
@@ -15,14 +15,19 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import org.openlmis.referencedata.domain.GeographicLevel;
 import org.openlmis.referencedata.domain.GeographicZone;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface GeographicZoneRepository extends
     PagingAndSortingRepository<GeographicZone, UUID> {
 
@@ -34,4 +39,8 @@ public interface GeographicZoneRepository extends
 
   Page<GeographicZone> findByParentAndLevel(
       GeographicZone parent, GeographicLevel level, Pageable pageable);
+
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<GeographicZone> findAll();
 }
@@ -15,14 +15,31 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.OrderableDisplayCategory;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface OrderableDisplayCategoryRepository extends
         PagingAndSortingRepository<OrderableDisplayCategory, UUID> {
 
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
   OrderableDisplayCategory findByCode(Code code);
+
+  @Query("SELECT c FROM OrderableDisplayCategory c WHERE c.code.code IN :codes")
+  List<OrderableDisplayCategory> findAllByCodes(@Param("codes") Collection<String> codes);
+
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<OrderableDisplayCategory> findAll();
 }
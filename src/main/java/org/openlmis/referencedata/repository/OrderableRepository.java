@@ -17,15 +17,20 @@ package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.repository.custom.OrderableRepositoryCustom;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Persistence repository for saving/finding {@link Orderable}.
  */
 public interface OrderableRepository extends
-    PagingAndSortingRepository<Orderable, UUID> {
+    PagingAndSortingRepository<Orderable, UUID>, OrderableRepositoryCustom {
 
   @Override
   <S extends Orderable> S save(S entity);
@@ -35,4 +40,14 @@ public interface OrderableRepository extends
 
   <S extends Orderable> S findByProductCode(Code code);
 
+  @Query("SELECT o FROM Orderable o WHERE o.productCode.code IN :codes")
+  List<Orderable> findAllByProductCodes(@Param("codes") Collection<String> codes);
+
+  @Query("SELECT o.id, o.packSize, o.packRoundingThreshold, o.roundToZero FROM Orderable o")
+  List<Object[]> findAllPackParameters();
+
+  @Query("SELECT o.id, o.packSize, o.packRoundingThreshold, o.roundToZero FROM Orderable o"
+      + " WHERE o.id IN :ids")
+  List<Object[]> findPackParameters(@Param("ids") Collection<UUID> ids);
+
 }
@@ -16,9 +16,14 @@
 package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.ProcessingPeriod;
+import org.openlmis.referencedata.domain.ProcessingSchedule;
 import org.openlmis.referencedata.repository.custom.ProcessingPeriodRepositoryCustom;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDate;
+import java.util.List;
 import java.util.UUID;
 
 public interface ProcessingPeriodRepository extends
@@ -26,4 +31,16 @@ public interface ProcessingPeriodRepository extends
     ProcessingPeriodRepositoryCustom {
 
   ProcessingPeriod findFirst1ByOrderByEndDateDesc();
+
+  ProcessingPeriod findFirstByProcessingScheduleOrderByStartDateDesc(
+      ProcessingSchedule processingSchedule);
+
+  @Query("SELECT p FROM ProcessingPeriod p"
+      + " WHERE p.processingSchedule = :processingSchedule"
+      + " AND p.startDate <= :toDate"
+      + " AND p.endDate >= :fromDate"
+      + " ORDER BY p.startDate")
+  List<ProcessingPeriod> findOverlappingPeriods(
+      @Param("processingSchedule") ProcessingSchedule processingSchedule,
+      @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
 }
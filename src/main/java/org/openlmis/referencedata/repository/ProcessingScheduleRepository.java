@@ -15,12 +15,20 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import org.openlmis.referencedata.domain.ProcessingSchedule;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface ProcessingScheduleRepository
       extends PagingAndSortingRepository<ProcessingSchedule, UUID> {
 
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<ProcessingSchedule> findAll();
 }
@@ -15,13 +15,22 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.repository.custom.ProgramRepositoryCustom;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface ProgramRepository
     extends PagingAndSortingRepository<Program, UUID>, ProgramRepositoryCustom {
   // Add custom Program related members here. See UserRepository.java for examples.
@@ -32,5 +41,13 @@ public interface ProgramRepository
   @Override
   <S extends Program> Iterable<S> save(Iterable<S> entities);
 
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
   <S extends Program> S findByCode(Code code);
+
+  @Query("SELECT p FROM Program p WHERE p.code.code IN :codes")
+  List<Program> findAllByCodes(@Param("codes") Collection<String> codes);
+
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<Program> findAll();
 }
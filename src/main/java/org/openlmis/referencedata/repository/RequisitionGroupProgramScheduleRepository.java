@@ -16,12 +16,37 @@
 package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
-import org.openlmis.referencedata.repository.custom.RequisitionGroupProgramScheduleRepositoryCustom;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
 public interface RequisitionGroupProgramScheduleRepository extends
-      PagingAndSortingRepository<RequisitionGroupProgramSchedule, UUID>,
-      RequisitionGroupProgramScheduleRepositoryCustom {
+      PagingAndSortingRepository<RequisitionGroupProgramSchedule, UUID> {
+
+  String SELECT_RESOLUTIONS = "SELECT s.id, s.program.id, f.id, s.processingSchedule.id, g.id,"
+      + " g.supervisoryNode.id, d.id"
+      + " FROM RequisitionGroupProgramSchedule s"
+      + " JOIN s.requisitionGroup g"
+      + " JOIN g.memberFacilities f"
+      + " LEFT JOIN s.dropOffFacility d";
+
+  @Query(SELECT_RESOLUTIONS)
+  List<Object[]> findAllResolutions();
+
+  @Query(SELECT_RESOLUTIONS + " WHERE g.id IN :requisitionGroupIds")
+  List<Object[]> findResolutions(
+      @Param("requisitionGroupIds") Collection<UUID> requisitionGroupIds);
+
+  @Query("SELECT f.id, s.processingSchedule.id"
+      + " FROM RequisitionGroupProgramSchedule s"
+      + " JOIN s.requisitionGroup g"
+      + " JOIN g.memberFacilities f"
+      + " WHERE s.program.id = :programId"
+      + " AND f.id IN :facilityIds")
+  List<Object[]> findProcessingScheduleIds(@Param("programId") UUID programId,
+                                           @Param("facilityIds") Collection<UUID> facilityIds);
 }
@@ -16,12 +16,14 @@
 package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.RequisitionGroup;
+import org.openlmis.referencedata.repository.custom.RequisitionGroupRepositoryCustom;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
 public interface RequisitionGroupRepository
-    extends PagingAndSortingRepository<RequisitionGroup, UUID> {
+    extends PagingAndSortingRepository<RequisitionGroup, UUID>,
+    RequisitionGroupRepositoryCustom {
 
   <S extends RequisitionGroup> S findByCode(String code);
 
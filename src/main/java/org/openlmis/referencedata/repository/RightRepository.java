@@ -15,12 +15,22 @@
 
 package org.openlmis.referencedata.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+
 import org.openlmis.referencedata.domain.Right;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
+import javax.persistence.QueryHint;
+
 public interface RightRepository extends PagingAndSortingRepository<Right, UUID> {
 
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
   Right findFirstByName(String name);
+
+  @Override
+  @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+  Iterable<Right> findAll();
 }
@@ -16,12 +16,14 @@
 package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.SupervisoryNode;
+import org.openlmis.referencedata.repository.custom.SupervisoryNodeRepositoryCustom;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
 import java.util.UUID;
 
 public interface SupervisoryNodeRepository
-    extends PagingAndSortingRepository<SupervisoryNode, UUID> {
+    extends PagingAndSortingRepository<SupervisoryNode, UUID>,
+    SupervisoryNodeRepositoryCustom {
 
   <S extends SupervisoryNode> S findByCode(String code);
 }
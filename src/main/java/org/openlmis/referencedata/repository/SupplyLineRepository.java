@@ -17,11 +17,17 @@ package org.openlmis.referencedata.repository;
 
 import org.openlmis.referencedata.domain.SupplyLine;
 import org.openlmis.referencedata.repository.custom.SupplyLineRepositoryCustom;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 
+import java.util.List;
 import java.util.UUID;
 
 public interface SupplyLineRepository extends
         PagingAndSortingRepository<SupplyLine, UUID>,
     SupplyLineRepositoryCustom {
+
+  @Query("SELECT s.id, s.program.id, s.supervisoryNode.id, s.supplyingFacility.id, s.description"
+      + " FROM SupplyLine s")
+  List<Object[]> findAllRoutes();
 }
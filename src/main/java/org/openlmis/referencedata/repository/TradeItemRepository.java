@@ -30,4 +30,7 @@ public interface TradeItemRepository extends CrudRepository<TradeItem, UUID>,
 
   @Query("SELECT p FROM TradeItem p WHERE p.commodityType = :commodityType")
   List<TradeItem> findForCommodityType(@Param("commodityType") CommodityType product);
+
+  @Query("SELECT p.id FROM TradeItem p WHERE p.commodityType.id = :commodityTypeId")
+  List<UUID> findIdsForCommodityType(@Param("commodityTypeId") UUID commodityTypeId);
 }
@@ -19,9 +19,14 @@ import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public interface ProcessingPeriodRepositoryCustom {
 
   List<ProcessingPeriod> searchPeriods(ProcessingSchedule processingSchedule, LocalDate toDate);
+
+  List<ProcessingPeriod> searchPeriodsBySchedules(Collection<UUID> processingScheduleIds,
+                                                  LocalDate toDate);
 }
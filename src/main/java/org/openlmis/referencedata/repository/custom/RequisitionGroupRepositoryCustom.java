@@ -15,13 +15,13 @@
 
 package org.openlmis.referencedata.repository.custom;
 
-
 import org.openlmis.referencedata.domain.Facility;
-import org.openlmis.referencedata.domain.Program;
-import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
+import org.openlmis.referencedata.domain.RequisitionGroup;
+
+public interface RequisitionGroupRepositoryCustom {
+
+  int addMemberFacility(RequisitionGroup requisitionGroup, Facility facility);
 
-public interface RequisitionGroupProgramScheduleRepositoryCustom {
+  int removeMemberFacility(RequisitionGroup requisitionGroup, Facility facility);
 
-  RequisitionGroupProgramSchedule searchRequisitionGroupProgramSchedule(Program program,
-                                                                        Facility facility);
 }
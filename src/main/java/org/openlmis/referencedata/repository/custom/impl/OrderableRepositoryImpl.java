@@ -0,0 +1,136 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.repository.custom.impl;
+
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.domain.ProgramOrderable;
+import org.openlmis.referencedata.repository.custom.OrderableRepositoryCustom;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+public class OrderableRepositoryImpl implements OrderableRepositoryCustom {
+
+  private static final String PRODUCT_CODE = "productCode";
+  private static final String CODE = "code";
+  private static final String NAME = "name";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Method returns a page of orderables matching all the given parameters. Null parameters are
+   * not used for filtering. Results are ordered by the sort of the given pageable or, if it is
+   * unsorted, by product code.
+   *
+   * @param codePrefix case-insensitive prefix of the product code.
+   * @param name       case-insensitive part of the orderable name.
+   * @param programId  ID of a program the orderable has to be in.
+   * @param type       subtype of orderable to return, e.g. TradeItem.
+   * @param pageable   page to return.
+   * @return page of matching orderables
+   */
+  @Override
+  public Page<Orderable> search(String codePrefix, String name, UUID programId,
+                                Class<? extends Orderable> type, Pageable pageable) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    Class<? extends Orderable> entityType = null == type ? Orderable.class : type;
+
+    CriteriaQuery<Long> countQuery = builder.createQuery(Long.class);
+    Root<? extends Orderable> countRoot = countQuery.from(entityType);
+    countQuery.select(builder.count(countRoot));
+    countQuery.where(getPredicate(builder, countQuery, countRoot, codePrefix, name, programId));
+    Long total = entityManager.createQuery(countQuery).getSingleResult();
+
+    if (total == 0 || pageable.getOffset() >= total) {
+      return new PageImpl<>(new ArrayList<>(), pageable, total);
+    }
+
+    CriteriaQuery<Orderable> query = builder.createQuery(Orderable.class);
+    Root<? extends Orderable> root = query.from(entityType);
+    query.select(root);
+    query.where(getPredicate(builder, query, root, codePrefix, name, programId));
+
+    List<Order> orders = new ArrayList<>();
+    if (null != pageable.getSort()) {
+      orders.addAll(QueryUtils.toOrders(pageable.getSort(), root, builder));
+    } else {
+      orders.add(builder.asc(root.get(PRODUCT_CODE).get(CODE)));
+    }
+    orders.add(builder.asc(root.get("id")));
+    query.orderBy(orders);
+
+    List<Orderable> content = entityManager.createQuery(query)
+        .setFirstResult(pageable.getOffset())
+        .setMaxResults(pageable.getPageSize())
+        .getResultList();
+
+    return new PageImpl<>(content, pageable, total);
+  }
+
+  private Predicate getPredicate(CriteriaBuilder builder, CriteriaQuery<?> query,
+                                 Root<? extends Orderable> root, String codePrefix,
+                                 String name, UUID programId) {
+    Predicate predicate = builder.conjunction();
+
+    if (null != codePrefix) {
+      predicate = builder.and(predicate, builder.like(
+          builder.lower(root.get(PRODUCT_CODE).<String>get(CODE)),
+          escape(codePrefix) + "%", '\\'));
+    }
+
+    if (null != name) {
+      predicate = builder.and(predicate, builder.like(
+          builder.lower(root.<String>get(NAME)),
+          "%" + escape(name) + "%", '\\'));
+    }
+
+    if (null != programId) {
+      Subquery<ProgramOrderable> programs = query.subquery(ProgramOrderable.class);
+      Root<ProgramOrderable> programOrderable = programs.from(ProgramOrderable.class);
+      programs.select(programOrderable);
+      programs.where(
+          builder.equal(programOrderable.get("product"), root),
+          builder.equal(programOrderable.get("program").get("id"), programId));
+      predicate = builder.and(predicate, builder.exists(programs));
+    }
+
+    return predicate;
+  }
+
+  private String escape(String value) {
+    return value
+        .toLowerCase(Locale.ENGLISH)
+        .replace("\\", "\\\\")
+        .replace("%", "\\%")
+        .replace("_", "\\_");
+  }
+}
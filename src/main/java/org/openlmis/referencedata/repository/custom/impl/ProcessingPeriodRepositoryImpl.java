@@ -26,7 +26,9 @@ import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 public class ProcessingPeriodRepositoryImpl implements ProcessingPeriodRepositoryCustom {
 
@@ -62,4 +64,28 @@ public class ProcessingPeriodRepositoryImpl implements ProcessingPeriodRepositor
 
     return entityManager.createQuery(query).getResultList();
   }
+
+  /**
+   * Finds Periods of any of the given schedules, ordered by their start date.
+   * @param processingScheduleIds UUIDs of processingSchedules of searched Periods.
+   * @param toDate to which day shall Period start.
+   * @return list of all Periods matching all of provided parameters.
+   */
+  public List<ProcessingPeriod> searchPeriodsBySchedules(
+      Collection<UUID> processingScheduleIds, LocalDate toDate) {
+    CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+    CriteriaQuery<ProcessingPeriod> query = builder.createQuery(ProcessingPeriod.class);
+    Root<ProcessingPeriod> root = query.from(ProcessingPeriod.class);
+    Predicate predicate = root.get("processingSchedule").get("id").in(processingScheduleIds);
+    if (toDate != null) {
+      predicate = builder.and(
+              predicate,
+              builder.lessThanOrEqualTo(
+                      root.get("startDate"), toDate));
+    }
+    query.where(predicate);
+    query.orderBy(builder.asc(root.get("startDate")));
+
+    return entityManager.createQuery(query).getResultList();
+  }
 }
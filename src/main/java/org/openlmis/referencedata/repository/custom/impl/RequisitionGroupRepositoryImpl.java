@@ -0,0 +1,80 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.repository.custom.impl;
+
+import org.hibernate.SQLQuery;
+import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.domain.RequisitionGroup;
+import org.openlmis.referencedata.repository.custom.RequisitionGroupRepositoryCustom;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+public class RequisitionGroupRepositoryImpl implements RequisitionGroupRepositoryCustom {
+
+  private static final String MEMBERS_TABLE = "requisition_group_members";
+
+  private static final String INSERT_MEMBER = "INSERT INTO referencedata.requisition_group_members"
+      + " (requisitiongroupid, facilityid)"
+      + " SELECT :requisitionGroup, :facility"
+      + " WHERE NOT EXISTS ("
+      + "   SELECT 1 FROM referencedata.requisition_group_members m"
+      + "   WHERE m.requisitiongroupid = :requisitionGroup AND m.facilityid = :facility)";
+
+  private static final String DELETE_MEMBER = "DELETE FROM referencedata.requisition_group_members"
+      + " WHERE requisitiongroupid = :requisitionGroup AND facilityid = :facility";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Adds the facility to the members of the requisition group, unless it is a member already.
+   *
+   * @param requisitionGroup requisition group to add the member to.
+   * @param facility         facility to add.
+   * @return number of added members, 0 if the facility was a member already.
+   */
+  @Override
+  @Transactional
+  public int addMemberFacility(RequisitionGroup requisitionGroup, Facility facility) {
+    return executeUpdate(INSERT_MEMBER, requisitionGroup, facility);
+  }
+
+  /**
+   * Removes the facility from the members of the requisition group.
+   *
+   * @param requisitionGroup requisition group to remove the member from.
+   * @param facility         facility to remove.
+   * @return number of removed members, 0 if the facility was not a member.
+   */
+  @Override
+  @Transactional
+  public int removeMemberFacility(RequisitionGroup requisitionGroup, Facility facility) {
+    return executeUpdate(DELETE_MEMBER, requisitionGroup, facility);
+  }
+
+  private int executeUpdate(String sql, RequisitionGroup requisitionGroup, Facility facility) {
+    // without a declared query space Hibernate would evict the whole second-level cache
+    return entityManager
+        .createNativeQuery(sql)
+        .setParameter("requisitionGroup", requisitionGroup.getId())
+        .setParameter("facility", facility.getId())
+        .unwrap(SQLQuery.class)
+        .addSynchronizedQuerySpace(MEMBERS_TABLE)
+        .executeUpdate();
+  }
+}
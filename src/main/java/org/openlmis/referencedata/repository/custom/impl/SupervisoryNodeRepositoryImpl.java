@@ -0,0 +1,90 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.repository.custom.impl;
+
+import org.openlmis.referencedata.dto.SupervisoryNodeTreeItemDto;
+import org.openlmis.referencedata.repository.custom.SupervisoryNodeRepositoryCustom;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+
+public class SupervisoryNodeRepositoryImpl implements SupervisoryNodeRepositoryCustom {
+
+  private static final String ROOT_BY_ID = "sn.id = CAST(:rootId AS uuid)";
+  private static final String ROOT_WITHOUT_PARENT = "sn.parentid IS NULL";
+
+  // ids are selected as text, so that the result does not depend on the dialect uuid mapping;
+  // nothing keeps two requisition groups from pointing at one node, so only the first is joined
+  private static final String TREE_QUERY = "WITH RECURSIVE tree AS ("
+      + " SELECT sn.id, sn.code, sn.name, sn.parentid, sn.facilityid, 0 AS depth,"
+      + "   ARRAY[sn.id] AS path"
+      + " FROM referencedata.supervisory_nodes sn"
+      + " WHERE %s"
+      + " UNION ALL"
+      + " SELECT c.id, c.code, c.name, c.parentid, c.facilityid, t.depth + 1,"
+      + "   t.path || c.id"
+      + " FROM referencedata.supervisory_nodes c"
+      + "   JOIN tree t ON c.parentid = t.id"
+      + " WHERE t.depth < :maxDepth AND NOT c.id = ANY(t.path))"
+      + " SELECT CAST(t.id AS text), t.code, t.name, CAST(t.parentid AS text),"
+      + "   CAST(t.facilityid AS text), CAST(rg.id AS text), t.depth"
+      + " FROM tree t"
+      + "   LEFT JOIN LATERAL (SELECT g.id FROM referencedata.requisition_groups g"
+      + "     WHERE g.supervisorynodeid = t.id ORDER BY g.code LIMIT 1) rg ON true"
+      + " ORDER BY t.depth, t.code";
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Returns the supervisory node hierarchy as a flat list, read with one recursive query. Parents
+   * are always listed before their child nodes.
+   *
+   * @param rootId   id of the node to start from, or null to start from all top level nodes.
+   * @param maxDepth the number of levels below the root nodes to include, or null for all.
+   * @return the nodes of the tree ordered by depth and code.
+   */
+  @Override
+  public List<SupervisoryNodeTreeItemDto> findTree(UUID rootId, Integer maxDepth) {
+    Query query = entityManager.createNativeQuery(
+        String.format(TREE_QUERY, null == rootId ? ROOT_WITHOUT_PARENT : ROOT_BY_ID));
+
+    if (null != rootId) {
+      query.setParameter("rootId", rootId.toString());
+    }
+    query.setParameter("maxDepth", null == maxDepth ? Integer.MAX_VALUE : maxDepth);
+
+    @SuppressWarnings("unchecked")
+    List<Object[]> rows = query.getResultList();
+    List<SupervisoryNodeTreeItemDto> tree = new ArrayList<>(rows.size());
+
+    for (Object[] row : rows) {
+      tree.add(new SupervisoryNodeTreeItemDto(uuid(row[0]), (String) row[1], (String) row[2],
+          uuid(row[3]), uuid(row[4]), uuid(row[5]), ((Number) row[6]).intValue()));
+    }
+
+    return tree;
+  }
+
+  private static UUID uuid(Object value) {
+    return null == value ? null : UUID.fromString(value.toString());
+  }
+}
@@ -0,0 +1,259 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import org.javers.core.Javers;
+import org.javers.repository.jql.InstanceIdDTO;
+import org.javers.repository.jql.QueryBuilder;
+import org.javers.spring.auditable.AuthorProvider;
+import org.openlmis.referencedata.domain.AuditLogOutboxEntry;
+import org.openlmis.referencedata.domain.BaseEntity;
+import org.openlmis.referencedata.repository.AuditLogOutboxEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ClassUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Records saved and deleted domain objects of {@link org.openlmis.referencedata.repository.Audited}
+ * repositories in the JaVers audit log. By default snapshots are committed right away, in the
+ * transaction of the change. With {@code audit.async=true} only the ids of changed objects are
+ * written to an outbox table in that transaction, and snapshots are committed later, in batches,
+ * by {@link #processOutbox(int)}. A snapshot committed from the outbox holds the state of the
+ * object at the time the batch is processed, so several changes made in between are recorded as
+ * one.
+ */
+@Service
+public class AuditLogService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuditLogService.class);
+
+  @Autowired
+  private Javers javers;
+
+  @Autowired
+  private AuthorProvider authorProvider;
+
+  @Autowired
+  private AuditLogOutboxEntryRepository outboxRepository;
+
+  @Autowired
+  private ApplicationContext applicationContext;
+
+  @Autowired
+  private PlatformTransactionManager transactionManager;
+
+  @Value("${audit.async:false}")
+  private boolean async;
+
+  /**
+   * Records the given saved domain objects.
+   *
+   * @param entities saved domain objects
+   */
+  public void onSaved(Iterable<?> entities) {
+    String author = authorProvider.provide();
+
+    if (async) {
+      List<AuditLogOutboxEntry> entries = new ArrayList<>();
+      for (Object entity : entities) {
+        entries.add(new AuditLogOutboxEntry(ClassUtils.getUserClass(entity),
+            ((BaseEntity) entity).getId(), author, false));
+      }
+      outboxRepository.save(entries);
+    } else {
+      for (Object entity : entities) {
+        javers.commit(author, entity);
+      }
+    }
+  }
+
+  /**
+   * Records the given deleted domain objects.
+   *
+   * @param domainType     type of deleted domain objects
+   * @param entitiesOrIds  deleted domain objects or their ids
+   */
+  public void onDeleted(Class<?> domainType, Iterable<?> entitiesOrIds) {
+    String author = authorProvider.provide();
+
+    if (async) {
+      List<AuditLogOutboxEntry> entries = new ArrayList<>();
+      for (Object entityOrId : entitiesOrIds) {
+        entries.add(new AuditLogOutboxEntry(domainType, getId(entityOrId), author, true));
+      }
+      outboxRepository.save(entries);
+    } else {
+      for (Object entityOrId : entitiesOrIds) {
+        if (entityOrId instanceof BaseEntity) {
+          javers.commitShallowDelete(author, entityOrId);
+        } else {
+          javers.commitShallowDeleteById(author,
+              InstanceIdDTO.instanceId(entityOrId, domainType));
+        }
+      }
+    }
+  }
+
+  /**
+   * Commits snapshots of the oldest outbox entries and removes those entries. Only the latest
+   * entry of each object counts. Saved domain objects are loaded with one query per type; objects
+   * whose latest entry is a delete are not loaded. An object that was deleted or no longer exists
+   * is recorded as deleted, provided it has been audited before.
+   *
+   * <p>The outbox is drained by one instance at a time, so JaVers never commits snapshots of an
+   * object from two transactions at once. If the batch fails, its objects are retried one by one,
+   * each in its own transaction, and entries of objects that still fail are marked as failed and
+   * skipped from then on.
+   *
+   * @param batchSize maximum number of processed entries
+   * @return number of processed entries, including failed ones, or 0 if another instance is
+   *         draining the outbox
+   */
+  public int processOutbox(int batchSize) {
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+    try {
+      return transaction.execute(status -> {
+        if (!outboxRepository.tryLockOutbox()) {
+          return 0;
+        }
+        List<AuditLogOutboxEntry> entries = outboxRepository.lockOldestEntries(batchSize);
+        commitEntries(entries);
+        return entries.size();
+      });
+    } catch (RuntimeException ex) {
+      LOGGER.warn("Could not commit audit log snapshots of an outbox batch,"
+          + " retrying its objects one by one", ex);
+      return processOutboxByObject(transaction, batchSize);
+    }
+  }
+
+  private int processOutboxByObject(TransactionTemplate transaction, int batchSize) {
+    Collection<List<UUID>> entryIdsByObject = transaction.execute(status -> {
+      if (!outboxRepository.tryLockOutbox()) {
+        return Collections.<List<UUID>>emptyList();
+      }
+      Map<String, List<UUID>> entryIds = new LinkedHashMap<>();
+      for (AuditLogOutboxEntry entry : outboxRepository.lockOldestEntries(batchSize)) {
+        entryIds
+            .computeIfAbsent(entry.getEntityType() + '/' + entry.getEntityId(),
+                key -> new ArrayList<>())
+            .add(entry.getId());
+      }
+      return entryIds.values();
+    });
+
+    int processed = 0;
+    for (List<UUID> ids : entryIdsByObject) {
+      try {
+        processed += transaction.execute(status -> {
+          if (!outboxRepository.tryLockOutbox()) {
+            return 0;
+          }
+          List<AuditLogOutboxEntry> entries = new ArrayList<>();
+          outboxRepository.findAll(ids).forEach(entries::add);
+          entries.sort(Comparator.comparing(AuditLogOutboxEntry::getCreatedDate));
+          commitEntries(entries);
+          return entries.size();
+        });
+      } catch (RuntimeException ex) {
+        LOGGER.error("Could not commit audit log snapshots of outbox entries {},"
+            + " marking them as failed", ids, ex);
+        processed += transaction.execute(status -> outboxRepository.markFailed(ids));
+      }
+    }
+
+    return processed;
+  }
+
+  private void commitEntries(List<AuditLogOutboxEntry> entries) {
+    if (entries.isEmpty()) {
+      return;
+    }
+
+    // entries are ordered from the oldest, so the latest entry of each object is kept
+    Map<String, Map<UUID, AuditLogOutboxEntry>> latestByType = new LinkedHashMap<>();
+    for (AuditLogOutboxEntry entry : entries) {
+      latestByType
+          .computeIfAbsent(entry.getEntityType(), type -> new LinkedHashMap<>())
+          .put(entry.getEntityId(), entry);
+    }
+
+    Repositories repositories = new Repositories(applicationContext);
+    latestByType.forEach((typeName, latest) -> commitSnapshots(
+        repositories, ClassUtils.resolveClassName(typeName, null), latest));
+
+    outboxRepository.delete(entries);
+    LOGGER.debug("Committed audit log snapshots of {} outbox entries", entries.size());
+  }
+
+  private void commitSnapshots(Repositories repositories, Class<?> domainType,
+                               Map<UUID, AuditLogOutboxEntry> latest) {
+    Set<UUID> savedIds = new HashSet<>();
+    Set<UUID> deletedIds = new HashSet<>();
+    latest.forEach((id, entry) -> (entry.isDeleted() ? deletedIds : savedIds).add(id));
+
+    if (!savedIds.isEmpty()) {
+      @SuppressWarnings("unchecked")
+      CrudRepository<?, UUID> repository =
+          (CrudRepository<?, UUID>) repositories.getRepositoryFor(domainType);
+
+      Set<UUID> missingIds = new HashSet<>(savedIds);
+      for (Object entity : repository.findAll(savedIds)) {
+        UUID id = ((BaseEntity) entity).getId();
+        missingIds.remove(id);
+        javers.commit(latest.get(id).getAuthor(), entity);
+      }
+      deletedIds.addAll(missingIds);
+    }
+
+    for (UUID id : deletedIds) {
+      boolean audited = !javers
+          .findSnapshots(QueryBuilder.byInstanceId(id, domainType).limit(1).build())
+          .isEmpty();
+
+      if (audited) {
+        javers.commitShallowDeleteById(latest.get(id).getAuthor(),
+            InstanceIdDTO.instanceId(id, domainType));
+      }
+    }
+  }
+
+  private static UUID getId(Object entityOrId) {
+    return entityOrId instanceof BaseEntity
+        ? ((BaseEntity) entityOrId).getId()
+        : (UUID) entityOrId;
+  }
+}
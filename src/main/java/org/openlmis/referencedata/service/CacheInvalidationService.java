@@ -0,0 +1,162 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Evicts cached data changed by any instance of the service. Changes are announced by database
+ * triggers on the {@value #CHANNEL} channel, with the name of the changed table and, for most
+ * tables, the id of the changed object as payload. Second-level cache regions are matched to
+ * tables through the Hibernate mapping, the in-memory indexes of services are matched by name.
+ */
+@Service
+public class CacheInvalidationService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+  public static final String CHANNEL = "referencedata_cache_invalidation";
+
+  static final String ORDERABLES = "orderables";
+  static final String SUPPLY_LINES = "supply_lines";
+  static final String REQUISITION_GROUPS = "requisition_groups";
+  static final String REQUISITION_GROUP_MEMBERS = "requisition_group_members";
+  static final String REQUISITION_GROUP_PROGRAM_SCHEDULES =
+      "requisition_group_program_schedules";
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  @Autowired
+  private SupplyLineService supplyLineService;
+
+  @Autowired
+  private PackCalculationService packCalculationService;
+
+  @Autowired
+  private RequisitionGroupProgramScheduleService requisitionGroupProgramScheduleService;
+
+  private Cache cache;
+
+  private final Map<String, String> entityNamesByTable = new HashMap<>();
+
+  private final Map<String, String> collectionRolesByTable = new HashMap<>();
+
+  /**
+   * Finds the tables of all cached entities and collections.
+   */
+  @PostConstruct
+  public void init() {
+    SessionFactoryImplementor sessionFactory = entityManagerFactory
+        .unwrap(SessionFactoryImplementor.class);
+    cache = sessionFactory.getCache();
+
+    sessionFactory.getEntityPersisters().forEach((entityName, persister) -> {
+      if (persister.hasCache() && persister instanceof AbstractEntityPersister) {
+        entityNamesByTable.put(
+            unqualified(((AbstractEntityPersister) persister).getTableName()), entityName);
+      }
+    });
+
+    sessionFactory.getCollectionPersisters().forEach((role, persister) -> {
+      if (persister.hasCache() && persister instanceof AbstractCollectionPersister) {
+        collectionRolesByTable.put(
+            unqualified(((AbstractCollectionPersister) persister).getTableName()), role);
+      }
+    });
+  }
+
+  /**
+   * Evicts data of the table and object named in the given notification payload.
+   *
+   * @param payload name of the changed table, optionally followed by a comma and the id of the
+   *                changed object.
+   */
+  public void invalidate(String payload) {
+    int separator = payload.indexOf(',');
+    String table = separator < 0 ? payload : payload.substring(0, separator);
+    UUID id = separator < 0 ? null : UUID.fromString(payload.substring(separator + 1));
+
+    String entityName = entityNamesByTable.get(table);
+    if (null != entityName) {
+      if (null == id) {
+        cache.evictEntityRegion(entityName);
+      } else {
+        cache.evictEntity(entityName, id);
+      }
+      cache.evictDefaultQueryRegion();
+    }
+
+    String collectionRole = collectionRolesByTable.get(table);
+    if (null != collectionRole) {
+      if (null == id) {
+        cache.evictCollectionRegion(collectionRole);
+      } else {
+        cache.evictCollection(collectionRole, id);
+      }
+    }
+
+    switch (table) {
+      case ORDERABLES:
+        packCalculationService.invalidate();
+        break;
+      case SUPPLY_LINES:
+        supplyLineService.invalidate();
+        break;
+      case REQUISITION_GROUPS:
+      case REQUISITION_GROUP_MEMBERS:
+      case REQUISITION_GROUP_PROGRAM_SCHEDULES:
+        if (null == id) {
+          requisitionGroupProgramScheduleService.invalidateAll();
+        } else {
+          requisitionGroupProgramScheduleService.invalidate(id);
+        }
+        break;
+      default:
+        break;
+    }
+
+    LOGGER.debug("Invalidated cached data of {}", payload);
+  }
+
+  /**
+   * Evicts all cached data, for when notifications may have been missed.
+   */
+  public void invalidateAll() {
+    cache.evictAllRegions();
+    packCalculationService.invalidate();
+    supplyLineService.invalidate();
+    requisitionGroupProgramScheduleService.invalidateAll();
+  }
+
+  private static String unqualified(String tableName) {
+    return tableName.substring(tableName.lastIndexOf('.') + 1);
+  }
+}
@@ -0,0 +1,76 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.openlmis.referencedata.dto.CacheRegionStatisticsDto;
+import org.openlmis.referencedata.dto.CacheStatisticsDto;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Reads hit and miss counts of the Hibernate second-level and query caches. Counts are only
+ * collected with {@code hibernate.generate_statistics=true}.
+ */
+@Service
+public class CacheStatisticsService {
+
+  @Autowired
+  private EntityManagerFactory entityManagerFactory;
+
+  /**
+   * Returns hit ratios of the caches as a whole and of every second-level cache region.
+   *
+   * @return current cache statistics, regions ordered by name.
+   */
+  public CacheStatisticsDto getStatistics() {
+    Statistics statistics = entityManagerFactory
+        .unwrap(SessionFactory.class)
+        .getStatistics();
+
+    String[] regionNames = statistics.getSecondLevelCacheRegionNames();
+    Arrays.sort(regionNames);
+
+    List<CacheRegionStatisticsDto> regions = new ArrayList<>(regionNames.length);
+    for (String regionName : regionNames) {
+      SecondLevelCacheStatistics region = statistics.getSecondLevelCacheStatistics(regionName);
+      regions.add(new CacheRegionStatisticsDto(regionName, region.getHitCount(),
+          region.getMissCount(), region.getPutCount(), region.getElementCountInMemory(),
+          hitRatio(region.getHitCount(), region.getMissCount())));
+    }
+
+    return new CacheStatisticsDto(statistics.isStatisticsEnabled(),
+        statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount(),
+        hitRatio(statistics.getSecondLevelCacheHitCount(),
+            statistics.getSecondLevelCacheMissCount()),
+        statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount(),
+        hitRatio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()),
+        regions);
+  }
+
+  private static double hitRatio(long hits, long misses) {
+    long total = hits + misses;
+    return 0 == total ? 0 : (double) hits / total;
+  }
+}
@@ -0,0 +1,328 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.joda.money.CurrencyUnit;
+import org.openlmis.referencedata.CurrencyConfig;
+import org.openlmis.referencedata.domain.Code;
+import org.openlmis.referencedata.domain.CommodityType;
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.domain.OrderableDisplayCategory;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.ProgramOrderable;
+import org.openlmis.referencedata.domain.TradeItem;
+import org.openlmis.referencedata.dto.OrderableImportDto;
+import org.openlmis.referencedata.dto.OrderableImportResultDto;
+import org.openlmis.referencedata.dto.ProgramOrderableImportDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.i18n.ExposedMessageSource;
+import org.openlmis.referencedata.repository.OrderableDisplayCategoryRepository;
+import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.repository.ProgramRepository;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.OrderableMessageKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+/**
+ * Imports orderables together with their program associations. Lines are read one at a time and
+ * processed in chunks: all codes referenced by a chunk are resolved with one query per entity
+ * type, valid lines are saved and flushed as JDBC batches, and the persistence context is cleared
+ * before the next chunk is read. Invalid lines are skipped and reported in the result.
+ */
+@Service
+public class OrderableImportService {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(OrderableImportService.class);
+
+  static final int CHUNK_SIZE = 500;
+
+  static final String COMMODITY_TYPE = "commodityType";
+  static final String TRADE_ITEM = "tradeItem";
+
+  @Autowired
+  private OrderableRepository orderableRepository;
+
+  @Autowired
+  private ProgramRepository programRepository;
+
+  @Autowired
+  private OrderableDisplayCategoryRepository orderableDisplayCategoryRepository;
+
+  @Autowired
+  private ExposedMessageSource messageSource;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired
+  private PackCalculationService packCalculationService;
+
+  @PersistenceContext
+  private EntityManager entityManager;
+
+  /**
+   * Imports orderables from the given JSON array of {@link OrderableImportDto}. Existing
+   * orderables, matched by product code, are updated. Program associations listed for an
+   * orderable are created or updated, associations that are not listed are left untouched.
+   *
+   * @param input JSON array of orderables to import.
+   * @return number of created and updated orderables and the errors of skipped lines.
+   * @throws ValidationMessageException if the input is not a valid JSON array of orderables.
+   */
+  @Transactional
+  public OrderableImportResultDto importOrderables(InputStream input) {
+    OrderableImportResultDto result = new OrderableImportResultDto();
+    ImportContext context = new ImportContext();
+
+    try (MappingIterator<OrderableImportDto> lines = objectMapper
+        .readerFor(OrderableImportDto.class)
+        .readValues(input)) {
+      List<OrderableImportDto> chunk = new ArrayList<>(CHUNK_SIZE);
+
+      while (lines.hasNextValue()) {
+        chunk.add(lines.nextValue());
+
+        if (chunk.size() == CHUNK_SIZE) {
+          importChunk(chunk, context, result);
+          chunk.clear();
+        }
+      }
+
+      if (!chunk.isEmpty()) {
+        importChunk(chunk, context, result);
+      }
+    } catch (IOException ex) {
+      throw new ValidationMessageException(
+          new Message(OrderableMessageKeys.ERROR_IMPORT_INVALID, ex.getMessage()), ex);
+    }
+
+    packCalculationService.invalidate();
+
+    LOGGER.info("Imported {} orderables: {} created, {} updated, {} skipped", result.getTotal(),
+        result.getCreated(), result.getUpdated(), result.getErrors().size());
+    return result;
+  }
+
+  private void importChunk(List<OrderableImportDto> chunk, ImportContext context,
+                           OrderableImportResultDto result) {
+    Map<String, Orderable> stored = findOrderables(chunk);
+    context.resolve(chunk);
+
+    List<Orderable> toSave = new ArrayList<>(chunk.size());
+    for (OrderableImportDto line : chunk) {
+      int lineNumber = result.getTotal() + 1;
+      result.setTotal(lineNumber);
+
+      try {
+        Orderable storedOrderable = null == line.getProductCode()
+            ? null
+            : stored.get(code(line.getProductCode()));
+        toSave.add(buildOrderable(line, storedOrderable, context));
+
+        if (null == storedOrderable) {
+          result.setCreated(result.getCreated() + 1);
+        } else {
+          result.setUpdated(result.getUpdated() + 1);
+        }
+      } catch (ValidationMessageException ex) {
+        result.addError(lineNumber, line.getProductCode(),
+            ex.asMessage().localMessage(messageSource, LocaleContextHolder.getLocale()));
+      }
+    }
+
+    orderableRepository.save(toSave);
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private Orderable buildOrderable(OrderableImportDto line, Orderable stored,
+                                   ImportContext context) {
+    if (null == line.getProductCode() || line.getProductCode().trim().isEmpty()) {
+      throw new ValidationMessageException(
+          OrderableMessageKeys.ERROR_IMPORT_PRODUCT_CODE_REQUIRED);
+    }
+
+    String productCode = code(line.getProductCode());
+    if (!context.importedCodes.add(productCode)) {
+      throw new ValidationMessageException(new Message(
+          OrderableMessageKeys.ERROR_IMPORT_PRODUCT_CODE_DUPLICATED, productCode));
+    }
+
+    Orderable orderable = newOrderable(line);
+    if (null != stored) {
+      if (orderable.getClass() != stored.getClass()) {
+        throw new ValidationMessageException(new Message(
+            OrderableMessageKeys.ERROR_IMPORT_TYPE_CHANGED, productCode));
+      }
+
+      orderable.setId(stored.getId());
+      if (orderable instanceof TradeItem) {
+        ((TradeItem) orderable).keepCommodityTypeOf((TradeItem) stored);
+      }
+    }
+
+    if (null != line.getPrograms()) {
+      for (ProgramOrderableImportDto programLine : line.getPrograms()) {
+        ProgramOrderable programOrderable = newProgramOrderable(programLine, orderable, context);
+        ProgramOrderable storedProgramOrderable = null == stored
+            ? null
+            : stored.getProgramOrderable(programOrderable.getProgram());
+
+        if (null != storedProgramOrderable) {
+          programOrderable.setId(storedProgramOrderable.getId());
+        }
+
+        orderable.addToProgram(programOrderable);
+      }
+    }
+
+    if (null != stored) {
+      orderable.keepProgramsOf(stored);
+    }
+
+    return orderable;
+  }
+
+  private Orderable newOrderable(OrderableImportDto line) {
+    String type = null == line.getType() ? COMMODITY_TYPE : line.getType();
+
+    if (COMMODITY_TYPE.equals(type)) {
+      return CommodityType.newCommodityType(line.getProductCode(), line.getDispensingUnit(),
+          line.getName(), line.getDescription(), line.getPackSize(),
+          line.getPackRoundingThreshold(), line.isRoundToZero());
+    }
+
+    if (TRADE_ITEM.equals(type)) {
+      return TradeItem.newTradeItem(line.getProductCode(), line.getDispensingUnit(),
+          line.getName(), line.getPackSize(), line.getPackRoundingThreshold(),
+          line.isRoundToZero());
+    }
+
+    throw new ValidationMessageException(new Message(
+        OrderableMessageKeys.ERROR_IMPORT_TYPE_WRONG, type));
+  }
+
+  private ProgramOrderable newProgramOrderable(ProgramOrderableImportDto line,
+                                               Orderable orderable, ImportContext context) {
+    Program program = context.programs.get(code(line.getProgramCode()));
+    if (null == program) {
+      throw new ValidationMessageException(new Message(
+          OrderableMessageKeys.ERROR_IMPORT_PROGRAM_NOT_FOUND, line.getProgramCode()));
+    }
+
+    OrderableDisplayCategory category = context.categories
+        .get(code(line.getOrderableDisplayCategoryCode()));
+    if (null == category) {
+      throw new ValidationMessageException(new Message(
+          OrderableMessageKeys.ERROR_IMPORT_ORDERABLE_DISPLAY_CATEGORY_NOT_FOUND,
+          line.getOrderableDisplayCategoryCode()));
+    }
+
+    return ProgramOrderable.createNew(program, category, orderable, line.getDosesPerPatient(),
+        line.isActive(), line.isFullSupply(), line.getDisplayOrder(), line.getPricePerPack(),
+        CurrencyUnit.of(CurrencyConfig.CURRENCY_CODE));
+  }
+
+  private Map<String, Orderable> findOrderables(List<OrderableImportDto> chunk) {
+    Set<String> codes = new HashSet<>();
+    for (OrderableImportDto line : chunk) {
+      if (null != line.getProductCode()) {
+        codes.add(code(line.getProductCode()));
+      }
+    }
+
+    Map<String, Orderable> orderables = new HashMap<>();
+    if (!codes.isEmpty()) {
+      for (Orderable orderable : orderableRepository.findAllByProductCodes(codes)) {
+        orderables.put(orderable.getProductCode().toString(), orderable);
+      }
+    }
+
+    return orderables;
+  }
+
+  private static String code(String code) {
+    return Code.code(code).toString();
+  }
+
+  /**
+   * State shared by all chunks of a single import. Programs and categories are few and are
+   * referenced by many lines, so they are looked up once and kept for the whole import.
+   */
+  private class ImportContext {
+    private final Set<String> importedCodes = new HashSet<>();
+    private final Map<String, Program> programs = new HashMap<>();
+    private final Map<String, OrderableDisplayCategory> categories = new HashMap<>();
+    private final Set<String> resolvedProgramCodes = new HashSet<>();
+    private final Set<String> resolvedCategoryCodes = new HashSet<>();
+
+    void resolve(List<OrderableImportDto> chunk) {
+      Set<String> programCodes = new HashSet<>();
+      Set<String> categoryCodes = new HashSet<>();
+
+      for (OrderableImportDto line : chunk) {
+        if (null == line.getPrograms()) {
+          continue;
+        }
+
+        for (ProgramOrderableImportDto programLine : line.getPrograms()) {
+          String programCode = code(programLine.getProgramCode());
+          if (resolvedProgramCodes.add(programCode)) {
+            programCodes.add(programCode);
+          }
+
+          String categoryCode = code(programLine.getOrderableDisplayCategoryCode());
+          if (resolvedCategoryCodes.add(categoryCode)) {
+            categoryCodes.add(categoryCode);
+          }
+        }
+      }
+
+      if (!programCodes.isEmpty()) {
+        for (Program program : programRepository.findAllByCodes(programCodes)) {
+          programs.put(program.getCode().toString(), program);
+        }
+      }
+
+      if (!categoryCodes.isEmpty()) {
+        for (OrderableDisplayCategory category
+            : orderableDisplayCategoryRepository.findAllByCodes(categoryCodes)) {
+          categories.put(category.getCode().toString(), category);
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.dto.PacksToOrderDto;
+import org.openlmis.referencedata.exception.NotFoundException;
+import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.TransactionUtils;
+import org.openlmis.referencedata.util.messagekeys.OrderableMessageKeys;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Calculates packs to order for many orderables at once. The pack parameters of all orderables
+ * are kept in memory as primitive arrays indexed by orderable id, so a calculation does not load
+ * any orderable. The cache is loaded on first use and extended with orderables it does not know
+ * yet. A transaction that changed orderables bumps a generation counter after it commits, and the
+ * next calculation that finds a cache of an older generation loads it again.
+ */
+@Service
+public class PackCalculationService {
+
+  @Autowired
+  private OrderableRepository orderableRepository;
+
+  private final AtomicLong generation = new AtomicLong();
+
+  private volatile PackParameters packParameters;
+
+  /**
+   * Sets the number of packs to order on each of the given lines, using the same rounding rules
+   * as {@link Orderable#packsToOrder(long)}.
+   *
+   * @param lines orderable ids with the number of dispensing units to order
+   * @return the given lines
+   * @throws NotFoundException if any of the orderables does not exist
+   */
+  public List<PacksToOrderDto> packsToOrder(List<PacksToOrderDto> lines) {
+    PackParameters parameters = getPackParameters(lines);
+    int[] indexes = new int[lines.size()];
+    Set<UUID> missingIds = new LinkedHashSet<>();
+
+    for (int i = 0; i < indexes.length; i++) {
+      UUID orderableId = lines.get(i).getOrderableId();
+      Integer index = parameters.index.get(orderableId);
+
+      if (null == index) {
+        missingIds.add(orderableId);
+      } else {
+        indexes[i] = index;
+      }
+    }
+
+    if (!missingIds.isEmpty()) {
+      throw new NotFoundException(
+          new Message(OrderableMessageKeys.ERROR_NOT_FOUND_WITH_ID, missingIds));
+    }
+
+    for (int i = 0; i < indexes.length; i++) {
+      int index = indexes[i];
+      PacksToOrderDto line = lines.get(i);
+      line.setPacksToOrder(Orderable.packsToOrder(line.getDispensingUnits(),
+          parameters.packSizes[index], parameters.packRoundingThresholds[index],
+          parameters.roundToZero[index]));
+    }
+
+    return lines;
+  }
+
+  /**
+   * Marks the cached pack parameters as outdated, so that they are loaded again on next use.
+   * Takes effect when the current transaction, if any, commits.
+   */
+  public void invalidate() {
+    TransactionUtils.afterCommit(generation::incrementAndGet);
+  }
+
+  private PackParameters getPackParameters(List<PacksToOrderDto> lines) {
+    long current = generation.get();
+    PackParameters parameters = packParameters;
+    if (null == parameters || parameters.generation != current) {
+      parameters = new PackParameters(current, orderableRepository.findAllPackParameters());
+      packParameters = parameters;
+      return parameters;
+    }
+
+    Set<UUID> unknownIds = new LinkedHashSet<>();
+    for (PacksToOrderDto line : lines) {
+      if (null != line.getOrderableId() && !parameters.index.containsKey(line.getOrderableId())) {
+        unknownIds.add(line.getOrderableId());
+      }
+    }
+
+    if (!unknownIds.isEmpty()) {
+      List<Object[]> rows = orderableRepository.findPackParameters(unknownIds);
+      if (!rows.isEmpty()) {
+        parameters = parameters.with(rows);
+        packParameters = parameters;
+      }
+    }
+
+    return parameters;
+  }
+
+  /**
+   * Immutable pack parameters of a set of orderables. Rows are (id, packSize,
+   * packRoundingThreshold, roundToZero), as returned by the repository. The generation is read
+   * before the rows are loaded, so parameters that may miss a change are never current.
+   */
+  private static final class PackParameters {
+    private final long generation;
+    private final Map<UUID, Integer> index;
+    private final long[] packSizes;
+    private final long[] packRoundingThresholds;
+    private final boolean[] roundToZero;
+
+    PackParameters(long generation, List<Object[]> rows) {
+      this(generation, new HashMap<>(), new long[0], new long[0], new boolean[0], rows);
+    }
+
+    private PackParameters(long generation, Map<UUID, Integer> index, long[] packSizes,
+                           long[] packRoundingThresholds, boolean[] roundToZero,
+                           List<Object[]> rows) {
+      int size = packSizes.length;
+      this.generation = generation;
+      this.index = index;
+      this.packSizes = Arrays.copyOf(packSizes, size + rows.size());
+      this.packRoundingThresholds = Arrays.copyOf(packRoundingThresholds, size + rows.size());
+      this.roundToZero = Arrays.copyOf(roundToZero, size + rows.size());
+
+      for (Object[] row : rows) {
+        this.index.put((UUID) row[0], size);
+        this.packSizes[size] = (Long) row[1];
+        this.packRoundingThresholds[size] = (Long) row[2];
+        this.roundToZero[size] = (Boolean) row[3];
+        size++;
+      }
+    }
+
+    PackParameters with(List<Object[]> rows) {
+      return new PackParameters(generation, new HashMap<>(index), packSizes,
+          packRoundingThresholds, roundToZero, rows);
+    }
+  }
+}
@@ -20,26 +20,44 @@ import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
+import org.openlmis.referencedata.dto.ProcessingPeriodGenerationDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.ProcessingPeriodRepository;
-import org.openlmis.referencedata.repository.RequisitionGroupProgramScheduleRepository;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.ProcessingPeriodMessageKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 @Service
 public class ProcessingPeriodService {
   private static final Logger LOGGER = LoggerFactory.getLogger(ProcessingPeriodService.class);
 
+  static final Set<ChronoUnit> DURATION_UNITS =
+      EnumSet.of(ChronoUnit.DAYS, ChronoUnit.WEEKS, ChronoUnit.MONTHS, ChronoUnit.YEARS);
+  static final String DEFAULT_NAME_PATTERN = "yyyy-MM-dd";
+  static final int MAX_GENERATED_PERIODS = 1000;
+
   @Autowired
   private ProcessingPeriodRepository periodRepository;
 
   @Autowired
-  private RequisitionGroupProgramScheduleRepository repository;
+  private RequisitionGroupProgramScheduleService requisitionGroupProgramScheduleService;
 
   /**
    * Finds Periods matching all of provided parameters and
@@ -54,6 +72,123 @@ public class ProcessingPeriodService {
     return periodRepository.searchPeriods(processingSchedule, toDate);
   }
 
+  /**
+   * Finds the Period of the given schedule that starts last. Only that Period is read, using the
+   * index on schedule and start date, so the cost does not depend on the number of Periods.
+   *
+   * @param processingSchedule processingSchedule of searched Period.
+   * @return the last Period of the schedule or null if the schedule has no Periods.
+   */
+  public ProcessingPeriod findLastPeriod(ProcessingSchedule processingSchedule) {
+    return periodRepository.findFirstByProcessingScheduleOrderByStartDateDesc(processingSchedule);
+  }
+
+  /**
+   * Generates consecutive Periods of the given schedule from the given rule and saves them as one
+   * batch. Contiguity is checked once: the first Period starts the day after the last existing
+   * Period ends, or on the rule start date if the schedule has no Periods yet. Each following
+   * Period starts the day after the previous one ends. Durations are added to the first start
+   * date rather than to the previous Period, so month lengths do not shift later Periods.
+   *
+   * @param processingSchedule processingSchedule of generated Periods.
+   * @param rule               number, duration and naming of generated Periods.
+   * @return generated Periods, ordered by start date.
+   * @throws ValidationMessageException if the rule is invalid, asks for more than
+   *                                    {@value #MAX_GENERATED_PERIODS} Periods or would leave a
+   *                                    gap.
+   */
+  public List<ProcessingPeriod> generatePeriods(ProcessingSchedule processingSchedule,
+                                                ProcessingPeriodGenerationDto rule) {
+    Integer count = rule.getCount();
+    if (null == count || count < 1 || count > MAX_GENERATED_PERIODS) {
+      throw new ValidationMessageException(new Message(
+          ProcessingPeriodMessageKeys.ERROR_COUNT_WRONG, count, MAX_GENERATED_PERIODS));
+    }
+
+    Integer duration = rule.getDuration();
+    ChronoUnit unit = rule.getDurationUnit();
+    if (null == duration || duration < 1 || !DURATION_UNITS.contains(unit)) {
+      throw new ValidationMessageException(
+          new Message(ProcessingPeriodMessageKeys.ERROR_DURATION_WRONG, duration, unit));
+    }
+
+    String namePattern = null == rule.getNamePattern()
+        ? DEFAULT_NAME_PATTERN
+        : rule.getNamePattern();
+    DateTimeFormatter nameFormatter = nameFormatter(namePattern);
+    LocalDate startDate = findNextStartDate(processingSchedule, rule.getStartDate());
+
+    List<ProcessingPeriod> periods = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      LocalDate periodStartDate = startDate.plus((long) i * duration, unit);
+      LocalDate periodEndDate = startDate.plus((long) (i + 1) * duration, unit).minusDays(1);
+
+      if (!periodEndDate.isAfter(periodStartDate)) {
+        throw new ValidationMessageException(
+            ProcessingPeriodMessageKeys.ERROR_END_DATE_BEFORE_START_DATE);
+      }
+
+      periods.add(ProcessingPeriod.newPeriod(
+          formatName(nameFormatter, namePattern, periodStartDate),
+          processingSchedule, periodStartDate, periodEndDate));
+    }
+
+    List<ProcessingPeriod> saved = new ArrayList<>(count);
+    periodRepository.save(periods).forEach(saved::add);
+    return saved;
+  }
+
+  /**
+   * Finds the Periods of the given schedule that contain the given dates. All Periods between the
+   * earliest and the latest date are read with one query, using the index on schedule, start date
+   * and end date, and each date is matched by binary search over their start dates.
+   *
+   * @param processingSchedule processingSchedule of searched Periods.
+   * @param dates              dates that searched Periods shall contain.
+   * @return Periods by contained date. Dates not covered by any Period are left out.
+   * @throws ValidationMessageException if any of the dates is null.
+   */
+  public Map<LocalDate, ProcessingPeriod> findPeriodsContaining(
+      ProcessingSchedule processingSchedule, Collection<LocalDate> dates) {
+    if (dates.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    if (dates.contains(null)) {
+      throw new ValidationMessageException(ProcessingPeriodMessageKeys.ERROR_DATE_NULL);
+    }
+
+    List<ProcessingPeriod> periods = periodRepository.findOverlappingPeriods(
+        processingSchedule, Collections.min(dates), Collections.max(dates));
+
+    Map<LocalDate, ProcessingPeriod> containing = new HashMap<>();
+    for (LocalDate date : dates) {
+      ProcessingPeriod period = findLastStartingOnOrBefore(periods, date);
+      if (null != period && !period.getEndDate().isBefore(date)) {
+        containing.put(date, period);
+      }
+    }
+
+    return containing;
+  }
+
+  /**
+   * Finds Periods of any of the given schedules with one query, ordered ascending by their start
+   * date.
+   *
+   * @param processingScheduleIds UUIDs of schedules of searched Periods.
+   * @param toDate                to which day shall Period start.
+   * @return list of all Periods matching all of provided parameters.
+   */
+  public List<ProcessingPeriod> searchPeriodsBySchedules(Collection<UUID> processingScheduleIds,
+                                                         LocalDate toDate) {
+    if (processingScheduleIds.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    return periodRepository.searchPeriodsBySchedules(processingScheduleIds, toDate);
+  }
+
   /**
    * Get Processing Periods matching all of provided parameters.
    *
@@ -63,7 +198,8 @@ public class ProcessingPeriodService {
    */
   public List<ProcessingPeriod> filterPeriods(Program program, Facility facility) {
     RequisitionGroupProgramSchedule schedule =
-        repository.searchRequisitionGroupProgramSchedule(program, facility);
+        requisitionGroupProgramScheduleService.searchRequisitionGroupProgramSchedule(
+            program, facility);
 
     if (null == schedule) {
       LOGGER.warn("Cannot find Requisition Group Program Schedule for program {} and facility {}",
@@ -73,4 +209,65 @@ public class ProcessingPeriodService {
 
     return searchPeriods(schedule.getProcessingSchedule(), null);
   }
+
+  private ProcessingPeriod findLastStartingOnOrBefore(List<ProcessingPeriod> periods,
+                                                      LocalDate date) {
+    int low = 0;
+    int high = periods.size() - 1;
+    ProcessingPeriod found = null;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      ProcessingPeriod period = periods.get(middle);
+
+      if (period.getStartDate().isAfter(date)) {
+        high = middle - 1;
+      } else {
+        found = period;
+        low = middle + 1;
+      }
+    }
+
+    return found;
+  }
+
+  private LocalDate findNextStartDate(ProcessingSchedule processingSchedule,
+                                      LocalDate startDate) {
+    ProcessingPeriod lastPeriod = findLastPeriod(processingSchedule);
+
+    if (null == lastPeriod) {
+      if (null == startDate) {
+        throw new ValidationMessageException(ProcessingPeriodMessageKeys.ERROR_START_DATE_NULL);
+      }
+
+      return startDate;
+    }
+
+    LocalDate nextStartDate = lastPeriod.getEndDate().plusDays(1);
+    if (null != startDate && !startDate.equals(nextStartDate)) {
+      throw new ValidationMessageException(
+          ProcessingPeriodMessageKeys.ERROR_GAP_BETWEEN_LAST_END_DATE_AND_START_DATE);
+    }
+
+    return nextStartDate;
+  }
+
+  private DateTimeFormatter nameFormatter(String namePattern) {
+    try {
+      return DateTimeFormatter.ofPattern(namePattern);
+    } catch (IllegalArgumentException ex) {
+      throw new ValidationMessageException(
+          new Message(ProcessingPeriodMessageKeys.ERROR_NAME_PATTERN_WRONG, namePattern), ex);
+    }
+  }
+
+  private String formatName(DateTimeFormatter nameFormatter, String namePattern,
+                            LocalDate startDate) {
+    try {
+      return nameFormatter.format(startDate);
+    } catch (DateTimeException ex) {
+      throw new ValidationMessageException(
+          new Message(ProcessingPeriodMessageKeys.ERROR_NAME_PATTERN_WRONG, namePattern), ex);
+    }
+  }
 }
@@ -15,21 +15,217 @@
 
 package org.openlmis.referencedata.service;
 
+import static com.google.common.base.Preconditions.checkNotNull;
+
 import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.RequisitionGroupProgramScheduleRepository;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.TransactionUtils;
+import org.openlmis.referencedata.util.messagekeys.RequisitionGroupMessageKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.google.common.collect.Lists;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Resolves the requisition group program schedule of a program and facility. All resolutions are
+ * kept in memory as ids, indexed by program and facility, so a lookup does not join requisition
+ * groups with their member facilities. The index is loaded on first use. When a requisition group
+ * changes, only the resolutions of that group are loaded again, after the change commits.
+ */
 @Service
 public class RequisitionGroupProgramScheduleService {
 
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(RequisitionGroupProgramScheduleService.class);
+
+  static final int FACILITY_BATCH_SIZE = 1000;
+
   @Autowired
   private RequisitionGroupProgramScheduleRepository repository;
 
+  private final Set<UUID> staleRequisitionGroupIds = ConcurrentHashMap.newKeySet();
+
+  private volatile ResolutionIndex resolutionIndex;
+
+  /**
+   * Finds the requisition group program schedule of the given program and facility.
+   *
+   * @param program  program of the searched schedule
+   * @param facility member facility of the requisition group of the searched schedule
+   * @return the matching schedule or null if the facility has no schedule for the program
+   * @throws ValidationMessageException if the facility has more than one schedule for the program
+   */
   public RequisitionGroupProgramSchedule searchRequisitionGroupProgramSchedule(
         Program program, Facility facility) {
-    return repository.searchRequisitionGroupProgramSchedule(program, facility);
+    checkNotNull(program);
+    checkNotNull(facility);
+
+    Resolution resolution = resolve(program.getId(), facility.getId());
+    return null == resolution ? null : repository.findOne(resolution.getId());
+  }
+
+  /**
+   * Resolves the schedule, requisition group, supervisory node and drop off facility of the given
+   * program and facility, without touching the database once the index is loaded.
+   *
+   * @param programId  UUID of the program
+   * @param facilityId UUID of the member facility
+   * @return ids of the resolved entities or null if the facility has no schedule for the program
+   * @throws ValidationMessageException if the facility has more than one schedule for the program
+   */
+  public Resolution resolve(UUID programId, UUID facilityId) {
+    return getResolutionIndex().get(programId, facilityId);
+  }
+
+  /**
+   * Finds the processing schedules of many facilities for the given program, with one query per
+   * {@value #FACILITY_BATCH_SIZE} facilities. Facilities that have no schedule for the program are
+   * left out of the result.
+   *
+   * @param programId   UUID of the program
+   * @param facilityIds UUIDs of the member facilities
+   * @return UUIDs of processing schedules by facility UUID
+   */
+  public Map<UUID, UUID> findProcessingScheduleIds(UUID programId,
+                                                   Collection<UUID> facilityIds) {
+    Map<UUID, UUID> processingScheduleIds = new HashMap<>();
+    for (List<UUID> batch : Lists.partition(new ArrayList<>(facilityIds), FACILITY_BATCH_SIZE)) {
+      for (Object[] row : repository.findProcessingScheduleIds(programId, batch)) {
+        processingScheduleIds.put((UUID) row[0], (UUID) row[1]);
+      }
+    }
+
+    return processingScheduleIds;
+  }
+
+  /**
+   * Marks the resolutions of the given requisition group as stale, so that they are loaded again
+   * on next use. Takes effect when the current transaction, if any, commits.
+   *
+   * @param requisitionGroupId UUID of the created, changed or deleted requisition group
+   */
+  public void invalidate(UUID requisitionGroupId) {
+    TransactionUtils.afterCommit(() -> staleRequisitionGroupIds.add(requisitionGroupId));
+  }
+
+  /**
+   * Drops all resolutions, so that the whole index is loaded again on next use.
+   */
+  public synchronized void invalidateAll() {
+    resolutionIndex = null;
+  }
+
+  private ResolutionIndex getResolutionIndex() {
+    ResolutionIndex index = resolutionIndex;
+    if (null != index && staleRequisitionGroupIds.isEmpty()) {
+      return index;
+    }
+
+    synchronized (this) {
+      index = resolutionIndex;
+      Set<UUID> staleIds = new HashSet<>(staleRequisitionGroupIds);
+      staleRequisitionGroupIds.removeAll(staleIds);
+
+      if (null == index) {
+        index = new ResolutionIndex(Collections.emptyMap(), staleIds,
+            repository.findAllResolutions());
+      } else if (!staleIds.isEmpty()) {
+        index = new ResolutionIndex(index.byRequisitionGroup, staleIds,
+            repository.findResolutions(staleIds));
+      }
+
+      resolutionIndex = index;
+      return index;
+    }
+  }
+
+  /**
+   * Ids of a requisition group program schedule and of the entities it resolves a program and
+   * member facility to.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static final class Resolution {
+    private final UUID id;
+    private final UUID programId;
+    private final UUID facilityId;
+    private final UUID processingScheduleId;
+    private final UUID requisitionGroupId;
+    private final UUID supervisoryNodeId;
+    private final UUID dropOffFacilityId;
+  }
+
+  /**
+   * Immutable resolutions grouped by requisition group, together with a lookup by program and
+   * facility. Rows are (id, programId, facilityId, processingScheduleId, requisitionGroupId,
+   * supervisoryNodeId, dropOffFacilityId), as returned by the repository. A program and facility
+   * with more than one schedule, through several requisition groups, are logged and cannot be
+   * resolved.
+   */
+  private static final class ResolutionIndex {
+    private final Map<UUID, List<Resolution>> byRequisitionGroup;
+    private final Map<UUID, Map<UUID, Resolution>> byProgramAndFacility = new HashMap<>();
+    private final Map<UUID, Set<UUID>> duplicatedByProgram = new HashMap<>();
+
+    ResolutionIndex(Map<UUID, List<Resolution>> byRequisitionGroup,
+                    Set<UUID> replacedRequisitionGroupIds, List<Object[]> rows) {
+      this.byRequisitionGroup = new HashMap<>(byRequisitionGroup);
+      this.byRequisitionGroup.keySet().removeAll(replacedRequisitionGroupIds);
+
+      for (Object[] row : rows) {
+        Resolution resolution = new Resolution((UUID) row[0], (UUID) row[1], (UUID) row[2],
+            (UUID) row[3], (UUID) row[4], (UUID) row[5], (UUID) row[6]);
+        this.byRequisitionGroup
+            .computeIfAbsent(resolution.getRequisitionGroupId(), id -> new ArrayList<>())
+            .add(resolution);
+      }
+
+      for (List<Resolution> resolutions : this.byRequisitionGroup.values()) {
+        for (Resolution resolution : resolutions) {
+          Resolution previous = byProgramAndFacility
+              .computeIfAbsent(resolution.getProgramId(), id -> new HashMap<>())
+              .put(resolution.getFacilityId(), resolution);
+          if (null != previous && !previous.getId().equals(resolution.getId())) {
+            LOGGER.warn("Facility {} has more than one requisition group program schedule for"
+                    + " program {}: {} and {}", resolution.getFacilityId(),
+                resolution.getProgramId(), previous.getId(), resolution.getId());
+            duplicatedByProgram
+                .computeIfAbsent(resolution.getProgramId(), id -> new HashSet<>())
+                .add(resolution.getFacilityId());
+          }
+        }
+      }
+    }
+
+    Resolution get(UUID programId, UUID facilityId) {
+      Set<UUID> duplicated = duplicatedByProgram.get(programId);
+      if (null != duplicated && duplicated.contains(facilityId)) {
+        throw new ValidationMessageException(new Message(
+            RequisitionGroupMessageKeys.ERROR_PROGRAM_SCHEDULE_DUPLICATED, programId, facilityId));
+      }
+
+      Map<UUID, Resolution> byFacility = byProgramAndFacility.get(programId);
+      return null == byFacility ? null : byFacility.get(facilityId);
+    }
   }
 }
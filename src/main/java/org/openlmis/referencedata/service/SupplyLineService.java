@@ -19,18 +19,46 @@ import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.domain.SupplyLine;
+import org.openlmis.referencedata.dto.ProgramSupervisoryNodeDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.SupplyLineRepository;
+import org.openlmis.referencedata.util.TransactionUtils;
+import org.openlmis.referencedata.util.messagekeys.SupplyLineMessageKeys;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
+/**
+ * Searches Supply Lines. Searches by ids are served from an in-memory index of all supply lines,
+ * keyed by program and supervisory node and by supplying facility. The index is immutable and is
+ * read without locking. A change to supply lines bumps a generation counter after it commits, and
+ * the next search that finds an index of an older generation builds a new one.
+ */
 @Service
 public class SupplyLineService {
 
   @Autowired
   private SupplyLineRepository supplyLineRepository;
 
+  private final AtomicLong generation = new AtomicLong();
+
+  private volatile SupplyLineIndex supplyLineIndex;
+
   /**
    * Method returns all Supply Lines with matched parameters.
    *
@@ -55,4 +83,150 @@ public class SupplyLineService {
     return supplyLineRepository.searchSupplyLines(program, supervisoryNode, supplyingFacility);
   }
 
+  /**
+   * Returns Supply Lines of the given program, optionally narrowed down to a supervisory node and a
+   * supplying facility, from the in-memory index.
+   *
+   * @param programId           UUID of the program of searched Supply Lines.
+   * @param supervisoryNodeId   UUID of the supervisory node of searched Supply Lines, optional.
+   * @param supplyingFacilityId UUID of the supplying facility of searched Supply Lines, optional.
+   * @return ids and descriptions of Supply Lines with matched parameters.
+   */
+  public List<SupplyLineRoute> searchSupplyLineRoutes(UUID programId, UUID supervisoryNodeId,
+                                                      UUID supplyingFacilityId) {
+    SupplyLineIndex index = getSupplyLineIndex();
+
+    List<SupplyLineRoute> candidates;
+    if (null != supervisoryNodeId) {
+      candidates = index.get(programId, supervisoryNodeId);
+    } else if (null != supplyingFacilityId) {
+      candidates = index.bySupplyingFacility.getOrDefault(supplyingFacilityId,
+          Collections.emptyList());
+    } else {
+      candidates = index.byProgram.getOrDefault(programId, Collections.emptyList());
+    }
+
+    return candidates.stream()
+        .filter(route -> Objects.equals(programId, route.getProgramId()))
+        .filter(route -> null == supplyingFacilityId
+            || supplyingFacilityId.equals(route.getSupplyingFacilityId()))
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Returns Supply Lines of many pairs of program and supervisory node at once, all resolved
+   * against the same index. Pairs without Supply Lines are mapped to an empty list.
+   *
+   * @param pairs pairs of program and supervisory node ids.
+   * @return Supply Lines by supervisory node id by program id.
+   * @throws ValidationMessageException if any pair has a null program or supervisory node id.
+   */
+  public Map<UUID, Map<UUID, List<SupplyLineRoute>>> searchSupplyLineRoutes(
+      Collection<ProgramSupervisoryNodeDto> pairs) {
+    SupplyLineIndex index = getSupplyLineIndex();
+
+    Map<UUID, Map<UUID, List<SupplyLineRoute>>> routes = new HashMap<>();
+    for (ProgramSupervisoryNodeDto pair : pairs) {
+      if (null == pair.getProgramId()) {
+        throw new ValidationMessageException(SupplyLineMessageKeys.ERROR_SEARCH_PROGRAM_ID_NULL);
+      }
+      if (null == pair.getSupervisoryNodeId()) {
+        throw new ValidationMessageException(
+            SupplyLineMessageKeys.ERROR_SEARCH_SUPERVISORY_NODE_ID_NULL);
+      }
+
+      routes
+          .computeIfAbsent(pair.getProgramId(), id -> new HashMap<>())
+          .put(pair.getSupervisoryNodeId(),
+              index.get(pair.getProgramId(), pair.getSupervisoryNodeId()));
+    }
+
+    return routes;
+  }
+
+  /**
+   * Returns ids of facilities that supply the given program at the given supervisory node.
+   *
+   * @param programId         UUID of the supplied program.
+   * @param supervisoryNodeId UUID of the supplied supervisory node.
+   * @return UUIDs of supplying facilities, without duplicates.
+   */
+  public Set<UUID> findSupplyingFacilityIds(UUID programId, UUID supervisoryNodeId) {
+    Set<UUID> supplyingFacilityIds = new LinkedHashSet<>();
+    for (SupplyLineRoute route : getSupplyLineIndex().get(programId, supervisoryNodeId)) {
+      supplyingFacilityIds.add(route.getSupplyingFacilityId());
+    }
+
+    return supplyingFacilityIds;
+  }
+
+  /**
+   * Marks the index of Supply Lines as outdated, so that it is built again on next search. Takes
+   * effect when the current transaction, if any, commits.
+   */
+  public void invalidate() {
+    TransactionUtils.afterCommit(generation::incrementAndGet);
+  }
+
+  private SupplyLineIndex getSupplyLineIndex() {
+    long current = generation.get();
+    SupplyLineIndex index = supplyLineIndex;
+    if (null == index || index.generation != current) {
+      index = new SupplyLineIndex(current, supplyLineRepository.findAllRoutes());
+      supplyLineIndex = index;
+    }
+
+    return index;
+  }
+
+  /**
+   * Ids and description of a Supply Line.
+   */
+  @Getter
+  @AllArgsConstructor
+  public static final class SupplyLineRoute {
+    private final UUID id;
+    private final UUID programId;
+    private final UUID supervisoryNodeId;
+    private final UUID supplyingFacilityId;
+    private final String description;
+  }
+
+  /**
+   * Immutable lookups of Supply Lines built from rows of (id, programId, supervisoryNodeId,
+   * supplyingFacilityId, description), as returned by the repository. The generation it was built
+   * in is read before the rows are loaded, so an index that may miss a change is never current.
+   */
+  private static final class SupplyLineIndex {
+    private final long generation;
+    private final Map<UUID, List<SupplyLineRoute>> byProgram = new HashMap<>();
+    private final Map<UUID, Map<UUID, List<SupplyLineRoute>>> byProgramAndNode = new HashMap<>();
+    private final Map<UUID, List<SupplyLineRoute>> bySupplyingFacility = new HashMap<>();
+
+    SupplyLineIndex(long generation, List<Object[]> rows) {
+      this.generation = generation;
+
+      for (Object[] row : rows) {
+        SupplyLineRoute route = new SupplyLineRoute((UUID) row[0], (UUID) row[1], (UUID) row[2],
+            (UUID) row[3], (String) row[4]);
+        byProgram
+            .computeIfAbsent(route.getProgramId(), id -> new ArrayList<>())
+            .add(route);
+        byProgramAndNode
+            .computeIfAbsent(route.getProgramId(), id -> new HashMap<>())
+            .computeIfAbsent(route.getSupervisoryNodeId(), id -> new ArrayList<>())
+            .add(route);
+        bySupplyingFacility
+            .computeIfAbsent(route.getSupplyingFacilityId(), id -> new ArrayList<>())
+            .add(route);
+      }
+    }
+
+    List<SupplyLineRoute> get(UUID programId, UUID supervisoryNodeId) {
+      Map<UUID, List<SupplyLineRoute>> byNode = byProgramAndNode.get(programId);
+      return null == byNode
+          ? Collections.emptyList()
+          : byNode.getOrDefault(supervisoryNodeId, Collections.emptyList());
+    }
+  }
 }
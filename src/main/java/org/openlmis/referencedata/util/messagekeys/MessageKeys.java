@@ -70,6 +70,8 @@ public abstract class MessageKeys {
   protected static final String ORDERED_DISPLAY_VALUE = "orderedDisplayValue";
   protected static final String STOCK_ADJUSTMENT_REASON = "stockAdjustmentReason";
   protected static final String FACILITY_TYPE_APPROVED_PRODUCT = "facilityTypeApprovedProduct";
+  protected static final String AUDIT_LOG = "auditLog";
+  protected static final String CHANGE_LOG = "changeLog";
 
   // Common to subclasses
   protected static final String EMAIL = "email";
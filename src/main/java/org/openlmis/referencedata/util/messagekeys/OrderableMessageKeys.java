@@ -17,6 +17,22 @@ package org.openlmis.referencedata.util.messagekeys;
 
 public abstract class OrderableMessageKeys extends MessageKeys {
   private static final String ERROR = join(SERVICE_ERROR, ORDERABLE);
+  private static final String IMPORT = "import";
+  private static final String TYPE = "type";
+  private static final String PRODUCT_CODE = "productCode";
 
   public static final String NOT_FOUND = join(ERROR, MessageKeys.NOT_FOUND);
+  public static final String ERROR_NOT_FOUND_WITH_ID = join(NOT_FOUND, WITH, ID);
+  public static final String ERROR_SEARCH_TYPE_WRONG = join(ERROR, SEARCH, TYPE, WRONG);
+  public static final String ERROR_IMPORT_INVALID = join(ERROR, IMPORT, "invalid");
+  public static final String ERROR_IMPORT_TYPE_WRONG = join(ERROR, IMPORT, TYPE, WRONG);
+  public static final String ERROR_IMPORT_TYPE_CHANGED = join(ERROR, IMPORT, TYPE, "changed");
+  public static final String ERROR_IMPORT_PRODUCT_CODE_REQUIRED =
+      join(ERROR, IMPORT, PRODUCT_CODE, REQUIRED);
+  public static final String ERROR_IMPORT_PRODUCT_CODE_DUPLICATED =
+      join(ERROR, IMPORT, PRODUCT_CODE, DUPLICATED);
+  public static final String ERROR_IMPORT_PROGRAM_NOT_FOUND =
+      join(ERROR, IMPORT, PROGRAM, MessageKeys.NOT_FOUND);
+  public static final String ERROR_IMPORT_ORDERABLE_DISPLAY_CATEGORY_NOT_FOUND =
+      join(ERROR, IMPORT, ORDERABLE_DISPLAY_CATEGORY, MessageKeys.NOT_FOUND);
 }
@@ -32,4 +32,10 @@ public abstract class ProcessingPeriodMessageKeys extends MessageKeys {
       join(ERROR, END_DATE, "before", START_DATE);
   public static final String ERROR_GAP_BETWEEN_LAST_END_DATE_AND_START_DATE =
       join(ERROR, "gap", "between", "lastEndDate", AND, START_DATE);
+  public static final String ERROR_PROCESSING_SCHEDULE_ID_NULL =
+      join(ERROR, PROCESSING_SCHEDULE, ID, NULL);
+  public static final String ERROR_DATE_NULL = join(ERROR, "date", NULL);
+  public static final String ERROR_COUNT_WRONG = join(ERROR, "count", WRONG);
+  public static final String ERROR_DURATION_WRONG = join(ERROR, "duration", WRONG);
+  public static final String ERROR_NAME_PATTERN_WRONG = join(ERROR, "namePattern", WRONG);
 }
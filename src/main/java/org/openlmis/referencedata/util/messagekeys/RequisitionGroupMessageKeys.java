@@ -20,6 +20,7 @@ public abstract class RequisitionGroupMessageKeys extends MessageKeys {
   private static final String ERROR = join(SERVICE_ERROR, REQUISITION_GROUP);
   private static final String TOO_LONG = "tooLong";
   private static final String DESCRIPTION = "description";
+  private static final String PROGRAM_SCHEDULE = "programSchedule";
 
   public static final String ERROR_NULL = join(ERROR, NULL);
 
@@ -38,6 +39,9 @@ public abstract class RequisitionGroupMessageKeys extends MessageKeys {
   public static final String ERROR_FACILITY_ID_REQUIRED = join(ERROR, FACILITY, REQUIRED);
   public static final String ERROR_FACILITY_NON_EXISTENT = join(ERROR, FACILITY, NON_EXISTENT);
 
+  public static final String ERROR_PROGRAM_SCHEDULE_DUPLICATED =
+      join(ERROR, PROGRAM_SCHEDULE, DUPLICATED);
+
   public static final String ERROR_SUPERVISORY_NODE_REQUIRED =
       join(ERROR, SUPERVISORY_NODE, REQUIRED);
   public static final String ERROR_SUPERVISORY_NODE_ID_REQUIRED =
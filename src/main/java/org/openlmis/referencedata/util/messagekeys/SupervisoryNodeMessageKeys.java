@@ -22,4 +22,5 @@ public abstract class SupervisoryNodeMessageKeys extends MessageKeys {
   public static final String ERROR_NOT_FOUND_WITH_ID = join(ERROR_NOT_FOUND, WITH, ID);
   public static final String ERROR_NOT_FOUND_WITH_PROGRAM_AND_FACILITY =
       join(ERROR_NOT_FOUND, WITH, PROGRAM, AND, FACILITY);
+  public static final String ERROR_MAX_DEPTH_NEGATIVE = join(ERROR, "maxDepth", "negative");
 }
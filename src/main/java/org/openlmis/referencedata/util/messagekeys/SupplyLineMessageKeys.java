@@ -19,4 +19,7 @@ public abstract class SupplyLineMessageKeys extends MessageKeys {
   private static final String ERROR = join(SERVICE_ERROR, SUPPLY_LINE);
 
   public static final String ERROR_NOT_FOUND = join(ERROR, NOT_FOUND);
+  public static final String ERROR_SEARCH_PROGRAM_ID_NULL = join(ERROR, SEARCH, PROGRAM, ID, NULL);
+  public static final String ERROR_SEARCH_SUPERVISORY_NODE_ID_NULL =
+      join(ERROR, SEARCH, SUPERVISORY_NODE, ID, NULL);
 }
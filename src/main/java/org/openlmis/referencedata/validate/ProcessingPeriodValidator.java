@@ -24,7 +24,6 @@ import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 
 import java.time.LocalDate;
-import java.util.List;
 
 public class ProcessingPeriodValidator implements Validator {
 
@@ -45,15 +44,15 @@ public class ProcessingPeriodValidator implements Validator {
 
     if (!err.hasErrors()) {
       ProcessingPeriod period = (ProcessingPeriod) obj;
-      List<ProcessingPeriod> periodList = periodService
-              .searchPeriods(period.getProcessingSchedule(), null);
+      ProcessingPeriod lastPeriod = periodService
+              .findLastPeriod(period.getProcessingSchedule());
 
       LocalDate startDate = period.getStartDate();
       LocalDate endDate = period.getEndDate();
 
       if (endDate.isAfter(startDate)) {
-        if (!periodList.isEmpty()) {
-          LocalDate lastEndDate = periodList.get(periodList.size() - 1).getEndDate();
+        if (lastPeriod != null) {
+          LocalDate lastEndDate = lastPeriod.getEndDate();
           if (!startDate.equals(lastEndDate.plusDays(1))) {
             err.rejectValue("startDate", "{gap.between.lastEndDate.and.startDate.validation.error}",
                 ProcessingPeriodMessageKeys.ERROR_GAP_BETWEEN_LAST_END_DATE_AND_START_DATE);
@@ -34,8 +34,10 @@ import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -157,23 +159,34 @@ public class RequisitionGroupValidator implements Validator {
     if (null == supervisoryNode.getId()) {
       rejectValue(errors, SUPERVISORY_NODE,
           RequisitionGroupMessageKeys.ERROR_SUPERVISORY_NODE_ID_REQUIRED);
-    } else if (null == supervisoryNodes.findOne(supervisoryNode.getId())) {
+    } else if (!supervisoryNodes.exists(supervisoryNode.getId())) {
       rejectValue(errors, SUPERVISORY_NODE,
           RequisitionGroupMessageKeys.ERROR_SUPERVISORY_NODE_NON_EXISTENT);
     }
   }
 
   private void verifyFacilities(List<FacilityDto> memberFacilities, Errors errors) {
-    // facilities must already exist in the system (cannot add new facilities from this point)
+    Set<UUID> ids = new LinkedHashSet<>();
+
     for (FacilityDto facility : memberFacilities) {
       if (null == facility) {
         rejectValue(errors, MEMBER_FACILITIES, RequisitionGroupMessageKeys.ERROR_FACILITY_NULL);
       } else if (null == facility.getId()) {
         rejectValue(errors, MEMBER_FACILITIES,
             RequisitionGroupMessageKeys.ERROR_FACILITY_ID_REQUIRED);
-      } else if (null == this.facilities.findOne(facility.getId())) {
+      } else {
+        ids.add(facility.getId());
+      }
+    }
+
+    // facilities must already exist in the system (cannot add new facilities from this point),
+    // all of them are checked with one query and all missing ones are reported together
+    if (!ids.isEmpty()) {
+      ids.removeAll(this.facilities.findExistingIds(ids));
+
+      if (!ids.isEmpty()) {
         rejectValue(errors, MEMBER_FACILITIES,
-            RequisitionGroupMessageKeys.ERROR_FACILITY_NON_EXISTENT);
+            RequisitionGroupMessageKeys.ERROR_FACILITY_NON_EXISTENT, ids);
       }
     }
   }
@@ -190,4 +203,8 @@ public class RequisitionGroupValidator implements Validator {
     errors.rejectValue(field, message, message);
   }
 
+  private void rejectValue(Errors errors, String field, String message, Object... parameters) {
+    errors.rejectValue(field, message, parameters, message);
+  }
+
 }
@@ -0,0 +1,144 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import org.apache.commons.lang3.StringUtils;
+import org.openlmis.referencedata.AuditLogRetentionJob;
+import org.openlmis.referencedata.domain.RightName;
+import org.openlmis.referencedata.dto.AuditLogFeedEntryDto;
+import org.openlmis.referencedata.dto.AuditLogRetentionStatisticsDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.repository.AuditLogRepository;
+import org.openlmis.referencedata.util.messagekeys.AuditLogMessageKeys;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+
+import javax.servlet.http.HttpServletResponse;
+
+@Controller
+@Transactional(readOnly = true)
+public class AuditLogController extends BaseController {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AuditLogController.class);
+
+  static final String NDJSON_MEDIA_TYPE = "application/x-ndjson";
+
+  @Autowired
+  private AuditLogRepository auditLogRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
+  @Autowired(required = false)
+  private AuditLogRetentionJob auditLogRetentionJob;
+
+  @Value("${audit.feed.holdBackSeconds:60}")
+  private long holdBackSeconds;
+
+  /**
+   * Streams snapshots of all audited types committed in the given time window, oldest first, as
+   * newline delimited JSON. Every line carries a cursor. To continue the feed, pass the cursor of
+   * the last received line. Snapshot keys are taken when JaVers inserts a snapshot, not when its
+   * transaction commits, so a slow transaction can make a snapshot visible with a key below a
+   * cursor already passed. Snapshots committed in the last {@code audit.feed.holdBackSeconds}
+   * seconds are therefore held back, so that the feed only serves settled history.
+   *
+   * @param from The earliest commit date and time, inclusive.
+   * @param to The latest commit date and time, exclusive. If missing or later than the held back
+   *           period, the feed runs up to the held back period.
+   * @param author The author of the commits. If missing, commits of all authors are returned.
+   * @param cursor The cursor of the last line already received.
+   * @param size The maximum number of lines. If missing, the whole window is streamed.
+   * @param response The response snapshots are written to.
+   */
+  @RequestMapping(value = "/auditLog/feed", method = RequestMethod.GET)
+  @ResponseStatus(HttpStatus.OK)
+  public void getAuditLogFeed(
+      @RequestParam(name = "from")
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(name = "to", required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(name = "author", required = false) String author,
+      @RequestParam(name = "cursor", required = false) Long cursor,
+      @RequestParam(name = "size", required = false) Integer size,
+      HttpServletResponse response) throws IOException {
+    rightService.checkAdminRight(RightName.AUDIT_LOG_VIEW);
+
+    if (null != size && size <= 0) {
+      throw new ValidationMessageException(AuditLogMessageKeys.ERROR_FEED_SIZE_INVALID);
+    }
+
+    LocalDateTime settled = LocalDateTime.now().minusSeconds(holdBackSeconds);
+    LocalDateTime until = null == to || to.isAfter(settled) ? settled : to;
+
+    response.setContentType(NDJSON_MEDIA_TYPE);
+    response.setCharacterEncoding("UTF-8");
+
+    ObjectWriter writer = objectMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    OutputStream output = response.getOutputStream();
+
+    int count = auditLogRepository.streamSnapshots(from, until, StringUtils.trimToNull(author),
+        cursor, size, snapshot -> {
+          try {
+            output.write(writer.writeValueAsBytes(
+                new AuditLogFeedEntryDto(snapshot.getSnapshotId(), snapshot)));
+            output.write('\n');
+          } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+          }
+        });
+
+    output.flush();
+    LOGGER.debug("Streamed {} audit log snapshots", count);
+  }
+
+  /**
+   * Returns the outcome of the last audit log compaction run: the number of deleted snapshots and
+   * batches and the time taken.
+   *
+   * @return statistics of the last run, without run fields if the compaction has not run yet.
+   */
+  @RequestMapping(value = "/auditLog/retentionStatistics", method = RequestMethod.GET)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public AuditLogRetentionStatisticsDto getAuditLogRetentionStatistics() {
+    rightService.checkAdminRight(RightName.AUDIT_LOG_VIEW);
+
+    return null == auditLogRetentionJob
+        ? AuditLogRetentionStatisticsDto.notRun(false)
+        : auditLogRetentionJob.getStatistics();
+  }
+}
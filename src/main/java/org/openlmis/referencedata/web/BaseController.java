@@ -15,18 +15,26 @@
 
 package org.openlmis.referencedata.web;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
 import org.apache.commons.lang3.StringUtils;
 import org.javers.core.Javers;
 import org.javers.core.changelog.SimpleTextChangeLog;
 import org.javers.core.diff.Change;
 import org.javers.core.json.JsonConverter;
 import org.javers.repository.jql.QueryBuilder;
+import org.openlmis.referencedata.dto.AuditLogSnapshotDto;
+import org.openlmis.referencedata.dto.AuditLogSnapshotPageDto;
+import org.openlmis.referencedata.repository.AuditLogRepository;
 import org.openlmis.referencedata.service.RightService;
 import org.openlmis.util.Pagination;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
 import org.springframework.web.bind.annotation.RequestMapping;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
@@ -39,6 +47,12 @@ public abstract class BaseController {
   @Autowired
   private Javers javers;
 
+  @Autowired
+  private AuditLogRepository auditLogRepository;
+
+  @Autowired
+  private ObjectMapper objectMapper;
+
   /**
    * <p>
    * Convenience method intended to return audit log information via either JSON or raw text,
@@ -90,6 +104,45 @@ public abstract class BaseController {
   }
 
 
+  /**
+   * Return a page of snapshots via compact JSON. Snapshots are sorted from the newest and paged
+   * by the database, so each page is read with a single index scan however deep it is.
+   *
+   * @param type The type of class for which we wish to retrieve historical snapshots.
+   * @param id The ID of class for which we wish to retrieve historical snapshots.
+   *           If null, entries are returned regardless of their ID.
+   * @param author The author of the snapshots which should be returned.
+   *               If null or empty, snapshots are returned regardless of author.
+   * @param changedPropertyName The name of a property changed by the returned snapshots.
+   *               If null or empty, snapshots are returned regardless of changed properties.
+   * @param from The earliest commit date, inclusive. If null, there is no lower bound.
+   * @param to The latest commit date, exclusive. If null, there is no upper bound.
+   * @param cursor The next cursor of the previous page. If null, the first page is returned.
+   * @param size The maximum number of snapshots. If null or not positive, the default page size
+   *             is used.
+   */
+  protected String getAuditLogSnapshotsJson(Class type, UUID id, String author,
+                                            String changedPropertyName, LocalDateTime from,
+                                            LocalDateTime to, Long cursor, Integer size) {
+    int limit = null == size || size <= 0 ? Pagination.DEFAULT_PAGE_SIZE : size;
+
+    List<AuditLogSnapshotDto> snapshots = auditLogRepository.searchSnapshots(type, id,
+        StringUtils.trimToNull(author), StringUtils.trimToNull(changedPropertyName),
+        from, to, cursor, limit);
+    Long nextCursor = snapshots.size() < limit
+        ? null
+        : snapshots.get(snapshots.size() - 1).getSnapshotId();
+
+    try {
+      return objectMapper
+          .writer()
+          .without(SerializationFeature.INDENT_OUTPUT)
+          .writeValueAsString(new AuditLogSnapshotPageDto(snapshots, nextCursor));
+    } catch (JsonProcessingException ex) {
+      throw new IllegalStateException(ex);
+    }
+  }
+
   /**
    * Return a list of changes as a log (in other words, as a series of line entries).
    * @param type The type of class for which we wish to retrieve historical changes.
@@ -0,0 +1,85 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.web;
+
+import org.openlmis.referencedata.domain.RightName;
+import org.openlmis.referencedata.dto.ChangeLogEntryDto;
+import org.openlmis.referencedata.dto.ChangeLogPageDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.repository.ChangeLogRepository;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.ChangeLogMessageKeys;
+import org.openlmis.util.Pagination;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+import java.util.List;
+
+@Controller
+@Transactional(readOnly = true)
+public class ChangeLogController extends BaseController {
+
+  static final int MAX_PAGE_SIZE = 2000;
+
+  @Autowired
+  private ChangeLogRepository changeLogRepository;
+
+  /**
+   * Get a page of changes of reference data that follow the given sequence number, oldest first.
+   * To follow the log, pass the nextSince value of the previous page until hasMore is false.
+   *
+   * @param since The sequence number of the last change already seen. If missing, the log is
+   *              read from the beginning.
+   * @param types The types of changed objects to return. If missing, changes of all types are
+   *              returned. Types whose changes are not logged are rejected.
+   * @param size The maximum number of changes in the page. If missing or not positive, the
+   *             default page size is used. Sizes over {@value #MAX_PAGE_SIZE} are capped.
+   * @return a page of changes.
+   */
+  @RequestMapping(value = "/changes", method = RequestMethod.GET)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public ChangeLogPageDto getChanges(
+      @RequestParam(name = "since", required = false, defaultValue = "0") long since,
+      @RequestParam(name = "types", required = false) List<String> types,
+      @RequestParam(name = "size", required = false) Integer size) {
+    rightService.checkAdminRight(RightName.CHANGE_LOG_VIEW);
+
+    if (null != types) {
+      types.stream()
+          .filter(type -> !ChangeLogRepository.LOGGED_TYPES.contains(type))
+          .findFirst()
+          .ifPresent(type -> {
+            throw new ValidationMessageException(
+                new Message(ChangeLogMessageKeys.ERROR_TYPE_INVALID, type));
+          });
+    }
+
+    int requested = null == size || size <= 0 ? Pagination.DEFAULT_PAGE_SIZE : size;
+    int limit = Math.min(requested, MAX_PAGE_SIZE);
+    List<ChangeLogEntryDto> changes = changeLogRepository.findChanges(since, types, limit);
+    long nextSince = changes.isEmpty() ? since : changes.get(changes.size() - 1).getSeq();
+
+    return new ChangeLogPageDto(changes, nextSince, changes.size() == limit);
+  }
+}
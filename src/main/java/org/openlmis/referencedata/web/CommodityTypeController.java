@@ -23,6 +23,7 @@ import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.CommodityTypeRepository;
 import org.openlmis.referencedata.repository.OrderableRepository;
 import org.openlmis.referencedata.repository.TradeItemRepository;
+import org.openlmis.referencedata.service.PackCalculationService;
 import org.openlmis.referencedata.service.RightService;
 import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.messagekeys.CommodityTypeMessageKeys;
@@ -36,8 +37,11 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -57,6 +61,9 @@ public class CommodityTypeController extends BaseController {
   @Autowired
   private RightService rightService;
 
+  @Autowired
+  private PackCalculationService packCalculationService;
+
   /**
    * Add or update a commodity type
    * @param commodityType the commodity type to add or update.
@@ -73,6 +80,7 @@ public class CommodityTypeController extends BaseController {
     }
 
     repository.save(commodityType);
+    packCalculationService.invalidate();
     return commodityType;
   }
 
@@ -101,19 +109,67 @@ public class CommodityTypeController extends BaseController {
       throw new NotFoundException(CommodityTypeMessageKeys.ERROR_NOT_FOUND);
     }
 
-    // create set of trade items from their ids, stop if any one is not found
-    Set<TradeItem> tradeItems = new HashSet<>(tradeItemIds.size());
-    for (UUID id : tradeItemIds) {
-      TradeItem item = tradeItemRepository.findOne(id);
-      if (null == item) {
-        throw new NotFoundException(new Message(TradeItemMessageKeys.ERROR_NOT_FOUND_WITH_ID, id));
+    // update commodity type with new trade item association, stop if any one is not found
+    commodityType.setTradeItems(new HashSet<>(findTradeItems(tradeItemIds).values()));
+
+    return ResponseEntity.ok().build();
+  }
+
+  /**
+   * Update the {@link TradeItem}s that may fulfill for many {@link CommodityType}s at once. Each
+   * of the given commodity types gets exactly the given trade items, other commodity types are
+   * not changed. A trade item may be given for only one commodity type.
+   * @param tradeItemIds the persistence ids of TradeItems by the CommodityType's persistence id.
+   * @return {@link org.springframework.http.HttpStatus#OK} if successful.
+   * {@link org.springframework.http.HttpStatus#NOT_FOUND} if any of the given persistence ids
+   *     are not found.
+   */
+  @Transactional
+  @RequestMapping(value = "/commodityTypes/tradeItems", method = RequestMethod.PUT)
+  public ResponseEntity<?> updateTradeItemAssociations(
+      @RequestBody Map<UUID, Set<UUID>> tradeItemIds) {
+    rightService.checkAdminRight(ORDERABLES_MANAGE);
+
+    if (null == tradeItemIds || tradeItemIds.containsValue(null)) {
+      throw new ValidationMessageException(CommodityTypeMessageKeys.ERROR_TRADE_ITEMS_NULL);
+    }
+
+    Set<UUID> allTradeItemIds = new HashSet<>();
+    Set<UUID> duplicatedIds = new HashSet<>();
+    for (Set<UUID> ids : tradeItemIds.values()) {
+      for (UUID id : ids) {
+        if (!allTradeItemIds.add(id)) {
+          duplicatedIds.add(id);
+        }
       }
+    }
 
-      tradeItems.add(item);
+    if (!duplicatedIds.isEmpty()) {
+      throw new ValidationMessageException(
+          new Message(CommodityTypeMessageKeys.ERROR_TRADE_ITEMS_DUPLICATED, duplicatedIds));
     }
 
-    // update commodity type with new trade item association
-    commodityType.setTradeItems(tradeItems);
+    List<CommodityType> commodityTypes = tradeItemIds.isEmpty()
+        ? Collections.emptyList()
+        : commodityTypeRepository.findAllWithTradeItems(tradeItemIds.keySet());
+
+    if (commodityTypes.size() != tradeItemIds.size()) {
+      Set<UUID> missingIds = new HashSet<>(tradeItemIds.keySet());
+      commodityTypes.forEach(commodityType -> missingIds.remove(commodityType.getId()));
+      throw new NotFoundException(
+          new Message(CommodityTypeMessageKeys.ERROR_NOT_FOUND_WITH_ID, missingIds));
+    }
+
+    Map<UUID, TradeItem> tradeItems = findTradeItems(allTradeItemIds);
+
+    // release current trade items first, so that trade items can move between commodity types
+    commodityTypes.forEach(commodityType -> commodityType.setTradeItems(Collections.emptySet()));
+
+    for (CommodityType commodityType : commodityTypes) {
+      Set<TradeItem> items = new HashSet<>();
+      tradeItemIds.get(commodityType.getId()).forEach(id -> items.add(tradeItems.get(id)));
+      commodityType.setTradeItems(items);
+    }
 
     return ResponseEntity.ok().build();
   }
@@ -131,19 +187,30 @@ public class CommodityTypeController extends BaseController {
     rightService.checkAdminRight(ORDERABLES_MANAGE);
 
     // ensure commodity type exists
-    CommodityType commodityType = commodityTypeRepository.findOne(commodityTypeId);
-    if (null == commodityType) {
+    if (!commodityTypeRepository.exists(commodityTypeId)) {
       throw new NotFoundException(CommodityTypeMessageKeys.ERROR_NOT_FOUND);
     }
 
-    Set<UUID> ids = new HashSet<>();
-    List<TradeItem> items = tradeItemRepository.findForCommodityType(commodityType);
-    for (TradeItem item : items) {
-      ids.add(item.getId());
-    }
-
     return ResponseEntity
         .ok()
-        .body(ids);
+        .body(tradeItemRepository.findIdsForCommodityType(commodityTypeId));
+  }
+
+  private Map<UUID, TradeItem> findTradeItems(Set<UUID> ids) {
+    Map<UUID, TradeItem> tradeItems = new HashMap<>();
+    if (ids.isEmpty()) {
+      return tradeItems;
+    }
+
+    tradeItemRepository.findAll(ids).forEach(item -> tradeItems.put(item.getId(), item));
+
+    if (tradeItems.size() != ids.size()) {
+      Set<UUID> missingIds = new HashSet<>(ids);
+      missingIds.removeAll(tradeItems.keySet());
+      throw new NotFoundException(
+          new Message(TradeItemMessageKeys.ERROR_NOT_FOUND_WITH_ID, missingIds));
+    }
+
+    return tradeItems;
   }
 }
@@ -20,20 +20,20 @@ import static org.openlmis.referencedata.domain.RightName.FACILITY_APPROVED_ORDE
 
 import org.openlmis.referencedata.domain.Code;
 import org.openlmis.referencedata.domain.Facility;
-import org.openlmis.referencedata.domain.FacilityTypeApprovedProduct;
+import org.openlmis.referencedata.domain.FlatApprovedProduct;
 import org.openlmis.referencedata.domain.GeographicZone;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.RightName;
-import org.openlmis.referencedata.domain.SupervisoryNode;
-import org.openlmis.referencedata.domain.SupplyLine;
 import org.openlmis.referencedata.domain.SupportedProgram;
 import org.openlmis.referencedata.dto.ApprovedProductDto;
+import org.openlmis.referencedata.dto.FacilitiesApprovedProductsDto;
 import org.openlmis.referencedata.dto.FacilityDto;
+import org.openlmis.referencedata.dto.ProgramOrderableDto;
 import org.openlmis.referencedata.dto.SupportedProgramDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.FacilityRepository;
-import org.openlmis.referencedata.repository.FacilityTypeApprovedProductRepository;
+import org.openlmis.referencedata.repository.FlatApprovedProductRepository;
 import org.openlmis.referencedata.repository.GeographicZoneRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
@@ -47,7 +47,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Pageable;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -58,9 +60,13 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
@@ -78,7 +84,7 @@ public class FacilityController extends BaseController {
   private FacilityRepository facilityRepository;
 
   @Autowired
-  private FacilityTypeApprovedProductRepository facilityTypeApprovedProductRepository;
+  private FlatApprovedProductRepository flatApprovedProductRepository;
 
   @Autowired
   private GeographicZoneRepository geographicZoneRepository;
@@ -169,6 +175,44 @@ public class FacilityController extends BaseController {
     return getAuditLog(Facility.class, id, author, changedPropertyName, page, returnJson);
   }
 
+  /**
+   * Get a page of snapshots of the specified Facility, newest first.
+   *
+   * @param id The UUID of the facility whose audit log snapshots we want.
+   * @param author The author of the snapshots which should be returned.
+   *               If null or empty, snapshots are returned regardless of author.
+   * @param changedPropertyName The name of a property changed by the returned snapshots.
+   *               If null or empty, snapshots are returned regardless of changed properties.
+   * @param from The earliest commit date and time, inclusive.
+   * @param to The latest commit date and time, exclusive.
+   * @param cursor The nextCursor value of the previous page. If missing, the first page is
+   *               returned.
+   * @param size The maximum number of snapshots in the page.
+   */
+  @RequestMapping(value = "/facilities/{id}/auditLog/snapshots", method = RequestMethod.GET,
+      produces = MediaType.APPLICATION_JSON_VALUE)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public String getFacilityAuditLogSnapshots(
+      @PathVariable("id") UUID id,
+      @RequestParam(name = "author", required = false) String author,
+      @RequestParam(name = "changedPropertyName", required = false) String changedPropertyName,
+      @RequestParam(name = "from", required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+      @RequestParam(name = "to", required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+      @RequestParam(name = "cursor", required = false) Long cursor,
+      @RequestParam(name = "size", required = false) Integer size) {
+    rightService.checkAdminRight(RightName.FACILITIES_MANAGE_RIGHT);
+
+    if (!facilityRepository.exists(id)) {
+      throw new NotFoundException(FacilityMessageKeys.ERROR_NOT_FOUND);
+    }
+
+    return getAuditLogSnapshotsJson(Facility.class, id, author, changedPropertyName, from, to,
+        cursor, size);
+  }
+
 
   /**
    * Allows updating facilities.
@@ -243,12 +287,74 @@ public class FacilityController extends BaseController {
       throw new ValidationMessageException(FacilityMessageKeys.ERROR_NOT_FOUND);
     }
 
-    Collection<FacilityTypeApprovedProduct> products = facilityTypeApprovedProductRepository
-        .searchProducts(facilityId, programId, fullSupply);
+    UUID facilityTypeId = facility.getType().getId();
+    List<FlatApprovedProduct> products = null == programId
+        ? flatApprovedProductRepository.searchProducts(facilityTypeId, fullSupply)
+        : flatApprovedProductRepository.searchProducts(facilityTypeId, programId, fullSupply);
 
     return toDto(products);
   }
 
+  /**
+   * Returns full or non-full supply approved products for many facilities at once. Facilities
+   * are grouped by their type and approved products are retrieved once per distinct type. Each
+   * product is returned only once and facilities refer to it by ID.
+   *
+   * @param facilityIds IDs of the facilities
+   * @param programId   ID of the program
+   * @param fullSupply  true to retrieve full-supply products, false to retrieve non-full supply
+   *                    products
+   * @return approved products with their assignment to facilities
+   */
+  @RequestMapping(value = "/facilities/approvedProducts/search", method = RequestMethod.POST)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public FacilitiesApprovedProductsDto searchApprovedProducts(
+      @RequestBody Set<UUID> facilityIds,
+      @RequestParam(required = false, value = "programId") UUID programId,
+      @RequestParam(value = "fullSupply") boolean fullSupply) {
+    rightService.checkAdminRight(FACILITY_APPROVED_ORDERABLES_MANAGE);
+
+    Map<UUID, ApprovedProductDto> productDtos = new LinkedHashMap<>();
+    Map<UUID, List<UUID>> facilityProducts = new HashMap<>();
+
+    if (facilityIds.isEmpty()) {
+      return new FacilitiesApprovedProductsDto(productDtos, facilityProducts);
+    }
+
+    Map<UUID, List<Facility>> facilitiesByType = new HashMap<>();
+    Set<UUID> missingIds = new HashSet<>(facilityIds);
+    for (Facility facility : facilityRepository.findAll(facilityIds)) {
+      missingIds.remove(facility.getId());
+      facilitiesByType
+          .computeIfAbsent(facility.getType().getId(), id -> new ArrayList<>())
+          .add(facility);
+    }
+
+    if (!missingIds.isEmpty()) {
+      throw new ValidationMessageException(
+          new Message(FacilityMessageKeys.ERROR_NOT_FOUND_WITH_ID, missingIds));
+    }
+
+    for (Map.Entry<UUID, List<Facility>> entry : facilitiesByType.entrySet()) {
+      List<FlatApprovedProduct> products = null == programId
+          ? flatApprovedProductRepository.searchProducts(entry.getKey(), fullSupply)
+          : flatApprovedProductRepository.searchProducts(entry.getKey(), programId, fullSupply);
+
+      List<UUID> productIds = new ArrayList<>(products.size());
+      for (FlatApprovedProduct product : products) {
+        productDtos.computeIfAbsent(product.getId(), id -> toDto(product));
+        productIds.add(product.getId());
+      }
+
+      for (Facility facility : entry.getValue()) {
+        facilityProducts.put(facility.getId(), productIds);
+      }
+    }
+
+    return new FacilitiesApprovedProductsDto(productDtos, facilityProducts);
+  }
+
   /**
    * Allows deleting facility.
    *
@@ -283,21 +389,22 @@ public class FacilityController extends BaseController {
       @RequestParam(value = "supervisoryNodeId") UUID supervisoryNodeId) {
     rightService.checkAdminRight(RightName.FACILITIES_MANAGE_RIGHT);
 
-    Program program = programRepository.findOne(programId);
-    SupervisoryNode supervisoryNode = supervisoryNodeRepository.findOne(supervisoryNodeId);
-
-    if (program == null) {
+    if (!programRepository.exists(programId)) {
       throw new ValidationMessageException(
           new Message(ProgramMessageKeys.ERROR_NOT_FOUND_WITH_ID, programId));
     }
-    if (supervisoryNode == null) {
+    if (!supervisoryNodeRepository.exists(supervisoryNodeId)) {
       throw new ValidationMessageException(
           new Message(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND_WITH_ID, supervisoryNodeId));
     }
 
-    List<SupplyLine> supplyLines = supplyLineService.searchSupplyLines(program, supervisoryNode);
-    List<Facility> facilities = supplyLines.stream()
-        .map(SupplyLine::getSupplyingFacility).distinct().collect(Collectors.toList());
+    Set<UUID> facilityIds = supplyLineService.findSupplyingFacilityIds(
+        programId, supervisoryNodeId);
+    if (facilityIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    Iterable<Facility> facilities = facilityRepository.findAll(facilityIds);
     return toDto(facilities);
   }
 
@@ -349,17 +456,23 @@ public class FacilityController extends BaseController {
         .collect(Collectors.toList());
   }
 
-  private List<ApprovedProductDto> toDto(Collection<FacilityTypeApprovedProduct> products) {
+  private List<ApprovedProductDto> toDto(List<FlatApprovedProduct> products) {
     List<ApprovedProductDto> productDtos = new ArrayList<>();
-    for (FacilityTypeApprovedProduct product : products) {
-      ApprovedProductDto productDto = new ApprovedProductDto();
-      product.export(productDto);
-      productDtos.add(productDto);
+    for (FlatApprovedProduct product : products) {
+      productDtos.add(toDto(product));
     }
 
     return productDtos;
   }
 
+  private ApprovedProductDto toDto(FlatApprovedProduct product) {
+    ProgramOrderableDto programOrderableDto = new ProgramOrderableDto();
+    ApprovedProductDto productDto = new ApprovedProductDto(programOrderableDto);
+    product.export(productDto, programOrderableDto);
+
+    return productDto;
+  }
+
   private boolean addSupportedProgramsToFacility(Set<SupportedProgramDto> supportedProgramDtos,
                                                  Facility facility) {
     for (SupportedProgramDto dto : supportedProgramDtos) {
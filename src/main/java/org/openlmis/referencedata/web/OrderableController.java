@@ -15,21 +15,36 @@
 
 package org.openlmis.referencedata.web;
 
+import org.openlmis.referencedata.domain.CommodityType;
 import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.domain.TradeItem;
+import org.openlmis.referencedata.dto.OrderableImportResultDto;
+import org.openlmis.referencedata.dto.PacksToOrderDto;
 import org.openlmis.referencedata.exception.NotFoundException;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.service.OrderableImportService;
+import org.openlmis.referencedata.service.PackCalculationService;
 import org.openlmis.referencedata.service.RightService;
+import org.openlmis.referencedata.util.Message;
 import org.openlmis.referencedata.util.messagekeys.OrderableMessageKeys;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.openlmis.referencedata.domain.RightName.ORDERABLES_MANAGE;
@@ -37,12 +52,25 @@ import static org.openlmis.referencedata.domain.RightName.ORDERABLES_MANAGE;
 @RestController
 public class OrderableController extends BaseController {
 
+  private static final Map<String, Class<? extends Orderable>> TYPES = new HashMap<>();
+
+  static {
+    TYPES.put("commodityType", CommodityType.class);
+    TYPES.put("tradeItem", TradeItem.class);
+  }
+
   @Autowired
   private OrderableRepository repository;
 
   @Autowired
   private RightService rightService;
 
+  @Autowired
+  private OrderableImportService orderableImportService;
+
+  @Autowired
+  private PackCalculationService packCalculationService;
+
   /**
    * Finds all orderables.
    * @return a list of orderables
@@ -59,6 +87,68 @@ public class OrderableController extends BaseController {
     return allOrderables;
   }
 
+  /**
+   * Finds a page of orderables matching all of the provided parameters. Parameters that are not
+   * provided are not used for filtering.
+   *
+   * @param code      prefix of the orderable code
+   * @param name      part of the orderable name
+   * @param programId ID of the program the orderables have to be in
+   * @param type      orderable type, either commodityType or tradeItem
+   * @param pageable  page number, size and sort of the result
+   * @return a page of matching orderables
+   */
+  @RequestMapping(value = "/orderables/search", method = RequestMethod.GET)
+  public Page<Orderable> search(
+      @RequestParam(value = "code", required = false) String code,
+      @RequestParam(value = "name", required = false) String name,
+      @RequestParam(value = "program", required = false) UUID programId,
+      @RequestParam(value = "type", required = false) String type,
+      Pageable pageable) {
+    rightService.checkAdminRight(ORDERABLES_MANAGE);
+
+    Class<? extends Orderable> orderableType = null;
+    if (null != type) {
+      orderableType = TYPES.get(type);
+
+      if (null == orderableType) {
+        throw new ValidationMessageException(
+            new Message(OrderableMessageKeys.ERROR_SEARCH_TYPE_WRONG, type));
+      }
+    }
+
+    return repository.search(code, name, programId, orderableType, pageable);
+  }
+
+  /**
+   * Imports orderables and their program associations. The body is a JSON array of orderables
+   * that reference programs and categories by code, it is read and saved in chunks. Lines that
+   * fail validation are skipped and reported in the result.
+   *
+   * @param body JSON array of orderables to import
+   * @return the number of created and updated orderables and the errors of skipped lines
+   */
+  @RequestMapping(value = "/orderables/import", method = RequestMethod.POST)
+  public OrderableImportResultDto importOrderables(InputStream body) {
+    rightService.checkAdminRight(ORDERABLES_MANAGE);
+
+    return orderableImportService.importOrderables(body);
+  }
+
+  /**
+   * Calculates the number of packs to order for many orderables at once, using the pack size and
+   * rounding rules of each orderable.
+   *
+   * @param lines orderable ids with the number of dispensing units to order
+   * @return the given lines with the number of packs to order
+   */
+  @RequestMapping(value = "/orderables/packsToOrder", method = RequestMethod.POST)
+  public List<PacksToOrderDto> packsToOrder(@RequestBody List<PacksToOrderDto> lines) {
+    rightService.checkAdminRight(ORDERABLES_MANAGE);
+
+    return packCalculationService.packsToOrder(lines);
+  }
+
   /**
    * Finds product with chosen id.
    * @param productId id of the chosen product
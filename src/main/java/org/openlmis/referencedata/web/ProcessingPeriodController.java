@@ -25,7 +25,9 @@ import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.RightName;
+import org.openlmis.referencedata.dto.FacilityProcessingPeriodsDto;
 import org.openlmis.referencedata.dto.ProcessingPeriodDto;
+import org.openlmis.referencedata.dto.ProcessingPeriodGenerationDto;
 import org.openlmis.referencedata.dto.ResultDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
@@ -34,7 +36,9 @@ import org.openlmis.referencedata.repository.ProcessingPeriodRepository;
 import org.openlmis.referencedata.repository.ProcessingScheduleRepository;
 import org.openlmis.referencedata.repository.ProgramRepository;
 import org.openlmis.referencedata.service.ProcessingPeriodService;
+import org.openlmis.referencedata.service.RequisitionGroupProgramScheduleService;
 import org.openlmis.referencedata.util.messagekeys.ProcessingPeriodMessageKeys;
+import org.openlmis.referencedata.util.messagekeys.ProcessingScheduleMessageKeys;
 import org.openlmis.referencedata.validate.ProcessingPeriodValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -55,7 +59,10 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
@@ -75,6 +82,9 @@ public class ProcessingPeriodController extends BaseController {
   @Autowired
   private ProcessingPeriodService periodService;
 
+  @Autowired
+  private RequisitionGroupProgramScheduleService requisitionGroupProgramScheduleService;
+
   @Autowired
   private ProcessingScheduleRepository processingScheduleRepository;
 
@@ -143,6 +153,34 @@ public class ProcessingPeriodController extends BaseController {
     }
   }
 
+  /**
+   * Generates consecutive ProcessingPeriods of a schedule from the given rule. The periods are
+   * checked against the last existing period of the schedule once and saved in one batch.
+   *
+   * @param generationDto schedule, start date, number, duration and naming of the periods.
+   * @return the generated ProcessingPeriods.
+   */
+  @RequestMapping(value = "/processingPeriods/generate", method = RequestMethod.POST)
+  @ResponseStatus(HttpStatus.CREATED)
+  @ResponseBody
+  public List<ProcessingPeriodDto> generateProcessingPeriods(
+      @RequestBody ProcessingPeriodGenerationDto generationDto) {
+    rightService.checkAdminRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+    if (generationDto.getProcessingScheduleId() == null) {
+      throw new ValidationMessageException(
+          ProcessingPeriodMessageKeys.ERROR_PROCESSING_SCHEDULE_ID_NULL);
+    }
+
+    ProcessingSchedule processingSchedule =
+        findSchedule(generationDto.getProcessingScheduleId());
+    List<ProcessingPeriod> periods =
+        periodService.generatePeriods(processingSchedule, generationDto);
+
+    LOGGER.debug("Generated {} processing periods for schedule with id: {}", periods.size(),
+        processingSchedule.getId());
+    return exportToDtos(periods);
+  }
+
   /**
    * Get all ProcessingPeriods.
    *
@@ -265,6 +303,106 @@ public class ProcessingPeriodController extends BaseController {
     return exportToDtos(periods);
   }
 
+  /**
+   * Returns the ProcessingPeriod of the chosen schedule that contains the given date.
+   *
+   * @param processingScheduleId processing schedule of searched ProcessingPeriod.
+   * @param date                 which day shall ProcessingPeriod contain.
+   * @return the ProcessingPeriod.
+   */
+  @RequestMapping(value = "/processingPeriods/searchByScheduleAndContainedDate",
+      method = RequestMethod.GET)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public ProcessingPeriodDto searchPeriodByScheduleAndContainedDate(
+      @RequestParam(value = "processingScheduleId", required = true) UUID processingScheduleId,
+      @RequestParam(value = "date", required = true)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+    rightService.checkAdminRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+
+    ProcessingPeriod period = periodService
+        .findPeriodsContaining(findSchedule(processingScheduleId), Collections.singleton(date))
+        .get(date);
+
+    if (period == null) {
+      throw new NotFoundException(ProcessingPeriodMessageKeys.ERROR_NOT_FOUND);
+    }
+
+    return exportToDto(period);
+  }
+
+  /**
+   * Returns the ProcessingPeriods of the chosen schedule that contain the given dates. Dates that
+   * are not covered by any period are left out.
+   *
+   * @param processingScheduleId processing schedule of searched ProcessingPeriods.
+   * @param dates                which days shall ProcessingPeriods contain.
+   * @return ProcessingPeriods by contained date.
+   */
+  @RequestMapping(value = "/processingPeriods/searchByScheduleAndContainedDates",
+      method = RequestMethod.POST)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public Map<LocalDate, ProcessingPeriodDto> searchPeriodsByScheduleAndContainedDates(
+      @RequestParam(value = "processingScheduleId", required = true) UUID processingScheduleId,
+      @RequestBody Set<LocalDate> dates) {
+    rightService.checkAdminRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+
+    Map<LocalDate, ProcessingPeriodDto> periods = new HashMap<>();
+    periodService
+        .findPeriodsContaining(findSchedule(processingScheduleId), dates)
+        .forEach((date, period) -> periods.put(date, exportToDto(period)));
+
+    return periods;
+  }
+
+  /**
+   * Finds the processing schedules of many facilities for a program, together with the periods of
+   * each distinct schedule. Facilities without a schedule for the program are left out.
+   *
+   * @param programId   program of searched ProcessingPeriods.
+   * @param startDate   which day shall ProcessingPeriod start.
+   * @param facilityIds facilities of searched ProcessingPeriods.
+   * @return schedule ids by facility id and periods by schedule id.
+   */
+  @RequestMapping(value = "/processingPeriods/searchByFacilities", method = RequestMethod.POST)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public FacilityProcessingPeriodsDto searchPeriodsByFacilities(
+      @RequestParam(value = "programId", required = true) UUID programId,
+      @RequestParam(value = "startDate", required = false)
+      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+      @RequestBody Set<UUID> facilityIds) {
+    rightService.checkAdminRight(RightName.PROCESSING_SCHEDULES_MANAGE_RIGHT);
+
+    Map<UUID, UUID> processingScheduleIds = requisitionGroupProgramScheduleService
+        .findProcessingScheduleIds(programId, facilityIds);
+
+    Map<UUID, List<ProcessingPeriodDto>> periods = new HashMap<>();
+    for (UUID processingScheduleId : processingScheduleIds.values()) {
+      periods.putIfAbsent(processingScheduleId, new ArrayList<>());
+    }
+
+    List<ProcessingPeriod> schedulePeriods =
+        periodService.searchPeriodsBySchedules(periods.keySet(), startDate);
+    for (ProcessingPeriod period : schedulePeriods) {
+      periods.get(period.getProcessingSchedule().getId()).add(exportToDto(period));
+    }
+
+    return new FacilityProcessingPeriodsDto(processingScheduleIds, periods);
+  }
+
+  private ProcessingSchedule findSchedule(UUID processingScheduleId) {
+    ProcessingSchedule processingSchedule =
+        processingScheduleRepository.findOne(processingScheduleId);
+
+    if (processingSchedule == null) {
+      throw new NotFoundException(ProcessingScheduleMessageKeys.ERROR_NOT_FOUND);
+    }
+
+    return processingSchedule;
+  }
+
   private ProcessingPeriodDto exportToDto(ProcessingPeriod period) {
     ProcessingPeriodDto periodDto = new ProcessingPeriodDto();
     period.export(periodDto);
@@ -15,23 +15,34 @@
 
 package org.openlmis.referencedata.web;
 
+import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.RequisitionGroup;
+import org.openlmis.referencedata.dto.FacilityDto;
 import org.openlmis.referencedata.dto.RequisitionGroupBaseDto;
 import org.openlmis.referencedata.dto.RequisitionGroupDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.repository.FacilityRepository;
 import org.openlmis.referencedata.repository.RequisitionGroupRepository;
+import org.openlmis.referencedata.service.RequisitionGroupProgramScheduleService;
 import org.openlmis.referencedata.service.RightService;
+import org.openlmis.referencedata.util.Message;
+import org.openlmis.referencedata.util.messagekeys.FacilityMessageKeys;
 import org.openlmis.referencedata.util.messagekeys.RequisitionGroupMessageKeys;
 import org.openlmis.referencedata.validate.RequisitionGroupValidator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
+import org.springframework.validation.FieldError;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -58,6 +69,12 @@ public class RequisitionGroupController extends BaseController {
   @Autowired
   private RequisitionGroupRepository requisitionGroupRepository;
 
+  @Autowired
+  private FacilityRepository facilityRepository;
+
+  @Autowired
+  private RequisitionGroupProgramScheduleService requisitionGroupProgramScheduleService;
+
   @Autowired
   private RightService rightService;
 
@@ -81,11 +98,12 @@ public class RequisitionGroupController extends BaseController {
       requisitionGroupDto.setId(null);
       RequisitionGroup requisitionGroup = RequisitionGroup.newRequisitionGroup(requisitionGroupDto);
       requisitionGroupRepository.save(requisitionGroup);
+      requisitionGroupProgramScheduleService.invalidate(requisitionGroup.getId());
 
       LOGGER.debug("Created new requisitionGroup with id: " + requisitionGroup.getId());
       return exportToDto(requisitionGroup);
     } else {
-      throw new ValidationMessageException(bindingResult.getFieldError().getDefaultMessage());
+      throw new ValidationMessageException(toMessage(bindingResult.getFieldError()));
     }
   }
 
@@ -160,11 +178,12 @@ public class RequisitionGroupController extends BaseController {
       requisitionGroupToUpdate.updateFrom(
           RequisitionGroup.newRequisitionGroup(requisitionGroupDto));
       requisitionGroupToUpdate = requisitionGroupRepository.save(requisitionGroupToUpdate);
+      requisitionGroupProgramScheduleService.invalidate(requisitionGroupToUpdate.getId());
 
       LOGGER.debug("Saved requisitionGroup with id: " + requisitionGroupToUpdate.getId());
       return exportToDto(requisitionGroupToUpdate);
     } else {
-      throw new ValidationMessageException(bindingResult.getFieldError().getDefaultMessage());
+      throw new ValidationMessageException(toMessage(bindingResult.getFieldError()));
     }
   }
 
@@ -182,7 +201,107 @@ public class RequisitionGroupController extends BaseController {
       throw new NotFoundException(RequisitionGroupMessageKeys.ERROR_NOT_FOUND);
     } else {
       requisitionGroupRepository.delete(requisitionGroup);
+      requisitionGroupProgramScheduleService.invalidate(requisitionGroupId);
+    }
+  }
+
+  /**
+   * Get a page of member facilities of the chosen requisition group. Facilities are sorted by
+   * code unless a sort is given.
+   *
+   * @param requisitionGroupId UUID of the requisition group.
+   * @param pageable           page number, size and sort of the result.
+   * @return a page of member facilities.
+   */
+  @RequestMapping(value = "/requisitionGroups/{id}/memberFacilities", method = RequestMethod.GET)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public Page<FacilityDto> getMemberFacilities(@PathVariable("id") UUID requisitionGroupId,
+                                               Pageable pageable) {
+    rightService.checkAdminRight(REQUISITION_GROUPS_MANAGE);
+
+    if (!requisitionGroupRepository.exists(requisitionGroupId)) {
+      throw new NotFoundException(RequisitionGroupMessageKeys.ERROR_NOT_FOUND);
+    }
+
+    Pageable sortedPageable = null == pageable.getSort()
+        ? new PageRequest(pageable.getPageNumber(), pageable.getPageSize(), Sort.Direction.ASC,
+            "code")
+        : pageable;
+
+    return facilityRepository
+        .findMemberFacilities(requisitionGroupId, sortedPageable)
+        .map(this::exportToDto);
+  }
+
+  /**
+   * Adds a facility to the members of the chosen requisition group. Other members are not loaded
+   * nor changed. Adding a facility that is already a member has no effect.
+   *
+   * @param requisitionGroupId UUID of the requisition group.
+   * @param facilityId         UUID of the facility to add.
+   */
+  @RequestMapping(value = "/requisitionGroups/{id}/memberFacilities/{facilityId}",
+      method = RequestMethod.PUT)
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void addMemberFacility(@PathVariable("id") UUID requisitionGroupId,
+                                @PathVariable("facilityId") UUID facilityId) {
+    rightService.checkAdminRight(REQUISITION_GROUPS_MANAGE);
+
+    int added = requisitionGroupRepository.addMemberFacility(
+        findRequisitionGroup(requisitionGroupId), findFacility(facilityId));
+    requisitionGroupProgramScheduleService.invalidate(requisitionGroupId);
+    LOGGER.debug("Added {} member facility {} to requisitionGroup with id: {}",
+        added, facilityId, requisitionGroupId);
+  }
+
+  /**
+   * Removes a facility from the members of the chosen requisition group. Other members are not
+   * loaded nor changed. Removing a facility that is not a member has no effect.
+   *
+   * @param requisitionGroupId UUID of the requisition group.
+   * @param facilityId         UUID of the facility to remove.
+   */
+  @RequestMapping(value = "/requisitionGroups/{id}/memberFacilities/{facilityId}",
+      method = RequestMethod.DELETE)
+  @ResponseStatus(HttpStatus.NO_CONTENT)
+  public void removeMemberFacility(@PathVariable("id") UUID requisitionGroupId,
+                                   @PathVariable("facilityId") UUID facilityId) {
+    rightService.checkAdminRight(REQUISITION_GROUPS_MANAGE);
+
+    int removed = requisitionGroupRepository.removeMemberFacility(
+        findRequisitionGroup(requisitionGroupId), findFacility(facilityId));
+    requisitionGroupProgramScheduleService.invalidate(requisitionGroupId);
+    LOGGER.debug("Removed {} member facility {} from requisitionGroup with id: {}",
+        removed, facilityId, requisitionGroupId);
+  }
+
+  private RequisitionGroup findRequisitionGroup(UUID requisitionGroupId) {
+    RequisitionGroup requisitionGroup = requisitionGroupRepository.findOne(requisitionGroupId);
+    if (requisitionGroup == null) {
+      throw new NotFoundException(RequisitionGroupMessageKeys.ERROR_NOT_FOUND);
+    }
+
+    return requisitionGroup;
+  }
+
+  private Facility findFacility(UUID facilityId) {
+    Facility facility = facilityRepository.findOne(facilityId);
+    if (facility == null) {
+      throw new NotFoundException(FacilityMessageKeys.ERROR_NOT_FOUND);
     }
+
+    return facility;
+  }
+
+  private Message toMessage(FieldError fieldError) {
+    return new Message(fieldError.getDefaultMessage(), fieldError.getArguments());
+  }
+
+  private FacilityDto exportToDto(Facility facility) {
+    FacilityDto facilityDto = new FacilityDto();
+    facility.export(facilityDto);
+    return facilityDto;
   }
 
   private RequisitionGroupDto exportToDto(RequisitionGroup requisitionGroup) {
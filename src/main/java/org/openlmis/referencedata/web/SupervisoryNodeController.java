@@ -26,6 +26,7 @@ import org.openlmis.referencedata.domain.RightName;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.domain.User;
 import org.openlmis.referencedata.dto.SupervisoryNodeDto;
+import org.openlmis.referencedata.dto.SupervisoryNodeTreeItemDto;
 import org.openlmis.referencedata.dto.UserDto;
 import org.openlmis.referencedata.exception.NotFoundException;
 import org.openlmis.referencedata.exception.ValidationMessageException;
@@ -131,6 +132,36 @@ public class SupervisoryNodeController extends BaseController {
     return supervisoryNodeDtos;
   }
 
+  /**
+   * Get the supervisory node hierarchy as a flat list of nodes linked by ids. The list is read
+   * with a single query and parents are listed before their child nodes.
+   *
+   * @param rootId   UUID of the node to start from. If not given, all top level nodes are used.
+   * @param maxDepth number of levels below the root nodes to include. If not given, all levels
+   *                 are included.
+   * @return the nodes of the hierarchy ordered by depth and code.
+   */
+  @RequestMapping(value = "/supervisoryNodes/tree", method = RequestMethod.GET)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public List<SupervisoryNodeTreeItemDto> getSupervisoryNodeTree(
+      @RequestParam(value = "rootId", required = false) UUID rootId,
+      @RequestParam(value = "maxDepth", required = false) Integer maxDepth) {
+    rightService.checkAdminRight(SUPERVISORY_NODES_MANAGE);
+
+    if (null != maxDepth && maxDepth < 0) {
+      throw new ValidationMessageException(
+          new Message(SupervisoryNodeMessageKeys.ERROR_MAX_DEPTH_NEGATIVE, maxDepth));
+    }
+
+    if (null != rootId && !supervisoryNodeRepository.exists(rootId)) {
+      throw new NotFoundException(
+          new Message(SupervisoryNodeMessageKeys.ERROR_NOT_FOUND_WITH_ID, rootId));
+    }
+
+    return supervisoryNodeRepository.findTree(rootId, maxDepth);
+  }
+
   /**
    * Get chosen supervisoryNode.
    *
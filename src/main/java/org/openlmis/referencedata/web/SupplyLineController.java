@@ -15,20 +15,18 @@
 
 package org.openlmis.referencedata.web;
 
-import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.domain.SupplyLine;
 import org.openlmis.referencedata.dto.ProgramDto;
+import org.openlmis.referencedata.dto.ProgramSupervisoryNodeDto;
 import org.openlmis.referencedata.dto.SupervisoryNodeDto;
 import org.openlmis.referencedata.dto.SupplyLineDto;
 import org.openlmis.referencedata.dto.SupplyLineSimpleDto;
 import org.openlmis.referencedata.exception.NotFoundException;
-import org.openlmis.referencedata.repository.FacilityRepository;
-import org.openlmis.referencedata.repository.ProgramRepository;
-import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
 import org.openlmis.referencedata.repository.SupplyLineRepository;
 import org.openlmis.referencedata.service.SupplyLineService;
+import org.openlmis.referencedata.service.SupplyLineService.SupplyLineRoute;
 import org.openlmis.referencedata.util.messagekeys.SupplyLineMessageKeys;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,7 +43,9 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.ResponseStatus;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.openlmis.referencedata.domain.RightName.SUPPLY_LINES_MANAGE;
@@ -62,15 +62,6 @@ public class SupplyLineController extends BaseController {
   @Autowired
   private SupplyLineRepository supplyLineRepository;
 
-  @Autowired
-  private ProgramRepository programRepository;
-
-  @Autowired
-  private SupervisoryNodeRepository supervisoryNodeRepository;
-
-  @Autowired
-  private FacilityRepository facilityRepository;
-
   /**
    * Allows creating new supplyLines. If the id is specified, it will be ignored.
    *
@@ -87,6 +78,7 @@ public class SupplyLineController extends BaseController {
     supplyLineDto.setId(null);
     SupplyLine supplyLine = SupplyLine.newSupplyLine(supplyLineDto);
     supplyLineRepository.save(supplyLine);
+    supplyLineService.invalidate();
     LOGGER.debug("Created new supplyLine with id: " + supplyLine.getId());
     return exportToDto(supplyLine);
   }
@@ -136,6 +128,7 @@ public class SupplyLineController extends BaseController {
 
     supplyLineToUpdate.updateFrom(SupplyLine.newSupplyLine(supplyLineDto));
     supplyLineRepository.save(supplyLineToUpdate);
+    supplyLineService.invalidate();
 
     LOGGER.debug("Saved supplyLine with id: " + supplyLineToUpdate.getId());
     return exportToDto(supplyLineToUpdate);
@@ -176,6 +169,7 @@ public class SupplyLineController extends BaseController {
       throw new NotFoundException(SupplyLineMessageKeys.ERROR_NOT_FOUND);
     } else {
       supplyLineRepository.delete(supplyLine);
+      supplyLineService.invalidate();
     }
   }
 
@@ -223,24 +217,39 @@ public class SupplyLineController extends BaseController {
       @RequestParam(value = "supplyingFacilityId", required = false) UUID supplyingFacilityId) {
     rightService.checkAdminRight(SUPPLY_LINES_MANAGE);
 
-    Program program = programRepository.findOne(programId);
-    SupervisoryNode supervisoryNode = null != supervisoryNodeId
-        ? supervisoryNodeRepository.findOne(supervisoryNodeId)
-        : null;
-    Facility supplyingFacility = null != supplyingFacilityId
-        ? facilityRepository.findOne(supplyingFacilityId)
-        : null;
+    return toSimpleDtos(supplyLineService.searchSupplyLineRoutes(
+        programId, supervisoryNodeId, supplyingFacilityId));
+  }
+
+  /**
+   * Returns Supply Lines of many pairs of program and supervisory node with a single request.
+   *
+   * @param pairs pairs of program and supervisory node ids.
+   * @return Supply Lines by supervisory node id by program id.
+   */
+  @RequestMapping(value = "/supplyLines/searchByUUIDs", method = RequestMethod.POST)
+  @ResponseStatus(HttpStatus.OK)
+  @ResponseBody
+  public Map<UUID, Map<UUID, List<SupplyLineSimpleDto>>> searchSupplyLinesByUuids(
+      @RequestBody List<ProgramSupervisoryNodeDto> pairs) {
+    rightService.checkAdminRight(SUPPLY_LINES_MANAGE);
 
+    Map<UUID, Map<UUID, List<SupplyLineSimpleDto>>> result = new HashMap<>();
+    supplyLineService.searchSupplyLineRoutes(pairs).forEach((programId, byNode) -> {
+      Map<UUID, List<SupplyLineSimpleDto>> dtos = new HashMap<>();
+      byNode.forEach((supervisoryNodeId, routes) ->
+          dtos.put(supervisoryNodeId, toSimpleDtos(routes)));
+      result.put(programId, dtos);
+    });
 
-    List<SupplyLine> resultSupplyLine = supplyLineService.searchSupplyLines(
-        program, supervisoryNode, supplyingFacility
-    );
+    return result;
+  }
 
+  private List<SupplyLineSimpleDto> toSimpleDtos(List<SupplyLineRoute> routes) {
     List<SupplyLineSimpleDto> result = new ArrayList<>();
-    for (SupplyLine supplyLine : resultSupplyLine) {
-      SupplyLineSimpleDto supplyLineSimpleDto = new SupplyLineSimpleDto();
-      supplyLine.export(supplyLineSimpleDto);
-      result.add(supplyLineSimpleDto);
+    for (SupplyLineRoute route : routes) {
+      result.add(new SupplyLineSimpleDto(route.getId(), route.getSupervisoryNodeId(),
+          route.getDescription(), route.getProgramId(), route.getSupplyingFacilityId()));
     }
 
     return result;
@@ -18,6 +18,7 @@ package org.openlmis.referencedata.web;
 import org.openlmis.referencedata.domain.Orderable;
 import org.openlmis.referencedata.domain.TradeItem;
 import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.service.PackCalculationService;
 import org.openlmis.referencedata.service.RightService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.transaction.annotation.Transactional;
@@ -37,6 +38,9 @@ public class TradeItemController extends BaseController {
   @Autowired
   private RightService rightService;
 
+  @Autowired
+  private PackCalculationService packCalculationService;
+
   /**
    * Create or update a trade item.
    * @return the trade item that was created or updated.
@@ -53,6 +57,7 @@ public class TradeItemController extends BaseController {
     }
 
     repository.save(tradeItem);
+    packCalculationService.invalidate();
     return tradeItem;
   }
 }
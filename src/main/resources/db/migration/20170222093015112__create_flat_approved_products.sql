@@ -0,0 +1,124 @@
+--
+-- Flattened, read-only copy of facility type approved products joined with their program
+-- orderable, orderable and orderable display category. Rows are maintained by the triggers below.
+--
+
+CREATE TABLE referencedata.flat_approved_products (
+    id uuid NOT NULL,
+    facilitytypeid uuid NOT NULL,
+    programid uuid NOT NULL,
+    programorderableid uuid NOT NULL,
+    orderableid uuid NOT NULL,
+    orderablecode character varying(255),
+    orderablename character varying(255),
+    orderablepacksize bigint NOT NULL,
+    orderabledisplaycategoryid uuid NOT NULL,
+    categorydisplayname character varying(255),
+    categorydisplayorder integer NOT NULL,
+    active boolean NOT NULL,
+    fullsupply boolean NOT NULL,
+    displayorder integer NOT NULL,
+    dosesperpatient integer,
+    priceperpack numeric(19,2),
+    maxperiodsofstock double precision NOT NULL,
+    minperiodsofstock double precision,
+    emergencyorderpoint double precision,
+    CONSTRAINT flat_approved_products_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX flat_approved_products_search_idx
+    ON referencedata.flat_approved_products
+    (facilitytypeid, fullsupply, programid, categorydisplayorder, categorydisplayname, orderablecode)
+    WHERE active;
+
+CREATE INDEX flat_approved_products_programorderableid_idx
+    ON referencedata.flat_approved_products (programorderableid);
+
+CREATE INDEX flat_approved_products_orderableid_idx
+    ON referencedata.flat_approved_products (orderableid);
+
+CREATE INDEX flat_approved_products_orderabledisplaycategoryid_idx
+    ON referencedata.flat_approved_products (orderabledisplaycategoryid);
+
+--
+-- Re-reads the given approved products from the source tables.
+--
+
+CREATE FUNCTION referencedata.refresh_flat_approved_products(ftapids uuid[]) RETURNS void AS $$
+BEGIN
+  DELETE FROM referencedata.flat_approved_products WHERE id = ANY(ftapids);
+
+  INSERT INTO referencedata.flat_approved_products (id, facilitytypeid, programid,
+      programorderableid, orderableid, orderablecode, orderablename, orderablepacksize,
+      orderabledisplaycategoryid, categorydisplayname, categorydisplayorder, active, fullsupply,
+      displayorder, dosesperpatient, priceperpack, maxperiodsofstock, minperiodsofstock,
+      emergencyorderpoint)
+  SELECT ftap.id, ftap.facilitytypeid, po.programid,
+      po.id, o.id, o.code, o.name, o.packsize,
+      c.id, c.displayname, c.displayorder, po.active, po.fullsupply,
+      po.displayorder, po.dosesperpatient, po.priceperpack, ftap.maxperiodsofstock,
+      ftap.minperiodsofstock, ftap.emergencyorderpoint
+  FROM referencedata.facility_type_approved_products ftap
+    JOIN referencedata.program_orderables po ON po.id = ftap.programorderableid
+    JOIN referencedata.orderables o ON o.id = po.orderableid
+    JOIN referencedata.orderable_display_categories c ON c.id = po.orderabledisplaycategoryid
+  WHERE ftap.id = ANY(ftapids);
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION referencedata.flat_approved_products_ftap_trigger() RETURNS trigger AS $$
+BEGIN
+  IF TG_OP = 'DELETE' THEN
+    DELETE FROM referencedata.flat_approved_products WHERE id = OLD.id;
+  ELSE
+    PERFORM referencedata.refresh_flat_approved_products(ARRAY[NEW.id]);
+  END IF;
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION referencedata.flat_approved_products_program_orderable_trigger()
+    RETURNS trigger AS $$
+BEGIN
+  PERFORM referencedata.refresh_flat_approved_products(ARRAY(
+    SELECT id FROM referencedata.facility_type_approved_products
+    WHERE programorderableid = NEW.id));
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION referencedata.flat_approved_products_orderable_trigger() RETURNS trigger AS $$
+BEGIN
+  PERFORM referencedata.refresh_flat_approved_products(ARRAY(
+    SELECT id FROM referencedata.flat_approved_products WHERE orderableid = NEW.id));
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION referencedata.flat_approved_products_category_trigger() RETURNS trigger AS $$
+BEGIN
+  PERFORM referencedata.refresh_flat_approved_products(ARRAY(
+    SELECT id FROM referencedata.flat_approved_products
+    WHERE orderabledisplaycategoryid = NEW.id));
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER flat_approved_products_refresh
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.facility_type_approved_products
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.flat_approved_products_ftap_trigger();
+
+CREATE TRIGGER flat_approved_products_refresh
+    AFTER UPDATE ON referencedata.program_orderables
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.flat_approved_products_program_orderable_trigger();
+
+CREATE TRIGGER flat_approved_products_refresh
+    AFTER UPDATE ON referencedata.orderables
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.flat_approved_products_orderable_trigger();
+
+CREATE TRIGGER flat_approved_products_refresh
+    AFTER UPDATE ON referencedata.orderable_display_categories
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.flat_approved_products_category_trigger();
+
+SELECT referencedata.refresh_flat_approved_products(ARRAY(
+    SELECT id FROM referencedata.facility_type_approved_products));
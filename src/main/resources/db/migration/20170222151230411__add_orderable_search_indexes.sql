@@ -0,0 +1,10 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX orderables_lower_code_idx
+    ON referencedata.orderables (lower(code) text_pattern_ops);
+
+CREATE INDEX orderables_lower_name_trgm_idx
+    ON referencedata.orderables USING gin (lower(name) gin_trgm_ops);
+
+CREATE INDEX program_orderables_programid_orderableid_idx
+    ON referencedata.program_orderables (programid, orderableid);
@@ -0,0 +1,2 @@
+CREATE INDEX processing_periods_processingscheduleid_startdate_enddate_idx
+    ON referencedata.processing_periods (processingscheduleid, startdate, enddate);
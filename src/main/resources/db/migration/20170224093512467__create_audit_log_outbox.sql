@@ -0,0 +1,10 @@
+CREATE TABLE referencedata.audit_log_outbox (
+    id uuid PRIMARY KEY,
+    entitytype text NOT NULL,
+    entityid uuid NOT NULL,
+    author text,
+    deleted boolean NOT NULL,
+    createddate timestamp with time zone NOT NULL
+);
+
+CREATE INDEX audit_log_outbox_createddate_idx ON referencedata.audit_log_outbox (createddate);
@@ -0,0 +1,11 @@
+--
+-- Data for Name: rights; Type: TABLE DATA; Schema: referencedata; Owner: postgres
+--
+
+INSERT INTO rights (id, description, name, type) VALUES ('5b2b0b8e-7c0a-4c58-9d0c-3b1d7a7f2c61', NULL, 'AUDIT_LOG_VIEW', 'GENERAL_ADMIN');
+
+--
+-- Data for Name: role_rights; Type: TABLE DATA; Schema: referencedata; Owner: postgres
+--
+
+INSERT INTO referencedata.role_rights (roleid, rightid) VALUES ('a439c5de-b8aa-11e6-80f5-76304dec7eb7', '5b2b0b8e-7c0a-4c58-9d0c-3b1d7a7f2c61');
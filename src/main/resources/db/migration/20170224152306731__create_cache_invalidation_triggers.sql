@@ -0,0 +1,88 @@
+--
+-- Notifies all instances of the service about changes of cached data, on the
+-- referencedata_cache_invalidation channel. The payload is the name of the changed table, followed
+-- by a comma and the id of the changed object if the trigger is given the name of its id column.
+-- Notifications are only delivered once the transaction commits, and identical notifications of
+-- one transaction are delivered once.
+--
+
+CREATE FUNCTION referencedata.notify_cache_invalidation() RETURNS trigger AS $$
+DECLARE
+  payload text := TG_TABLE_NAME;
+BEGIN
+  IF TG_NARGS > 0 THEN
+    IF TG_OP = 'DELETE' THEN
+      payload := payload || ',' || (row_to_json(OLD) ->> TG_ARGV[0]);
+    ELSE
+      payload := payload || ',' || (row_to_json(NEW) ->> TG_ARGV[0]);
+    END IF;
+  END IF;
+
+  PERFORM pg_notify('referencedata_cache_invalidation', payload);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.programs
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.rights
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.right_attachments
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('rightid');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.roles
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.role_rights
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('roleid');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.facility_types
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.facility_operators
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.geographic_levels
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.geographic_zones
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.orderable_display_categories
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.processing_schedules
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.requisition_groups
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('id');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.requisition_group_members
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('requisitiongroupid');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.requisition_group_program_schedules
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.notify_cache_invalidation('requisitiongroupid');
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.orderables
+    FOR EACH STATEMENT EXECUTE PROCEDURE referencedata.notify_cache_invalidation();
+
+CREATE TRIGGER cache_invalidation
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.supply_lines
+    FOR EACH STATEMENT EXECUTE PROCEDURE referencedata.notify_cache_invalidation();
@@ -0,0 +1,174 @@
+--
+-- Log of changes of reference data, one row per changed object. Rows are written by triggers in
+-- the transaction that makes the change. The seq column is the position of the change in the
+-- global log. It is left empty on insert and assigned by referencedata.sequence_change_log()
+-- when the log is read, because ids are taken in insert order and a transaction that commits
+-- late could otherwise add a change behind one that a reader has already passed.
+--
+
+CREATE SEQUENCE referencedata.change_log_seq;
+
+CREATE TABLE referencedata.change_log (
+    id bigserial PRIMARY KEY,
+    seq bigint UNIQUE,
+    type text NOT NULL,
+    entityid uuid NOT NULL,
+    deleted boolean NOT NULL,
+    changeddate timestamp with time zone NOT NULL DEFAULT now()
+);
+
+CREATE INDEX change_log_unsequenced_idx ON referencedata.change_log (id) WHERE seq IS NULL;
+
+--
+-- Records a change of the row the trigger fires for. Tables that hold a part of another object,
+-- like the rights of a role, pass the type and the id column of that object; a change of such a
+-- row is recorded as an update of the object.
+--
+
+CREATE FUNCTION referencedata.record_change() RETURNS trigger AS $$
+DECLARE
+  changed_type text := TG_TABLE_NAME;
+  id_column text := 'id';
+  is_deleted boolean := TG_OP = 'DELETE';
+  changed_row json;
+BEGIN
+  IF TG_NARGS > 0 THEN
+    changed_type := TG_ARGV[0];
+    id_column := TG_ARGV[1];
+    is_deleted := false;
+  END IF;
+
+  IF TG_OP = 'DELETE' THEN
+    changed_row := row_to_json(OLD);
+  ELSE
+    changed_row := row_to_json(NEW);
+  END IF;
+
+  INSERT INTO referencedata.change_log (type, entityid, deleted)
+  VALUES (changed_type, (changed_row ->> id_column)::uuid, is_deleted);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+--
+-- Assigns positions to all committed changes that have none yet, in the order they were made,
+-- and returns their number. Callers are serialized by a transaction level advisory lock, held
+-- until the calling transaction ends, so positions are handed out in commit order.
+--
+
+CREATE FUNCTION referencedata.sequence_change_log() RETURNS integer AS $$
+DECLARE
+  sequenced integer;
+BEGIN
+  PERFORM pg_advisory_xact_lock(hashtext('referencedata.change_log'));
+
+  WITH pending AS (
+    SELECT id, nextval('referencedata.change_log_seq') AS seq
+    FROM (SELECT id FROM referencedata.change_log WHERE seq IS NULL ORDER BY id) ordered
+  )
+  UPDATE referencedata.change_log c SET seq = pending.seq FROM pending WHERE c.id = pending.id;
+
+  GET DIAGNOSTICS sequenced = ROW_COUNT;
+  RETURN sequenced;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.facilities
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.facility_operators
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.facility_type_approved_products
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.facility_types
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.geographic_levels
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.geographic_zones
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.orderable_display_categories
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.orderables
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.processing_periods
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.processing_schedules
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.program_orderables
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.programs
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.requisition_groups
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.rights
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.roles
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.stock_adjustment_reasons
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.supervisory_nodes
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.supply_lines
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.users
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change();
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.right_attachments
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change('rights', 'rightid');
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.role_assignments
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change('users', 'userid');
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.role_rights
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change('roles', 'roleid');
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.requisition_group_members
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change('requisition_groups', 'requisitiongroupid');
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.requisition_group_program_schedules
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change('requisition_groups', 'requisitiongroupid');
+
+CREATE TRIGGER change_log
+    AFTER INSERT OR UPDATE OR DELETE ON referencedata.supported_programs
+    FOR EACH ROW EXECUTE PROCEDURE referencedata.record_change('facilities', 'facilityid');
@@ -0,0 +1,11 @@
+--
+-- Data for Name: rights; Type: TABLE DATA; Schema: referencedata; Owner: postgres
+--
+
+INSERT INTO rights (id, description, name, type) VALUES ('9c1e3b47-2f6d-4a8e-b5c0-7d4e18a6f392', NULL, 'CHANGE_LOG_VIEW', 'GENERAL_ADMIN');
+
+--
+-- Data for Name: role_rights; Type: TABLE DATA; Schema: referencedata; Owner: postgres
+--
+
+INSERT INTO referencedata.role_rights (roleid, rightid) VALUES ('a439c5de-b8aa-11e6-80f5-76304dec7eb7', '9c1e3b47-2f6d-4a8e-b5c0-7d4e18a6f392');
@@ -0,0 +1 @@
+ALTER TABLE referencedata.audit_log_outbox ADD COLUMN failed boolean NOT NULL DEFAULT false;
@@ -0,0 +1,29 @@
+--
+-- Changes are numbered by a scheduled sequencer instead of by readers of the log, in batches of
+-- the given size. Only one sequencer numbers at a time; another one that finds the lock taken
+-- returns 0 instead of waiting. The lock is held until the calling transaction ends, so positions
+-- are handed out in commit order as long as each batch is committed on its own.
+--
+
+DROP FUNCTION referencedata.sequence_change_log();
+
+CREATE FUNCTION referencedata.sequence_change_log(batch_size integer) RETURNS integer AS $$
+DECLARE
+  sequenced integer;
+BEGIN
+  IF NOT pg_try_advisory_xact_lock(hashtext('referencedata.change_log')) THEN
+    RETURN 0;
+  END IF;
+
+  WITH pending AS (
+    SELECT id, nextval('referencedata.change_log_seq') AS seq
+    FROM (
+      SELECT id FROM referencedata.change_log WHERE seq IS NULL ORDER BY id LIMIT batch_size
+    ) ordered
+  )
+  UPDATE referencedata.change_log c SET seq = pending.seq FROM pending WHERE c.id = pending.id;
+
+  GET DIAGNOSTICS sequenced = ROW_COUNT;
+  RETURN sequenced;
+END;
+$$ LANGUAGE plpgsql;
@@ -0,0 +1,117 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyLong;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.AuditLogRetentionJob.CompactionPeriod;
+import org.openlmis.referencedata.dto.AuditLogRetentionStatisticsDto;
+import org.openlmis.referencedata.repository.AuditLogRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuditLogRetentionJobTest {
+
+  private static final LocalDateTime CUTOFF = LocalDateTime.of(2017, 1, 1, 0, 0);
+
+  @Mock
+  private AuditLogRepository auditLogRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @InjectMocks
+  private AuditLogRetentionJob job;
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(job, "compactTo", CompactionPeriod.WEEK);
+    ReflectionTestUtils.setField(job, "batchSize", 2);
+  }
+
+  @Test
+  public void shouldDeleteCompactableSnapshotsInBatches() {
+    List<Long> firstBatch = Arrays.asList(1L, 5L);
+    List<Long> secondBatch = Collections.singletonList(8L);
+    when(auditLogRepository.findCompactableSnapshots(CUTOFF, "week", 0, 2))
+        .thenReturn(firstBatch);
+    when(auditLogRepository.findCompactableSnapshots(CUTOFF, "week", 5, 2))
+        .thenReturn(secondBatch);
+
+    assertEquals(3, job.compact(CUTOFF));
+
+    verify(auditLogRepository).deleteSnapshots(firstBatch);
+    verify(auditLogRepository).deleteSnapshots(secondBatch);
+    verify(auditLogRepository, never()).findCompactableSnapshots(eq(CUTOFF), anyString(),
+        eq(8L), anyInt());
+
+    AuditLogRetentionStatisticsDto statistics = job.getStatistics();
+    assertTrue(statistics.getLastRunSucceeded());
+    assertEquals(CUTOFF, statistics.getLastRunCutoff());
+    assertEquals(Long.valueOf(3), statistics.getDeletedSnapshots());
+    assertEquals(Integer.valueOf(2), statistics.getBatches());
+  }
+
+  @Test
+  public void shouldKeepStatisticsOfFailedRun() {
+    when(auditLogRepository.findCompactableSnapshots(CUTOFF, "week", 0, 2))
+        .thenReturn(Arrays.asList(1L, 5L));
+    when(auditLogRepository.findCompactableSnapshots(CUTOFF, "week", 5, 2))
+        .thenThrow(new IllegalStateException());
+
+    try {
+      job.compact(CUTOFF);
+      fail("Expected the compaction to fail");
+    } catch (IllegalStateException ex) {
+      // expected
+    }
+
+    AuditLogRetentionStatisticsDto statistics = job.getStatistics();
+    assertFalse(statistics.getLastRunSucceeded());
+    assertEquals(Long.valueOf(2), statistics.getDeletedSnapshots());
+    assertEquals(Integer.valueOf(1), statistics.getBatches());
+  }
+
+  @Test
+  public void shouldStopWhenThereIsNothingToCompact() {
+    when(auditLogRepository.findCompactableSnapshots(eq(CUTOFF), anyString(), anyLong(),
+        anyInt())).thenReturn(Collections.emptyList());
+
+    assertEquals(0, job.compact(CUTOFF));
+  }
+}
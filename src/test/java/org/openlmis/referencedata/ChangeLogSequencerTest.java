@@ -0,0 +1,68 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.repository.ChangeLogRepository;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ChangeLogSequencerTest {
+
+  @Mock
+  private ChangeLogRepository changeLogRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @InjectMocks
+  private ChangeLogSequencer sequencer;
+
+  @Before
+  public void setUp() {
+    ReflectionTestUtils.setField(sequencer, "batchSize", 2);
+  }
+
+  @Test
+  public void shouldNumberChangesInBatchesUntilNoneAreLeft() {
+    when(changeLogRepository.sequenceChanges(2)).thenReturn(2, 2, 1);
+
+    assertEquals(5, sequencer.sequence());
+
+    verify(changeLogRepository, times(3)).sequenceChanges(2);
+    verify(transactionManager, times(3)).commit(null);
+  }
+
+  @Test
+  public void shouldStopWhenAnotherInstanceIsNumbering() {
+    when(changeLogRepository.sequenceChanges(2)).thenReturn(0);
+
+    assertEquals(0, sequencer.sequence());
+
+    verify(changeLogRepository).sequenceChanges(2);
+  }
+}
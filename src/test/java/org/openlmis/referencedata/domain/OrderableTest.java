@@ -17,6 +17,8 @@ package org.openlmis.referencedata.domain;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -99,6 +101,37 @@ public class OrderableTest {
 
     assertEquals(1, ibuprofen.getPrograms().size());
     assertFalse(ibuprofen.getPrograms().contains(ibuprofenInMalaria));
+    assertNull(ibuprofen.getProgramOrderable(malaria));
+    assertEquals(nsaidCat, ibuprofen.getProgramOrderable(em).getOrderableDisplayCategory());
+  }
+
+  @Test
+  public void shouldFindProgramOrderableByProgram() {
+    Program malaria = new Program("malaria");
+    OrderableDisplayCategory painCat = OrderableDisplayCategory.createNew(Code.code("pain"));
+    ProgramOrderable ibuprofenInMalaria =
+        ProgramOrderable.createNew(malaria, painCat, ibuprofen, CurrencyUnit.USD);
+    ibuprofen.addToProgram(ibuprofenInMalaria);
+
+    assertEquals(ibuprofenInMalaria, ibuprofen.getProgramOrderable(new Program("malaria")));
+    assertNull(ibuprofen.getProgramOrderable(new Program("family planning")));
+  }
+
+  @Test
+  public void keepProgramsOfShouldOnlyAddMissingPrograms() {
+    Program malaria = new Program("malaria");
+    OrderableDisplayCategory painCat = OrderableDisplayCategory.createNew(Code.code("pain"));
+    Orderable stored =
+        CommodityType.newCommodityType("ibuprofen", "each", "Ibuprofen", "test", 10, 5, false);
+    stored.addToProgram(ProgramOrderable.createNew(em, painCat, stored, CurrencyUnit.USD));
+    stored.addToProgram(ProgramOrderable.createNew(malaria, painCat, stored, CurrencyUnit.USD));
+    ProgramOrderable ibuprofenInEm = ibuprofen.getProgramOrderable(em);
+
+    ibuprofen.keepProgramsOf(stored);
+
+    assertEquals(2, ibuprofen.getPrograms().size());
+    assertSame(ibuprofenInEm, ibuprofen.getProgramOrderable(em));
+    assertEquals(painCat, ibuprofen.getProgramOrderable(malaria).getOrderableDisplayCategory());
   }
 
   @Test
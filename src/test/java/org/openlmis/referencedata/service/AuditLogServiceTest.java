@@ -0,0 +1,206 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyBoolean;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.javers.core.Javers;
+import org.javers.core.metamodel.object.CdoSnapshot;
+import org.javers.spring.auditable.AuthorProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.AuditLogOutboxEntry;
+import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.repository.AuditLogOutboxEntryRepository;
+import org.springframework.context.ApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@RunWith(MockitoJUnitRunner.class)
+public class AuditLogServiceTest {
+
+  private static final String AUTHOR = "admin";
+
+  @Mock
+  private Javers javers;
+
+  @Mock
+  private AuthorProvider authorProvider;
+
+  @Mock
+  private AuditLogOutboxEntryRepository outboxRepository;
+
+  @Mock
+  private ApplicationContext applicationContext;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  @InjectMocks
+  private AuditLogService auditLogService;
+
+  @Captor
+  private ArgumentCaptor<List<AuditLogOutboxEntry>> entriesCaptor;
+
+  private Facility facility;
+  private Facility otherFacility;
+
+  @Before
+  public void setUp() {
+    facility = new Facility("F1");
+    facility.setId(UUID.randomUUID());
+    otherFacility = new Facility("F2");
+    otherFacility.setId(UUID.randomUUID());
+
+    when(authorProvider.provide()).thenReturn(AUTHOR);
+    when(outboxRepository.tryLockOutbox()).thenReturn(true);
+  }
+
+  @Test
+  public void shouldCommitSavedEntitiesRightAwayByDefault() {
+    auditLogService.onSaved(Arrays.asList(facility, otherFacility));
+
+    verify(javers).commit(AUTHOR, facility);
+    verify(javers).commit(AUTHOR, otherFacility);
+    verifyZeroInteractions(outboxRepository);
+  }
+
+  @Test
+  public void shouldCommitDeletedEntitiesAndIdsRightAwayByDefault() {
+    auditLogService.onDeleted(Facility.class, Arrays.asList(facility, otherFacility.getId()));
+
+    verify(javers).commitShallowDelete(AUTHOR, facility);
+    verify(javers).commitShallowDeleteById(eq(AUTHOR), any());
+    verifyZeroInteractions(outboxRepository);
+  }
+
+  @Test
+  public void shouldWriteSavedEntitiesToOutboxInAsyncMode() {
+    ReflectionTestUtils.setField(auditLogService, "async", true);
+
+    auditLogService.onSaved(Arrays.asList(facility, otherFacility));
+
+    verify(outboxRepository).save(entriesCaptor.capture());
+    List<AuditLogOutboxEntry> entries = entriesCaptor.getValue();
+    assertThat(entries, hasSize(2));
+    assertEquals(Facility.class.getName(), entries.get(0).getEntityType());
+    assertEquals(facility.getId(), entries.get(0).getEntityId());
+    assertEquals(AUTHOR, entries.get(0).getAuthor());
+    assertFalse(entries.get(0).isDeleted());
+    verify(javers, never()).commit(anyString(), any());
+  }
+
+  @Test
+  public void shouldWriteDeletedIdsToOutboxInAsyncMode() {
+    ReflectionTestUtils.setField(auditLogService, "async", true);
+
+    auditLogService.onDeleted(Facility.class, Collections.singletonList(facility.getId()));
+
+    verify(outboxRepository).save(entriesCaptor.capture());
+    AuditLogOutboxEntry entry = entriesCaptor.getValue().get(0);
+    assertEquals(facility.getId(), entry.getEntityId());
+    assertTrue(entry.isDeleted());
+    verifyZeroInteractions(javers);
+  }
+
+  @Test
+  public void shouldNotLoadObjectsDeletedLastWhenProcessingOutbox() {
+    // no repositories are registered, so any load would fail
+    when(applicationContext.getBeanNamesForType(any(Class.class), anyBoolean(), anyBoolean()))
+        .thenReturn(new String[0]);
+    List<AuditLogOutboxEntry> entries = Arrays.asList(
+        new AuditLogOutboxEntry(Facility.class, facility.getId(), AUTHOR, false),
+        new AuditLogOutboxEntry(Facility.class, facility.getId(), AUTHOR, true));
+    when(outboxRepository.lockOldestEntries(10)).thenReturn(entries);
+    when(javers.findSnapshots(any()))
+        .thenReturn(Collections.singletonList(mock(CdoSnapshot.class)));
+
+    assertEquals(2, auditLogService.processOutbox(10));
+
+    verify(javers).commitShallowDeleteById(eq(AUTHOR), any());
+    verify(javers, never()).commit(anyString(), any());
+    verify(outboxRepository).delete(entries);
+  }
+
+  @Test
+  public void shouldMarkEntriesOfFailingObjectAsFailed() {
+    when(applicationContext.getBeanNamesForType(any(Class.class), anyBoolean(), anyBoolean()))
+        .thenReturn(new String[0]);
+    AuditLogOutboxEntry renamed =
+        new AuditLogOutboxEntry(Facility.class, otherFacility.getId(), AUTHOR, false);
+    renamed.setId(UUID.randomUUID());
+    ReflectionTestUtils.setField(renamed, "entityType", "org.openlmis.referencedata.Renamed");
+    AuditLogOutboxEntry deleted =
+        new AuditLogOutboxEntry(Facility.class, facility.getId(), AUTHOR, true);
+    deleted.setId(UUID.randomUUID());
+    when(outboxRepository.lockOldestEntries(10)).thenReturn(Arrays.asList(renamed, deleted));
+    when(outboxRepository.findAll(Collections.singletonList(renamed.getId())))
+        .thenReturn(Collections.singletonList(renamed));
+    when(outboxRepository.findAll(Collections.singletonList(deleted.getId())))
+        .thenReturn(Collections.singletonList(deleted));
+    when(outboxRepository.markFailed(Collections.singletonList(renamed.getId()))).thenReturn(1);
+    when(javers.findSnapshots(any()))
+        .thenReturn(Collections.singletonList(mock(CdoSnapshot.class)));
+
+    assertEquals(2, auditLogService.processOutbox(10));
+
+    verify(outboxRepository).markFailed(Collections.singletonList(renamed.getId()));
+    verify(outboxRepository).delete(Collections.singletonList(deleted));
+    verify(javers).commitShallowDeleteById(eq(AUTHOR), any());
+  }
+
+  @Test
+  public void shouldNotProcessOutboxDrainedByOtherInstance() {
+    when(outboxRepository.tryLockOutbox()).thenReturn(false);
+
+    assertEquals(0, auditLogService.processOutbox(10));
+    verify(outboxRepository, never()).lockOldestEntries(anyInt());
+    verifyZeroInteractions(javers);
+  }
+
+  @Test
+  public void shouldNotProcessEmptyOutbox() {
+    when(outboxRepository.lockOldestEntries(10)).thenReturn(Collections.emptyList());
+
+    assertEquals(0, auditLogService.processOutbox(10));
+    verifyZeroInteractions(javers);
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.collection.AbstractCollectionPersister;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.Role;
+
+import java.util.Collections;
+import java.util.UUID;
+
+import javax.persistence.EntityManagerFactory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheInvalidationServiceTest {
+
+  private static final String ROLE_RIGHTS = Role.class.getName() + ".rights";
+
+  @Mock
+  private EntityManagerFactory entityManagerFactory;
+
+  @Mock
+  private SessionFactoryImplementor sessionFactory;
+
+  @Mock
+  private Cache cache;
+
+  @Mock
+  private SupplyLineService supplyLineService;
+
+  @Mock
+  private PackCalculationService packCalculationService;
+
+  @Mock
+  private RequisitionGroupProgramScheduleService requisitionGroupProgramScheduleService;
+
+  @InjectMocks
+  private CacheInvalidationService cacheInvalidationService;
+
+  private UUID id = UUID.randomUUID();
+
+  @Before
+  public void setUp() {
+    AbstractEntityPersister programPersister = mock(AbstractEntityPersister.class);
+    when(programPersister.hasCache()).thenReturn(true);
+    when(programPersister.getTableName()).thenReturn("referencedata.programs");
+
+    AbstractCollectionPersister rightsPersister = mock(AbstractCollectionPersister.class);
+    when(rightsPersister.hasCache()).thenReturn(true);
+    when(rightsPersister.getTableName()).thenReturn("referencedata.role_rights");
+
+    when(entityManagerFactory.unwrap(SessionFactoryImplementor.class)).thenReturn(sessionFactory);
+    when(sessionFactory.getCache()).thenReturn(cache);
+    when(sessionFactory.getEntityPersisters()).thenReturn(
+        Collections.<String, EntityPersister>singletonMap(Program.class.getName(),
+            programPersister));
+    when(sessionFactory.getCollectionPersisters()).thenReturn(
+        Collections.<String, CollectionPersister>singletonMap(ROLE_RIGHTS, rightsPersister));
+
+    cacheInvalidationService.init();
+  }
+
+  @Test
+  public void shouldEvictChangedEntityAndQueryResults() {
+    cacheInvalidationService.invalidate("programs," + id);
+
+    verify(cache).evictEntity(Program.class.getName(), id);
+    verify(cache).evictDefaultQueryRegion();
+  }
+
+  @Test
+  public void shouldEvictCollectionOfChangedOwner() {
+    cacheInvalidationService.invalidate("role_rights," + id);
+
+    verify(cache).evictCollection(ROLE_RIGHTS, id);
+    verify(cache, never()).evictDefaultQueryRegion();
+  }
+
+  @Test
+  public void shouldInvalidateServiceIndexes() {
+    cacheInvalidationService.invalidate(CacheInvalidationService.SUPPLY_LINES);
+    cacheInvalidationService.invalidate(CacheInvalidationService.ORDERABLES);
+    cacheInvalidationService.invalidate(
+        CacheInvalidationService.REQUISITION_GROUP_MEMBERS + "," + id);
+
+    verify(supplyLineService).invalidate();
+    verify(packCalculationService).invalidate();
+    verify(requisitionGroupProgramScheduleService).invalidate(id);
+  }
+
+  @Test
+  public void shouldIgnoreTablesThatAreNotCached() {
+    cacheInvalidationService.invalidate("facilities," + id);
+
+    verifyZeroInteractions(cache, supplyLineService, packCalculationService,
+        requisitionGroupProgramScheduleService);
+  }
+
+  @Test
+  public void shouldEvictEverything() {
+    cacheInvalidationService.invalidateAll();
+
+    verify(cache).evictAllRegions();
+    verify(supplyLineService).invalidate();
+    verify(packCalculationService).invalidate();
+    verify(requisitionGroupProgramScheduleService).invalidateAll();
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.SecondLevelCacheStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.dto.CacheRegionStatisticsDto;
+import org.openlmis.referencedata.dto.CacheStatisticsDto;
+
+import javax.persistence.EntityManagerFactory;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CacheStatisticsServiceTest {
+
+  private static final String PROGRAM_REGION = "org.openlmis.referencedata.domain.Program";
+  private static final String ROLE_REGION = "org.openlmis.referencedata.domain.Role";
+
+  @Mock
+  private EntityManagerFactory entityManagerFactory;
+
+  @Mock
+  private SessionFactory sessionFactory;
+
+  @Mock
+  private Statistics statistics;
+
+  @InjectMocks
+  private CacheStatisticsService cacheStatisticsService;
+
+  @Before
+  public void setUp() {
+    when(entityManagerFactory.unwrap(SessionFactory.class)).thenReturn(sessionFactory);
+    when(sessionFactory.getStatistics()).thenReturn(statistics);
+    when(statistics.isStatisticsEnabled()).thenReturn(true);
+  }
+
+  @Test
+  public void shouldReturnHitRatiosOfCachesAndRegions() {
+    when(statistics.getSecondLevelCacheHitCount()).thenReturn(9L);
+    when(statistics.getSecondLevelCacheMissCount()).thenReturn(1L);
+    when(statistics.getQueryCacheHitCount()).thenReturn(1L);
+    when(statistics.getQueryCacheMissCount()).thenReturn(3L);
+    when(statistics.getSecondLevelCacheRegionNames())
+        .thenReturn(new String[] {ROLE_REGION, PROGRAM_REGION});
+    SecondLevelCacheStatistics programRegion = region(6, 2);
+    when(statistics.getSecondLevelCacheStatistics(PROGRAM_REGION)).thenReturn(programRegion);
+    SecondLevelCacheStatistics roleRegion = region(3, 0);
+    when(statistics.getSecondLevelCacheStatistics(ROLE_REGION)).thenReturn(roleRegion);
+
+    CacheStatisticsDto result = cacheStatisticsService.getStatistics();
+
+    assertTrue(result.isStatisticsEnabled());
+    assertEquals(0.9, result.getSecondLevelCacheHitRatio(), 0.001);
+    assertEquals(0.25, result.getQueryCacheHitRatio(), 0.001);
+
+    CacheRegionStatisticsDto first = result.getRegions().get(0);
+    assertEquals(PROGRAM_REGION, first.getName());
+    assertEquals(0.75, first.getHitRatio(), 0.001);
+    assertEquals(1.0, result.getRegions().get(1).getHitRatio(), 0.001);
+  }
+
+  @Test
+  public void shouldReturnZeroHitRatioIfCacheWasNotUsed() {
+    when(statistics.getSecondLevelCacheRegionNames()).thenReturn(new String[0]);
+
+    CacheStatisticsDto result = cacheStatisticsService.getStatistics();
+
+    assertEquals(0, result.getSecondLevelCacheHitRatio(), 0);
+    assertEquals(0, result.getQueryCacheHitRatio(), 0);
+    assertTrue(result.getRegions().isEmpty());
+  }
+
+  private SecondLevelCacheStatistics region(long hits, long misses) {
+    SecondLevelCacheStatistics region = mock(SecondLevelCacheStatistics.class);
+    when(region.getHitCount()).thenReturn(hits);
+    when(region.getMissCount()).thenReturn(misses);
+    return region;
+  }
+}
@@ -0,0 +1,208 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.joda.money.CurrencyUnit;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.CurrencyConfig;
+import org.openlmis.referencedata.domain.Code;
+import org.openlmis.referencedata.domain.CommodityType;
+import org.openlmis.referencedata.domain.Orderable;
+import org.openlmis.referencedata.domain.OrderableDisplayCategory;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.ProgramOrderable;
+import org.openlmis.referencedata.dto.OrderableImportResultDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.i18n.ExposedMessageSource;
+import org.openlmis.referencedata.repository.OrderableDisplayCategoryRepository;
+import org.openlmis.referencedata.repository.OrderableRepository;
+import org.openlmis.referencedata.repository.ProgramRepository;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+
+import javax.persistence.EntityManager;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OrderableImportServiceTest {
+
+  private static final String PROGRAM_CODE = "PRG1";
+  private static final String CATEGORY_CODE = "CAT1";
+
+  @Mock
+  private OrderableRepository orderableRepository;
+
+  @Mock
+  private ProgramRepository programRepository;
+
+  @Mock
+  private OrderableDisplayCategoryRepository orderableDisplayCategoryRepository;
+
+  @Mock
+  private ExposedMessageSource messageSource;
+
+  @Mock
+  private EntityManager entityManager;
+
+  @Mock
+  private PackCalculationService packCalculationService;
+
+  @Spy
+  private ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks
+  private OrderableImportService orderableImportService;
+
+  @Captor
+  private ArgumentCaptor<List<Orderable>> savedCaptor;
+
+  private Program program;
+  private OrderableDisplayCategory category;
+
+  @Before
+  public void setUp() {
+    program = new Program(PROGRAM_CODE);
+    program.setId(UUID.randomUUID());
+    category = OrderableDisplayCategory.createNew(Code.code(CATEGORY_CODE));
+    category.setId(UUID.randomUUID());
+
+    when(programRepository.findAllByCodes(anyCollectionOf(String.class)))
+        .thenReturn(Collections.singletonList(program));
+    when(orderableDisplayCategoryRepository.findAllByCodes(anyCollectionOf(String.class)))
+        .thenReturn(Collections.singletonList(category));
+    when(messageSource.getMessage(anyString(), any(Object[].class), any(Locale.class)))
+        .thenReturn("error");
+  }
+
+  @Test
+  public void shouldCreateNewOrderablesWithPrograms() {
+    OrderableImportResultDto result = orderableImportService.importOrderables(json(
+        line("commodityType", "C1", PROGRAM_CODE),
+        line("tradeItem", "T1", PROGRAM_CODE)));
+
+    assertEquals(2, result.getTotal());
+    assertEquals(2, result.getCreated());
+    assertEquals(0, result.getUpdated());
+    assertThat(result.getErrors(), hasSize(0));
+
+    verify(orderableRepository).save(savedCaptor.capture());
+    List<Orderable> saved = savedCaptor.getValue();
+    assertThat(saved, hasSize(2));
+    assertNotNull(saved.get(0).getProgramOrderable(program));
+  }
+
+  @Test
+  public void shouldUpdateExistingOrderableInPlace() {
+    CommodityType stored = CommodityType.newCommodityType(
+        "C1", "each", "Old name", "desc", 10, 5, false);
+    stored.setId(UUID.randomUUID());
+    ProgramOrderable storedProgramOrderable = ProgramOrderable.createNew(program, category,
+        stored, CurrencyUnit.of(CurrencyConfig.CURRENCY_CODE));
+    storedProgramOrderable.setId(UUID.randomUUID());
+    stored.addToProgram(storedProgramOrderable);
+    when(orderableRepository.findAllByProductCodes(anyCollectionOf(String.class)))
+        .thenReturn(Collections.singletonList(stored));
+
+    OrderableImportResultDto result = orderableImportService.importOrderables(json(
+        line("commodityType", "C1", PROGRAM_CODE)));
+
+    assertEquals(0, result.getCreated());
+    assertEquals(1, result.getUpdated());
+
+    verify(orderableRepository).save(savedCaptor.capture());
+    Orderable saved = savedCaptor.getValue().get(0);
+    assertEquals(stored.getId(), saved.getId());
+    assertEquals("C1 name", saved.getName());
+    assertEquals(storedProgramOrderable.getId(), saved.getProgramOrderable(program).getId());
+  }
+
+  @Test
+  public void shouldReportInvalidLinesAndImportTheRest() {
+    OrderableImportResultDto result = orderableImportService.importOrderables(json(
+        line("commodityType", "C1", PROGRAM_CODE),
+        line("commodityType", "C1", PROGRAM_CODE),
+        line("commodityType", "C2", "UNKNOWN"),
+        line("kit", "C3", PROGRAM_CODE),
+        "{\"name\": \"no code\"}"));
+
+    assertEquals(5, result.getTotal());
+    assertEquals(1, result.getCreated());
+    assertThat(result.getErrors(), hasSize(4));
+    assertEquals(2, result.getErrors().get(0).getLine());
+    assertEquals("C1", result.getErrors().get(0).getProductCode());
+  }
+
+  @Test
+  public void shouldResolveCodesOncePerChunk() {
+    String[] lines = new String[OrderableImportService.CHUNK_SIZE + 1];
+    for (int i = 0; i < lines.length; i++) {
+      lines[i] = line("commodityType", "C" + i, PROGRAM_CODE);
+    }
+
+    OrderableImportResultDto result = orderableImportService.importOrderables(json(lines));
+
+    assertEquals(lines.length, result.getCreated());
+    verify(orderableRepository, times(2)).findAllByProductCodes(anyCollectionOf(String.class));
+    verify(programRepository, times(1)).findAllByCodes(anyCollectionOf(String.class));
+    verify(entityManager, times(2)).flush();
+    verify(entityManager, times(2)).clear();
+    verify(packCalculationService).invalidate();
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldRejectMalformedInput() {
+    orderableImportService.importOrderables(json("{\"productCode\": "));
+  }
+
+  private String line(String type, String code, String programCode) {
+    return "{\"type\": \"" + type + "\", \"productCode\": \"" + code + "\", "
+        + "\"dispensingUnit\": \"each\", \"name\": \"" + code + " name\", \"packSize\": 10, "
+        + "\"programs\": [{\"programCode\": \"" + programCode + "\", "
+        + "\"orderableDisplayCategoryCode\": \"" + CATEGORY_CODE + "\", "
+        + "\"pricePerPack\": 1.5}]}";
+  }
+
+  private InputStream json(String... lines) {
+    String json = "[" + String.join(",", lines) + "]";
+    return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+  }
+}
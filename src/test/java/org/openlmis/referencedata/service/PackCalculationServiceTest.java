@@ -0,0 +1,135 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.dto.PacksToOrderDto;
+import org.openlmis.referencedata.exception.NotFoundException;
+import org.openlmis.referencedata.repository.OrderableRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PackCalculationServiceTest {
+
+  @Mock
+  private OrderableRepository orderableRepository;
+
+  @InjectMocks
+  private PackCalculationService packCalculationService;
+
+  private UUID roundedId = UUID.randomUUID();
+  private UUID roundedToZeroId = UUID.randomUUID();
+
+  @Before
+  public void setUp() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{roundedId, 10L, 4L, false});
+    rows.add(new Object[]{roundedToZeroId, 10L, 4L, true});
+    when(orderableRepository.findAllPackParameters()).thenReturn(rows);
+  }
+
+  @Test
+  public void shouldCalculatePacksToOrderUsingOrderableRules() {
+    List<PacksToOrderDto> lines = packCalculationService.packsToOrder(Arrays.asList(
+        line(roundedId, 15),
+        line(roundedId, 14),
+        line(roundedId, 3),
+        line(roundedToZeroId, 3),
+        line(roundedToZeroId, 0)));
+
+    assertEquals(2, lines.get(0).getPacksToOrder());
+    assertEquals(1, lines.get(1).getPacksToOrder());
+    assertEquals(1, lines.get(2).getPacksToOrder());
+    assertEquals(0, lines.get(3).getPacksToOrder());
+    assertEquals(0, lines.get(4).getPacksToOrder());
+  }
+
+  @Test
+  public void shouldLoadPackParametersOnce() {
+    packCalculationService.packsToOrder(Collections.singletonList(line(roundedId, 15)));
+    packCalculationService.packsToOrder(Collections.singletonList(line(roundedToZeroId, 15)));
+
+    verify(orderableRepository, times(1)).findAllPackParameters();
+    verify(orderableRepository, never()).findPackParameters(anyCollectionOf(UUID.class));
+  }
+
+  @Test
+  public void shouldLoadOrderablesMissingFromCache() {
+    packCalculationService.packsToOrder(Collections.singletonList(line(roundedId, 15)));
+
+    UUID newId = UUID.randomUUID();
+    when(orderableRepository.findPackParameters(Collections.singleton(newId)))
+        .thenReturn(Collections.singletonList(new Object[]{newId, 5L, 0L, false}));
+
+    List<PacksToOrderDto> lines = packCalculationService
+        .packsToOrder(Collections.singletonList(line(newId, 11)));
+
+    assertEquals(3, lines.get(0).getPacksToOrder());
+    verify(orderableRepository, times(1)).findAllPackParameters();
+  }
+
+  @Test
+  public void shouldReloadPackParametersAfterInvalidation() {
+    packCalculationService.packsToOrder(Collections.singletonList(line(roundedId, 15)));
+    packCalculationService.invalidate();
+    packCalculationService.packsToOrder(Collections.singletonList(line(roundedId, 15)));
+
+    verify(orderableRepository, times(2)).findAllPackParameters();
+  }
+
+  @Test
+  public void shouldNotKeepPackParametersLoadedBeforeInvalidation() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{roundedId, 10L, 4L, false});
+    when(orderableRepository.findAllPackParameters()).thenAnswer(invocation -> {
+      packCalculationService.invalidate();
+      return rows;
+    }).thenReturn(rows);
+
+    packCalculationService.packsToOrder(Collections.singletonList(line(roundedId, 15)));
+    packCalculationService.packsToOrder(Collections.singletonList(line(roundedId, 15)));
+    packCalculationService.packsToOrder(Collections.singletonList(line(roundedId, 15)));
+
+    verify(orderableRepository, times(2)).findAllPackParameters();
+  }
+
+  @Test(expected = NotFoundException.class)
+  public void shouldThrowExceptionIfOrderableDoesNotExist() {
+    packCalculationService.packsToOrder(Arrays.asList(
+        line(roundedId, 15), line(UUID.randomUUID(), 15)));
+  }
+
+  private PacksToOrderDto line(UUID orderableId, long dispensingUnits) {
+    return new PacksToOrderDto(orderableId, dispensingUnits, 0);
+  }
+}
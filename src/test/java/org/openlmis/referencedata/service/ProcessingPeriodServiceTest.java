@@ -17,6 +17,7 @@ package org.openlmis.referencedata.service;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyListOf;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -31,13 +32,16 @@ import org.openlmis.referencedata.domain.ProcessingPeriod;
 import org.openlmis.referencedata.domain.ProcessingSchedule;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
+import org.openlmis.referencedata.dto.ProcessingPeriodGenerationDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.ProcessingPeriodRepository;
-import org.openlmis.referencedata.repository.RequisitionGroupProgramScheduleRepository;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 
@@ -50,7 +54,7 @@ public class ProcessingPeriodServiceTest {
   private ProcessingPeriodRepository periodRepository;
 
   @Mock
-  private RequisitionGroupProgramScheduleRepository repository;
+  private RequisitionGroupProgramScheduleService requisitionGroupProgramScheduleService;
 
   @Mock
   private RequisitionGroupProgramSchedule requisitionGroupProgramSchedule;
@@ -79,16 +83,110 @@ public class ProcessingPeriodServiceTest {
 
   @Test
   public void shouldFindPeriodsByProgramAndFacility() {
-    doReturn(requisitionGroupProgramSchedule).when(repository)
+    doReturn(requisitionGroupProgramSchedule).when(requisitionGroupProgramScheduleService)
           .searchRequisitionGroupProgramSchedule(program, facility);
     doReturn(Arrays.asList(period)).when(periodRepository).searchPeriods(schedule, null);
 
     periodService.filterPeriods(program, facility);
 
-    verify(repository).searchRequisitionGroupProgramSchedule(program, facility);
+    verify(requisitionGroupProgramScheduleService).searchRequisitionGroupProgramSchedule(program, facility);
     verify(periodRepository).searchPeriods(schedule, null);
   }
 
+  @Test
+  public void shouldGenerateContiguousPeriodsAfterLastPeriod() {
+    ProcessingPeriod lastPeriod = generatePeriod(0);
+    lastPeriod.setEndDate(LocalDate.of(2016, 12, 31));
+    when(periodRepository.findFirstByProcessingScheduleOrderByStartDateDesc(schedule))
+        .thenReturn(lastPeriod);
+    when(periodRepository.save(anyListOf(ProcessingPeriod.class)))
+        .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+    List<ProcessingPeriod> generated = periodService.generatePeriods(schedule,
+        new ProcessingPeriodGenerationDto(null, null, 4, 3, ChronoUnit.MONTHS, "'Q'Q yyyy"));
+
+    assertEquals(4, generated.size());
+    assertEquals("Q1 2017", generated.get(0).getName());
+    assertEquals(LocalDate.of(2017, 1, 1), generated.get(0).getStartDate());
+    assertEquals(LocalDate.of(2017, 3, 31), generated.get(0).getEndDate());
+    assertEquals("Q4 2017", generated.get(3).getName());
+    assertEquals(LocalDate.of(2017, 10, 1), generated.get(3).getStartDate());
+    assertEquals(LocalDate.of(2017, 12, 31), generated.get(3).getEndDate());
+    for (int i = 1; i < generated.size(); i++) {
+      assertEquals(generated.get(i - 1).getEndDate().plusDays(1),
+          generated.get(i).getStartDate());
+    }
+  }
+
+  @Test
+  public void shouldGenerateMonthlyPeriodsEndingOnLastDayOfMonth() {
+    when(periodRepository.save(anyListOf(ProcessingPeriod.class)))
+        .thenAnswer(invocation -> invocation.getArguments()[0]);
+
+    List<ProcessingPeriod> generated = periodService.generatePeriods(schedule,
+        new ProcessingPeriodGenerationDto(null, LocalDate.of(2017, 1, 1), 3, 1,
+            ChronoUnit.MONTHS, null));
+
+    assertEquals(LocalDate.of(2017, 1, 31), generated.get(0).getEndDate());
+    assertEquals(LocalDate.of(2017, 2, 28), generated.get(1).getEndDate());
+    assertEquals(LocalDate.of(2017, 3, 31), generated.get(2).getEndDate());
+    assertEquals("2017-01-01", generated.get(0).getName());
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotGeneratePeriodsWithGapAfterLastPeriod() {
+    ProcessingPeriod lastPeriod = generatePeriod(0);
+    lastPeriod.setEndDate(LocalDate.of(2016, 12, 31));
+    when(periodRepository.findFirstByProcessingScheduleOrderByStartDateDesc(schedule))
+        .thenReturn(lastPeriod);
+
+    periodService.generatePeriods(schedule, new ProcessingPeriodGenerationDto(
+        null, LocalDate.of(2017, 1, 2), 1, 7, ChronoUnit.DAYS, null));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotGenerateMorePeriodsThanMaximum() {
+    periodService.generatePeriods(schedule, new ProcessingPeriodGenerationDto(
+        null, LocalDate.of(2017, 1, 1), ProcessingPeriodService.MAX_GENERATED_PERIODS + 1, 7,
+        ChronoUnit.DAYS, null));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotGeneratePeriodsWithUnsupportedDurationUnit() {
+    periodService.generatePeriods(schedule, new ProcessingPeriodGenerationDto(
+        null, LocalDate.of(2017, 1, 1), 1, 7, ChronoUnit.HOURS, null));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotGeneratePeriodsWithInvalidNamePattern() {
+    periodService.generatePeriods(schedule, new ProcessingPeriodGenerationDto(
+        null, LocalDate.of(2017, 1, 1), 1, 7, ChronoUnit.DAYS, "HH:mm"));
+  }
+
+  @Test
+  public void shouldFindPeriodsContainingDates() {
+    ProcessingPeriod january = ProcessingPeriod.newPeriod("Jan", schedule,
+        LocalDate.of(2017, 1, 1), LocalDate.of(2017, 1, 31));
+    ProcessingPeriod march = ProcessingPeriod.newPeriod("Mar", schedule,
+        LocalDate.of(2017, 3, 1), LocalDate.of(2017, 3, 31));
+    when(periodRepository.findOverlappingPeriods(schedule, LocalDate.of(2017, 1, 1),
+        LocalDate.of(2017, 3, 31))).thenReturn(Arrays.asList(january, march));
+
+    Map<LocalDate, ProcessingPeriod> found = periodService.findPeriodsContaining(schedule,
+        Arrays.asList(LocalDate.of(2017, 1, 1), LocalDate.of(2017, 1, 31),
+            LocalDate.of(2017, 2, 15), LocalDate.of(2017, 3, 31)));
+
+    assertEquals(3, found.size());
+    assertEquals(january, found.get(LocalDate.of(2017, 1, 1)));
+    assertEquals(january, found.get(LocalDate.of(2017, 1, 31)));
+    assertEquals(march, found.get(LocalDate.of(2017, 3, 31)));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotFindPeriodsContainingNullDate() {
+    periodService.findPeriodsContaining(schedule, Arrays.asList(LocalDate.of(2017, 1, 1), null));
+  }
+
   @Test
   public void shouldFindPeriodsWithinProvidedDateIfTheyExist() {
     List<ProcessingPeriod> matchedPeriods = new ArrayList<>();
@@ -0,0 +1,154 @@
+/*
+ * This program is part of the OpenLMIS logistics management information system platform software.
+ * Copyright © 2017 VillageReach
+ *
+ * This program is free software: you can redistribute it and/or modify it under the terms
+ * of the GNU Affero General Public License as published by the Free Software Foundation, either
+ * version 3 of the License, or (at your option) any later version.
+ *  
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. 
+ * See the GNU Affero General Public License for more details. You should have received a copy of
+ * the GNU Affero General Public License along with this program. If not, see
+ * http://www.gnu.org/licenses.  For additional information contact info@OpenLMIS.org. 
+ */
+
+package org.openlmis.referencedata.service;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.openlmis.referencedata.domain.Facility;
+import org.openlmis.referencedata.domain.Program;
+import org.openlmis.referencedata.domain.RequisitionGroupProgramSchedule;
+import org.openlmis.referencedata.exception.ValidationMessageException;
+import org.openlmis.referencedata.repository.RequisitionGroupProgramScheduleRepository;
+import org.openlmis.referencedata.service.RequisitionGroupProgramScheduleService.Resolution;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@RunWith(MockitoJUnitRunner.class)
+public class RequisitionGroupProgramScheduleServiceTest {
+
+  @Mock
+  private RequisitionGroupProgramScheduleRepository repository;
+
+  @InjectMocks
+  private RequisitionGroupProgramScheduleService service;
+
+  private UUID scheduleId = UUID.randomUUID();
+  private UUID programId = UUID.randomUUID();
+  private UUID facilityId = UUID.randomUUID();
+  private UUID processingScheduleId = UUID.randomUUID();
+  private UUID requisitionGroupId = UUID.randomUUID();
+  private UUID supervisoryNodeId = UUID.randomUUID();
+
+  @Before
+  public void setUp() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{scheduleId, programId, facilityId, processingScheduleId,
+        requisitionGroupId, supervisoryNodeId, null});
+    when(repository.findAllResolutions()).thenReturn(rows);
+  }
+
+  @Test
+  public void shouldResolveProgramAndFacility() {
+    Resolution resolution = service.resolve(programId, facilityId);
+
+    assertEquals(scheduleId, resolution.getId());
+    assertEquals(processingScheduleId, resolution.getProcessingScheduleId());
+    assertEquals(requisitionGroupId, resolution.getRequisitionGroupId());
+    assertEquals(supervisoryNodeId, resolution.getSupervisoryNodeId());
+    assertNull(resolution.getDropOffFacilityId());
+    assertNull(service.resolve(programId, UUID.randomUUID()));
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldNotResolveFacilityWithScheduleInManyRequisitionGroups() {
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{scheduleId, programId, facilityId, processingScheduleId,
+        requisitionGroupId, supervisoryNodeId, null});
+    rows.add(new Object[]{UUID.randomUUID(), programId, facilityId, UUID.randomUUID(),
+        UUID.randomUUID(), supervisoryNodeId, null});
+    when(repository.findAllResolutions()).thenReturn(rows);
+
+    service.resolve(programId, facilityId);
+  }
+
+  @Test
+  public void shouldLoadIndexOnce() {
+    service.resolve(programId, facilityId);
+    service.resolve(programId, UUID.randomUUID());
+
+    verify(repository, times(1)).findAllResolutions();
+    verify(repository, never()).findResolutions(anyCollectionOf(UUID.class));
+  }
+
+  @Test
+  public void shouldReloadOnlyInvalidatedRequisitionGroup() {
+    UUID otherFacilityId = UUID.randomUUID();
+    UUID otherScheduleId = UUID.randomUUID();
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{otherScheduleId, programId, otherFacilityId, processingScheduleId,
+        requisitionGroupId, supervisoryNodeId, null});
+    when(repository.findResolutions(Collections.singleton(requisitionGroupId)))
+        .thenReturn(rows);
+
+    service.resolve(programId, facilityId);
+    service.invalidate(requisitionGroupId);
+
+    assertNull(service.resolve(programId, facilityId));
+    assertEquals(otherScheduleId, service.resolve(programId, otherFacilityId).getId());
+    verify(repository, times(1)).findAllResolutions();
+    verify(repository, times(1)).findResolutions(Collections.singleton(requisitionGroupId));
+  }
+
+  @Test
+  public void shouldLoadResolvedSchedule() {
+    Program program = new Program("P");
+    program.setId(programId);
+    Facility facility = new Facility("F");
+    facility.setId(facilityId);
+    RequisitionGroupProgramSchedule schedule = new RequisitionGroupProgramSchedule();
+    when(repository.findOne(scheduleId)).thenReturn(schedule);
+
+    assertEquals(schedule, service.searchRequisitionGroupProgramSchedule(program, facility));
+  }
+
+  @Test
+  public void shouldFindProcessingScheduleIdsInBatches() {
+    List<UUID> facilityIds = new ArrayList<>();
+    for (int i = 0; i <= RequisitionGroupProgramScheduleService.FACILITY_BATCH_SIZE; i++) {
+      facilityIds.add(UUID.randomUUID());
+    }
+    List<Object[]> rows = new ArrayList<>();
+    rows.add(new Object[]{facilityIds.get(0), processingScheduleId});
+    when(repository.findProcessingScheduleIds(programId,
+        facilityIds.subList(0, RequisitionGroupProgramScheduleService.FACILITY_BATCH_SIZE)))
+        .thenReturn(rows);
+
+    Map<UUID, UUID> processingScheduleIds =
+        service.findProcessingScheduleIds(programId, facilityIds);
+
+    assertEquals(Collections.singletonMap(facilityIds.get(0), processingScheduleId),
+        processingScheduleIds);
+    verify(repository, times(2))
+        .findProcessingScheduleIds(eq(programId), anyCollectionOf(UUID.class));
+  }
+}
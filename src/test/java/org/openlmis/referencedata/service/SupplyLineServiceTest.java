@@ -15,8 +15,13 @@
 
 package org.openlmis.referencedata.service;
 
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import org.junit.Test;
@@ -28,10 +33,17 @@ import org.openlmis.referencedata.domain.Facility;
 import org.openlmis.referencedata.domain.Program;
 import org.openlmis.referencedata.domain.SupervisoryNode;
 import org.openlmis.referencedata.domain.SupplyLine;
+import org.openlmis.referencedata.dto.ProgramSupervisoryNodeDto;
+import org.openlmis.referencedata.exception.ValidationMessageException;
 import org.openlmis.referencedata.repository.SupplyLineRepository;
+import org.openlmis.referencedata.service.SupplyLineService.SupplyLineRoute;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
 
 @RunWith(MockitoJUnitRunner.class)
 public class SupplyLineServiceTest {
@@ -76,4 +88,98 @@ public class SupplyLineServiceTest {
     assertEquals(1, receivedSupplyLines.size());
     assertEquals(supplyLine, receivedSupplyLines.get(0));
   }
+
+  @Test
+  public void shouldSearchSupplyLineRoutesByProgramAndSupervisoryNode() {
+    UUID programId = UUID.randomUUID();
+    UUID nodeId = UUID.randomUUID();
+    UUID facilityId = UUID.randomUUID();
+    Object[] matching = route(programId, nodeId, facilityId);
+    mockRoutes(matching, route(programId, UUID.randomUUID(), facilityId),
+        route(UUID.randomUUID(), nodeId, facilityId));
+
+    assertThat(ids(supplyLineService.searchSupplyLineRoutes(programId, nodeId, null)),
+        contains(matching[0]));
+    assertThat(ids(supplyLineService.searchSupplyLineRoutes(programId, nodeId, facilityId)),
+        contains(matching[0]));
+    assertThat(supplyLineService.searchSupplyLineRoutes(programId, nodeId, UUID.randomUUID()),
+        empty());
+  }
+
+  @Test
+  public void shouldSearchSupplyLineRoutesBySupplyingFacility() {
+    UUID programId = UUID.randomUUID();
+    UUID facilityId = UUID.randomUUID();
+    Object[] matching = route(programId, UUID.randomUUID(), facilityId);
+    mockRoutes(matching, route(programId, UUID.randomUUID(), UUID.randomUUID()),
+        route(UUID.randomUUID(), UUID.randomUUID(), facilityId));
+
+    assertThat(ids(supplyLineService.searchSupplyLineRoutes(programId, null, facilityId)),
+        contains(matching[0]));
+    assertEquals(2, supplyLineService.searchSupplyLineRoutes(programId, null, null).size());
+  }
+
+  @Test
+  public void shouldFindDistinctSupplyingFacilityIds() {
+    UUID programId = UUID.randomUUID();
+    UUID nodeId = UUID.randomUUID();
+    UUID facilityId = UUID.randomUUID();
+    mockRoutes(route(programId, nodeId, facilityId), route(programId, nodeId, facilityId));
+
+    assertThat(supplyLineService.findSupplyingFacilityIds(programId, nodeId),
+        contains(facilityId));
+    assertThat(supplyLineService.findSupplyingFacilityIds(programId, UUID.randomUUID()),
+        empty());
+  }
+
+  @Test
+  public void shouldLoadRoutesOnceUntilInvalidated() {
+    UUID programId = UUID.randomUUID();
+    mockRoutes(route(programId, UUID.randomUUID(), UUID.randomUUID()));
+
+    supplyLineService.searchSupplyLineRoutes(programId, null, null);
+    supplyLineService.searchSupplyLineRoutes(programId, null, null);
+    verify(supplyLineRepository, times(1)).findAllRoutes();
+
+    supplyLineService.invalidate();
+    supplyLineService.searchSupplyLineRoutes(programId, null, null);
+    verify(supplyLineRepository, times(2)).findAllRoutes();
+  }
+
+  @Test
+  public void shouldSearchSupplyLineRoutesOfManyPairsWithOneQuery() {
+    UUID programId = UUID.randomUUID();
+    UUID nodeId = UUID.randomUUID();
+    UUID otherNodeId = UUID.randomUUID();
+    Object[] matching = route(programId, nodeId, UUID.randomUUID());
+    mockRoutes(matching, route(UUID.randomUUID(), otherNodeId, UUID.randomUUID()));
+
+    Map<UUID, Map<UUID, List<SupplyLineRoute>>> result = supplyLineService
+        .searchSupplyLineRoutes(Arrays.asList(new ProgramSupervisoryNodeDto(programId, nodeId),
+            new ProgramSupervisoryNodeDto(programId, otherNodeId)));
+
+    assertEquals(1, result.size());
+    assertThat(ids(result.get(programId).get(nodeId)), contains(matching[0]));
+    assertThat(result.get(programId).get(otherNodeId), empty());
+    verify(supplyLineRepository, times(1)).findAllRoutes();
+  }
+
+  @Test(expected = ValidationMessageException.class)
+  public void shouldRejectPairWithoutSupervisoryNode() {
+    supplyLineService.searchSupplyLineRoutes(Collections.singletonList(
+        new ProgramSupervisoryNodeDto(UUID.randomUUID(), null)));
+  }
+
+  private void mockRoutes(Object[]... rows) {
+    when(supplyLineRepository.findAllRoutes()).thenReturn(Arrays.asList(rows));
+  }
+
+  private Object[] route(UUID programId, UUID supervisoryNodeId, UUID supplyingFacilityId) {
+    return new Object[]{UUID.randomUUID(), programId, supervisoryNodeId, supplyingFacilityId,
+        "description"};
+  }
+
+  private List<UUID> ids(List<SupplyLineRoute> routes) {
+    return routes.stream().map(SupplyLineRoute::getId).collect(Collectors.toList());
+  }
 }
@@ -34,7 +34,6 @@ import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 
 import java.time.LocalDate;
-import java.util.Collections;
 
 public class ProcessingPeriodValidatorTest extends BaseValidatorTest {
 
@@ -104,8 +103,7 @@ public class ProcessingPeriodValidatorTest extends BaseValidatorTest {
 
   @Test
   public void shouldRejectPeriodIfItWouldIntroduceGapBetweenPeriods() {
-    when(processingPeriodService.searchPeriods(processingSchedule, null))
-        .thenReturn(Collections.singletonList(previousPeriod));
+    when(processingPeriodService.findLastPeriod(processingSchedule)).thenReturn(previousPeriod);
     when(previousPeriod.getEndDate()).thenReturn(LocalDate.of(2016, 5, 27));
 
     validator.validate(processingPeriod, errors);
@@ -116,6 +114,16 @@ public class ProcessingPeriodValidatorTest extends BaseValidatorTest {
         ProcessingPeriodMessageKeys.ERROR_GAP_BETWEEN_LAST_END_DATE_AND_START_DATE);
   }
 
+  @Test
+  public void shouldAcceptPeriodStartingAfterLastPeriod() {
+    when(processingPeriodService.findLastPeriod(processingSchedule)).thenReturn(previousPeriod);
+    when(previousPeriod.getEndDate()).thenReturn(LocalDate.of(2016, 5, 31));
+
+    validator.validate(processingPeriod, errors);
+
+    assertFalse(errors.hasErrors());
+  }
+
   @Test
   public void shouldAcceptValidPeriod() {
     validator.validate(processingPeriod, errors);
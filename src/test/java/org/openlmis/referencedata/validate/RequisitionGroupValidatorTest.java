@@ -19,8 +19,11 @@ import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.openlmis.referencedata.validate.RequisitionGroupValidator.CODE;
 import static org.openlmis.referencedata.validate.RequisitionGroupValidator.DESCRIPTION;
 import static org.openlmis.referencedata.validate.RequisitionGroupValidator.MEMBER_FACILITIES;
@@ -94,13 +97,13 @@ public class RequisitionGroupValidatorTest extends BaseValidatorTest {
 
     errors = new BeanPropertyBindingResult(requisitionGroupDto, "requisitionGroup");
 
-    doReturn(mock(SupervisoryNode.class))
+    doReturn(true)
         .when(supervisoryNodes)
-        .findOne(supervisoryNode.getId());
+        .exists(supervisoryNode.getId());
 
-    doReturn(mock(Facility.class))
+    doReturn(Sets.newHashSet(facility.getId()))
         .when(facilities)
-        .findOne(facility.getId());
+        .findExistingIds(anyCollectionOf(UUID.class));
   }
 
   @Test
@@ -143,9 +146,9 @@ public class RequisitionGroupValidatorTest extends BaseValidatorTest {
 
   @Test
   public void shouldRejectIfSupervisoryNodeCanNotBeFound() throws Exception {
-    doReturn(null)
+    doReturn(false)
         .when(supervisoryNodes)
-        .findOne(any(UUID.class));
+        .exists(any(UUID.class));
 
     validator.validate(requisitionGroupDto, errors);
 
@@ -184,6 +187,21 @@ public class RequisitionGroupValidatorTest extends BaseValidatorTest {
         RequisitionGroupMessageKeys.ERROR_FACILITY_NON_EXISTENT);
   }
 
+  @Test
+  public void shouldReportAllMissingFacilitiesAtOnce() throws Exception {
+    UUID missing = UUID.randomUUID();
+    UUID otherMissing = UUID.randomUUID();
+    requisitionGroupDto.setMemberFacilityDtos(
+        Sets.newHashSet(new FacilityDto(missing), new FacilityDto(otherMissing)));
+
+    validator.validate(requisitionGroupDto, errors);
+
+    assertThat(errors.getFieldErrorCount(MEMBER_FACILITIES), is(equalTo(1)));
+    Object[] arguments = errors.getFieldError(MEMBER_FACILITIES).getArguments();
+    assertThat(arguments[0], is(equalTo(Sets.newHashSet(missing, otherMissing))));
+    verify(facilities, times(1)).findExistingIds(anyCollectionOf(UUID.class));
+  }
+
   @Test
   public void shouldNotThrowExceptionIfMemberFacilitiesIsNullOrEmpty() throws Exception {
     requisitionGroupDto.setMemberFacilities(null);
@@ -15,7 +15,7 @@
 
 package org.openlmis.referencedata.web;
 
-import static org.mockito.Mockito.never;
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -24,41 +24,21 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.openlmis.referencedata.domain.Facility;
-import org.openlmis.referencedata.domain.Program;
-import org.openlmis.referencedata.domain.SupervisoryNode;
-import org.openlmis.referencedata.repository.FacilityRepository;
-import org.openlmis.referencedata.repository.ProgramRepository;
-import org.openlmis.referencedata.repository.SupervisoryNodeRepository;
+import org.openlmis.referencedata.dto.SupplyLineSimpleDto;
 import org.openlmis.referencedata.service.RightService;
 import org.openlmis.referencedata.service.SupplyLineService;
+import org.openlmis.referencedata.service.SupplyLineService.SupplyLineRoute;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.UUID;
 
 @SuppressWarnings({"PMD.UnusedPrivateField"})
 public class SupplyLineControllerTest {
 
-  @Mock
-  private ProgramRepository programRepository;
-
-  @Mock
-  private SupervisoryNodeRepository supervisoryNodeRepository;
-
-  @Mock
-  private FacilityRepository facilityRepository;
-
   @Mock
   private SupplyLineService supplyLineService;
 
-  @Mock
-  private Program program;
-
-  @Mock
-  private SupervisoryNode supervisoryNode;
-
-  @Mock
-  private Facility supplyingFacility;
-
   @Mock
   private RightService rightService;
 
@@ -72,49 +52,49 @@ public class SupplyLineControllerTest {
   @Before
   public void setUp() {
     MockitoAnnotations.initMocks(this);
-    when(programRepository.findOne(programId)).thenReturn(program);
   }
 
   @Test
   public void shouldSearchSupplyLinesWithSupervisoryNode() {
-    when(supervisoryNodeRepository.findOne(supervisoryNodeId)).thenReturn(supervisoryNode);
-
     supplyLineController.searchSupplyLinesByUuid(programId, supervisoryNodeId, null);
 
-    verify(supervisoryNodeRepository).findOne(supervisoryNodeId);
-    verify(facilityRepository, never()).findOne(null);
-    verify(supplyLineService).searchSupplyLines(program, supervisoryNode, null);
+    verify(supplyLineService).searchSupplyLineRoutes(programId, supervisoryNodeId, null);
   }
 
   @Test
   public void shouldSearchSupplyLinesWithSupplyingFacility() {
-    when(facilityRepository.findOne(supplyingFacilityId)).thenReturn(supplyingFacility);
-
     supplyLineController.searchSupplyLinesByUuid(programId, null, supplyingFacilityId);
 
-    verify(supervisoryNodeRepository, never()).findOne(null);
-    verify(facilityRepository).findOne(supplyingFacilityId);
-    verify(supplyLineService).searchSupplyLines(program, null, supplyingFacility);
+    verify(supplyLineService).searchSupplyLineRoutes(programId, null, supplyingFacilityId);
   }
 
   @Test
   public void shouldSearchSupplyLinesWithAllParameters() {
-    when(supervisoryNodeRepository.findOne(supervisoryNodeId)).thenReturn(supervisoryNode);
-    when(facilityRepository.findOne(supplyingFacilityId)).thenReturn(supplyingFacility);
-
     supplyLineController.searchSupplyLinesByUuid(programId, supervisoryNodeId, supplyingFacilityId);
 
-    verify(supervisoryNodeRepository).findOne(supervisoryNodeId);
-    verify(facilityRepository).findOne(supplyingFacilityId);
-    verify(supplyLineService).searchSupplyLines(program, supervisoryNode, supplyingFacility);
+    verify(supplyLineService)
+        .searchSupplyLineRoutes(programId, supervisoryNodeId, supplyingFacilityId);
   }
 
   @Test
   public void shouldSearchSupplyLinesWithRequiredParametersOnly() {
     supplyLineController.searchSupplyLinesByUuid(programId, null, null);
 
-    verify(supervisoryNodeRepository, never()).findOne(null);
-    verify(facilityRepository, never()).findOne(null);
-    verify(supplyLineService).searchSupplyLines(program, null, null);
+    verify(supplyLineService).searchSupplyLineRoutes(programId, null, null);
+  }
+
+  @Test
+  public void shouldReturnSupplyLinesFromRoutes() {
+    UUID supplyLineId = UUID.randomUUID();
+    when(supplyLineService.searchSupplyLineRoutes(programId, supervisoryNodeId, null))
+        .thenReturn(Collections.singletonList(new SupplyLineRoute(supplyLineId, programId,
+            supervisoryNodeId, supplyingFacilityId, "description")));
+
+    List<SupplyLineSimpleDto> result =
+        supplyLineController.searchSupplyLinesByUuid(programId, supervisoryNodeId, null);
+
+    assertEquals(Collections.singletonList(new SupplyLineSimpleDto(supplyLineId,
+        supervisoryNodeId, "description", programId, supplyingFacilityId)), result);
+    assertEquals("description", result.get(0).getDescription());
   }
 }